@@ -0,0 +1,36 @@
+package com.mindex.challenge.benchmark;
+
+import com.mindex.challenge.ChallengeApplication;
+import com.mindex.challenge.dao.CompensationRepository;
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.service.ReportingIndexService;
+import com.mindex.challenge.service.impl.OrgGraphCache;
+import com.mindex.challenge.synthetic.SyntheticOrg;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application without a web server against its embedded mongo and seeds it with a generated org.
+ */
+final class BenchmarkApplication {
+
+    static final long SEED = 42;
+    private static final int INSERT_BATCH = 10_000;
+
+    private BenchmarkApplication() {}
+
+    static ConfigurableApplicationContext start(SyntheticOrg org) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ChallengeApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("bootstrap.async=false",
+                        "reporting.benchmark.sample-rate=0",
+                        "logging.level.com.mindex=WARN")
+                .run();
+
+        org.insertInto(context.getBean(EmployeeRepository.class), context.getBean(CompensationRepository.class), INSERT_BATCH);
+        context.getBean(ReportingIndexService.class).rebuild();
+        context.getBean(OrgGraphCache.class).invalidate();
+        return context;
+    }
+}
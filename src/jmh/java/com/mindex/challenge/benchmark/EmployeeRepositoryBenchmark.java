@@ -0,0 +1,54 @@
+package com.mindex.challenge.benchmark;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.synthetic.OrgShape;
+import com.mindex.challenge.synthetic.SyntheticOrg;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one {@code findByEmployeeId} round trip through the embedded mongo server, picking a random employee of
+ * a generated org each time. The org shape does not change the lookup, so only the size varies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EmployeeRepositoryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeRepository employeeRepository;
+    private String[] ids;
+
+    @Setup
+    public void start() {
+        SyntheticOrg org = OrgShape.BALANCED.generator(size, BenchmarkApplication.SEED).build().generate();
+        ids = org.getEmployees().stream().map(Employee::getEmployeeId).toArray(String[]::new);
+        context = BenchmarkApplication.start(org);
+        employeeRepository = context.getBean(EmployeeRepository.class);
+    }
+
+    @TearDown
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Employee findByEmployeeId() {
+        return employeeRepository.findByEmployeeId(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+}
@@ -0,0 +1,69 @@
+package com.mindex.challenge.benchmark;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.service.ReportingStrategy;
+import com.mindex.challenge.service.ReportingTraversal;
+import com.mindex.challenge.synthetic.OrgShape;
+import com.mindex.challenge.synthetic.SyntheticOrg;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to calculate the full reporting structure of the top of a generated org with each strategy.
+ * The sequential and parallel strategies recurse once per level, so the deep shape at a million employees can
+ * overflow even the enlarged stack the build gives the benchmark JVM; that run fails rather than skewing the others.
+ * The graph lookup strategy runs against the embedded mongo-java-server like everything else here, so it measures
+ * that backend's {@code $graphLookup}; deep shapes past {@code reporting.graph-lookup.max-depth} fall back to batched.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReportingStrategyBenchmark {
+
+    @Param({"BATCHED", "GRAPH", "GRAPH_LOOKUP", "PARALLEL", "SEQUENTIAL"})
+    private ReportingStrategy strategy;
+
+    @Param({"FLAT", "DEEP", "BALANCED", "SKEWED"})
+    private OrgShape shape;
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeRepository employeeRepository;
+    private ReportingTraversal traversal;
+    private String rootId;
+
+    @Setup
+    public void start() {
+        SyntheticOrg org = shape.generator(size, BenchmarkApplication.SEED).build().generate();
+        rootId = org.getRoot().getEmployeeId();
+        context = BenchmarkApplication.start(org);
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        traversal = context.getBeansOfType(ReportingTraversal.class).values().stream()
+                .filter(candidate -> candidate.getStrategy() == strategy)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @TearDown
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public ReportingStructure calculate() {
+        return traversal.calculate(employeeRepository.findByEmployeeId(rootId));
+    }
+}
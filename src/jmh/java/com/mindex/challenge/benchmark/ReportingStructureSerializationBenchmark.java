@@ -0,0 +1,69 @@
+package com.mindex.challenge.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.synthetic.OrgShape;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of writing a fully hydrated reporting structure as JSON, with the same inclusion rule the application
+ * configures. The structure is linked in memory, so no database is involved. Jackson recurses once per level, so
+ * the deep shape at a million employees can overflow the stack; that run fails rather than skewing the others.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReportingStructureSerializationBenchmark {
+
+    @Param({"FLAT", "DEEP", "BALANCED", "SKEWED"})
+    private OrgShape shape;
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private ReportingStructure reportingStructure;
+
+    @Setup
+    public void hydrate() {
+        objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .setSerializationInclusion(JsonInclude.Include.NON_EMPTY);
+
+        List<Employee> org = shape.generator(size, BenchmarkApplication.SEED).build().generate().getEmployees();
+        Map<String, Employee> byId = new HashMap<>(org.size() * 2);
+        org.forEach(employee -> byId.put(employee.getEmployeeId(), employee));
+        for (Employee employee : org) {
+            if (employee.getDirectReports() != null) {
+                List<Employee> hydrated = new ArrayList<>(employee.getDirectReports().size());
+                employee.getDirectReports().forEach(stub -> hydrated.add(byId.get(stub.getEmployeeId())));
+                employee.setDirectReports(hydrated);
+            }
+        }
+        reportingStructure = new ReportingStructure.ReportingStructureBuilder()
+                .Employee(org.get(0))
+                .NumberOfReports(size - 1)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(reportingStructure);
+    }
+}
@@ -1,40 +1,222 @@
 package com.mindex.challenge;
 
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mindex.challenge.dao.EmployeeRepository;
 import com.mindex.challenge.data.Employee;
-import jakarta.annotation.PostConstruct;
+import com.mindex.challenge.service.ReportingIndexService;
+import com.mindex.challenge.service.impl.JsonRecordReader;
+import com.mindex.challenge.service.impl.EmployeeLookupCache;
+import com.mindex.challenge.service.impl.OrgGraphCache;
+import com.mindex.challenge.service.impl.OrgVersions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
 
+/**
+ * Loads the seed employees at startup.
+ * <p>
+ * The seed file is read one record at a time, as a JSON array or NDJSON and gzipped or not, and handed to a small
+ * writer pool in batches, so neither the file nor the org is ever held in memory whole. With
+ * {@code bootstrap.async} the load runs in the background while the application starts serving; its progress is
+ * reported as the {@code dataBootstrap} health indicator, which is part of the readiness group and stays out of
+ * service until the load has finished.
+ */
 @Component
-public class DataBootstrap {
-    private static final String DATASTORE_LOCATION = "/static/employee_database.json";
+public class DataBootstrap implements SmartInitializingSingleton, HealthIndicator {
+    private static final Logger LOG = LoggerFactory.getLogger(DataBootstrap.class);
+    private static final int PROGRESS_LOG_INTERVAL = 100_000;
 
     private final EmployeeRepository employeeRepository;
     private final ObjectMapper objectMapper;
+    private final ReportingIndexService reportingIndexService;
+    private final OrgGraphCache orgGraphCache;
+    private final EmployeeLookupCache lookupCache;
+    private final OrgVersions orgVersions;
 
-    public DataBootstrap(EmployeeRepository employeeRepository, ObjectMapper objectMapper) {
+    @Value("${bootstrap.location}")
+    private Resource location;
+
+    @Value("${bootstrap.async}")
+    private boolean async;
+
+    @Value("${bootstrap.batch.size}")
+    private int batchSize;
+
+    @Value("${bootstrap.writer.threads}")
+    private int writerThreads;
+
+    private final AtomicInteger read = new AtomicInteger();
+    private final AtomicInteger inserted = new AtomicInteger();
+    private final AtomicLong startNanos = new AtomicLong();
+    private final AtomicLong endNanos = new AtomicLong();
+    private volatile State state = State.PENDING;
+    private volatile String failure;
+
+    public DataBootstrap(EmployeeRepository employeeRepository, ObjectMapper objectMapper,
+                         ReportingIndexService reportingIndexService, OrgGraphCache orgGraphCache,
+                         EmployeeLookupCache lookupCache, OrgVersions orgVersions) {
         this.employeeRepository = employeeRepository;
         this.objectMapper = objectMapper;
+        this.reportingIndexService = reportingIndexService;
+        this.orgGraphCache = orgGraphCache;
+        this.lookupCache = lookupCache;
+        this.orgVersions = orgVersions;
+    }
+
+    //runs once every singleton exists rather than in @PostConstruct, since the writer threads use beans the context
+    //may still be creating, which would deadlock on the singleton lock held by the thread creating this one
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!async) {
+            load();
+            if (state == State.FAILED) {
+                throw new RuntimeException("Failed to load " + location + ": " + failure);
+            }
+            return;
+        }
+        Thread loader = new Thread(this::load, "bootstrap-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health = state == State.LOADED ? Health.up()
+                : state == State.FAILED ? Health.down() : Health.outOfService();
+        health.withDetail("state", state)
+                .withDetail("location", location.getDescription())
+                .withDetail("read", read.get())
+                .withDetail("inserted", inserted.get())
+                .withDetail("recordsPerSecond", Math.round(recordsPerSecond()));
+        if (failure != null) {
+            health.withDetail("error", failure);
+        }
+        return health.build();
     }
 
-    @PostConstruct
-    public void init() {
-        InputStream inputStream = this.getClass().getResourceAsStream(DATASTORE_LOCATION);
+    private void load() {
+        state = State.LOADING;
+        startNanos.set(System.nanoTime());
+        LOG.info("Loading employees from [{}]", location.getDescription());
+
+        ThreadPoolExecutor writers = new ThreadPoolExecutor(writerThreads, writerThreads, 0, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(writerThreads * 2), runnable -> {
+                    Thread thread = new Thread(runnable, "bootstrap-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                //a full queue makes the reader insert the batch itself, which keeps it from running ahead of the writers
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        try (JsonRecordReader<Employee> reader = new JsonRecordReader<>(objectMapper, open(location), Employee.class)) {
+            List<Employee> batch = new ArrayList<>(batchSize);
+            Employee employee;
+            while ((employee = next(reader)) != null) {
+                batch.add(employee);
+                if (read.incrementAndGet() % PROGRESS_LOG_INTERVAL == 0) {
+                    LOG.info("Read [{}] employees, inserted [{}] ([{}] records/s)", read.get(), inserted.get(), Math.round(recordsPerSecond()));
+                }
+                if (batch.size() == batchSize) {
+                    writes.add(write(batch, writers));
+                    batch = new ArrayList<>(batchSize);
+                }
+                //drop finished writes so a long load does not keep every future around, stopping at the first failure
+                if (writes.size() > writerThreads * 4) {
+                    for (Iterator<CompletableFuture<Void>> it = writes.iterator(); it.hasNext(); ) {
+                        CompletableFuture<Void> write = it.next();
+                        if (write.isDone()) {
+                            write.join();
+                            it.remove();
+                        }
+                    }
+                }
+            }
+            writes.add(write(batch, writers));
+            CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).join();
 
-        Employee[] employees = null;
+            //the snapshot is written straight to the repository, so index it in one pass afterwards
+            reportingIndexService.rebuild();
+            orgGraphCache.invalidate();
+            lookupCache.invalidateAll();
+            orgVersions.invalidateAll();
 
+            endNanos.set(System.nanoTime());
+            state = State.LOADED;
+            LOG.info("Loaded [{}] employees in [{}ms] ([{}] records/s)", inserted.get(),
+                    (endNanos.get() - startNanos.get()) / 1_000_000, Math.round(recordsPerSecond()));
+        } catch (Exception e) {
+            endNanos.set(System.nanoTime());
+            failure = e.getMessage();
+            state = State.FAILED;
+            LOG.error("Failed to load employees from [{}] after [{}] records", location.getDescription(), read.get(), e);
+        } finally {
+            writers.shutdown();
+        }
+    }
+
+    private CompletableFuture<Void> write(List<Employee> batch, ThreadPoolExecutor writers) {
+        if (batch.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> {
+            employeeRepository.insert(batch);
+            inserted.addAndGet(batch.size());
+        }, writers);
+    }
+
+    private Employee next(JsonRecordReader<Employee> reader) throws IOException {
         try {
-            employees = objectMapper.readValue(inputStream, Employee[].class);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+            return reader.next();
+        } catch (JsonMappingException e) {
+            throw new IOException("Record " + reader.getIndex() + " is not an employee: " + e.getOriginalMessage(), e);
         }
+    }
+
+    private double recordsPerSecond() {
+        long start = startNanos.get();
+        if (start == 0) {
+            return 0;
+        }
+        long end = endNanos.get() == 0 ? System.nanoTime() : endNanos.get();
+        return end == start ? 0 : inserted.get() * 1_000_000_000.0 / (end - start);
+    }
 
-        for (Employee employee : employees) {
-            employeeRepository.insert(employee);
+    /**
+     * Opens the seed file, unwrapping it if it starts with the gzip magic number rather than trusting its name.
+     */
+    private static InputStream open(Resource resource) throws IOException {
+        InputStream in = new BufferedInputStream(resource.getInputStream());
+        in.mark(2);
+        int first = in.read();
+        int second = in.read();
+        in.reset();
+        if (first == 0x1f && second == 0x8b) {
+            return new GZIPInputStream(in, 64 * 1024);
         }
+        return in;
+    }
+
+    private enum State {
+        PENDING, LOADING, LOADED, FAILED
     }
 }
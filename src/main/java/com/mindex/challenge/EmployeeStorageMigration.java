@@ -0,0 +1,114 @@
+package com.mindex.challenge;
+
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.ReportingIndexService;
+import com.mindex.challenge.service.impl.EmployeeLookupCache;
+import com.mindex.challenge.service.impl.OrgGraphCache;
+import com.mindex.challenge.service.impl.OrgVersions;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rewrites employee documents stored before direct reports were kept as ids only.
+ * <p>
+ * Older documents embed each direct report as {@code {_id: ...}}, and some carry the {@code reportIds} array the
+ * server-side lookup used to follow; both become a plain {@code directReports} array of employeeIds. Runs once at
+ * startup and does nothing when every document is already in the new shape. Once anything has been rewritten the
+ * reporting index is rebuilt, which also fills in the {@code managerId} of every employee.
+ */
+@Component
+public class EmployeeStorageMigration implements SmartInitializingSingleton {
+    private static final Logger LOG = LoggerFactory.getLogger(EmployeeStorageMigration.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final ReportingIndexService reportingIndexService;
+    private final OrgGraphCache orgGraphCache;
+    private final EmployeeLookupCache lookupCache;
+    private final OrgVersions orgVersions;
+
+    @Value("${migration.batch.size}")
+    private int batchSize;
+
+    public EmployeeStorageMigration(MongoTemplate mongoTemplate, ReportingIndexService reportingIndexService,
+                                    OrgGraphCache orgGraphCache, EmployeeLookupCache lookupCache,
+                                    OrgVersions orgVersions) {
+        this.mongoTemplate = mongoTemplate;
+        this.reportingIndexService = reportingIndexService;
+        this.orgGraphCache = orgGraphCache;
+        this.lookupCache = lookupCache;
+        this.orgVersions = orgVersions;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        migrate();
+    }
+
+    /**
+     * @return how many employee documents were rewritten
+     */
+    public int migrate() {
+        long start = System.nanoTime();
+        MongoCollection<Document> employees = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Employee.class));
+        Document legacy = new Document("$or", List.of(
+                new Document("directReports._id", new Document("$exists", true)),
+                new Document("reportIds", new Document("$exists", true))));
+
+        int migrated = 0;
+        List<WriteModel<Document>> batch = new ArrayList<>(batchSize);
+        try (MongoCursor<Document> cursor = employees.find(legacy).projection(new Document("directReports", 1)).iterator()) {
+            while (cursor.hasNext()) {
+                Document employee = cursor.next();
+                batch.add(new UpdateOneModel<>(new Document("_id", employee.get("_id")), new Document()
+                        .append("$set", new Document("directReports", reportIds(employee)))
+                        .append("$unset", new Document("reportIds", ""))));
+                if (batch.size() == batchSize) {
+                    migrated += write(employees, batch);
+                }
+            }
+        }
+        migrated += write(employees, batch);
+        if (migrated == 0) {
+            return 0;
+        }
+
+        reportingIndexService.rebuild();
+        orgGraphCache.invalidate();
+        lookupCache.invalidateAll();
+        orgVersions.invalidateAll();
+        LOG.info("Migrated [{}] employees to id-only direct reports in [{}ms]", migrated, (System.nanoTime() - start) / 1_000_000);
+        return migrated;
+    }
+
+    private static int write(MongoCollection<Document> employees, List<WriteModel<Document>> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int written = employees.bulkWrite(batch).getMatchedCount();
+        batch.clear();
+        return written;
+    }
+
+    private static List<Object> reportIds(Document employee) {
+        List<Object> ids = new ArrayList<>();
+        for (Object report : employee.getList("directReports", Object.class, List.of())) {
+            Object id = report instanceof Document embedded ? embedded.get("_id") : report;
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+}
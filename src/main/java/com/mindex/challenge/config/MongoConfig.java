@@ -1,35 +1,74 @@
 package com.mindex.challenge.config;
 
 import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.dao.reactive.ReactiveEmployeeRepository;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import de.bwaldvogel.mongo.MongoServer;
 import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
 import org.springframework.lang.NonNull;
 
 import java.net.InetSocketAddress;
 
 @EnableMongoRepositories(basePackageClasses = EmployeeRepository.class)
+@EnableReactiveMongoRepositories(basePackageClasses = ReactiveEmployeeRepository.class)
 @Configuration
 public class MongoConfig extends AbstractMongoClientConfiguration {
 
+    private final ObjectProvider<MongoClientSettingsBuilderCustomizer> customizers;
+
+    public MongoConfig(ObjectProvider<MongoClientSettingsBuilderCustomizer> customizers) {
+        this.customizers = customizers;
+    }
+
     @Override
     @NonNull
     protected String getDatabaseName() {
         return "test";
     }
 
+    //creates the indexes declared on the documents, like compensation's (employeeId, effectiveDate)
+    @Override
+    protected boolean autoIndexCreation() {
+        return true;
+    }
+
+    //one in-memory server shared by the blocking and the reactive client
+    @Bean(destroyMethod = "shutdownNow")
+    public MongoServer mongoServer() {
+        MongoServer server = new MongoServer(new MemoryBackend());
+        server.bind();
+        return server;
+    }
+
     @Override
     @NonNull
     public MongoClient mongoClient() {
-        MongoServer server = new MongoServer(new MemoryBackend());
-        InetSocketAddress serverAddress = server.bind();
-        String mongoConnectionString = String.format("mongodb://%s:%d", serverAddress.getHostName(), serverAddress.getPort());
-        return MongoClients.create(mongoConnectionString);
+        return MongoClients.create(clientSettings());
     }
-}
 
+    //the reactive repositories and the /reactive endpoints read through this one; boot backs its own client off
+    @Bean
+    public com.mongodb.reactivestreams.client.MongoClient reactiveMongoClient() {
+        return com.mongodb.reactivestreams.client.MongoClients.create(clientSettings());
+    }
 
+    private MongoClientSettings clientSettings() {
+        InetSocketAddress serverAddress = mongoServer().getLocalAddress();
+        String mongoConnectionString = String.format("mongodb://%s:%d", serverAddress.getHostName(), serverAddress.getPort());
+        MongoClientSettings.Builder settings = MongoClientSettings.builder();
+        //the client is built by hand, so apply boot's customizers ourselves to get its command and pool metrics
+        customizers.orderedStream().forEach(customizer -> customizer.customize(settings));
+        //after them, since the reactive auto-configuration adds one pointing at spring.data.mongodb.uri
+        return settings.applyConnectionString(new ConnectionString(mongoConnectionString)).build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.mindex.challenge.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mindex.challenge.data.BulkImportResult;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.BulkService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+//imports take either a JSON array or one record per line (application/x-ndjson) and answer with per-record errors
+//exports are always one record per line, streamed straight from the database
+@RestController
+@RequestMapping("/bulk")
+public class BulkController {
+    private static final Logger LOG = LoggerFactory.getLogger(BulkController.class);
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final BulkService bulkService;
+    private final ObjectMapper objectMapper;
+
+    public BulkController(BulkService bulkService, ObjectMapper objectMapper) {
+        this.bulkService = bulkService;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostMapping(value = "/employee", consumes = {"application/json", "application/x-ndjson"})
+    public BulkImportResult importEmployees(InputStream body) {
+        LOG.debug("Received bulk employee import request");
+        return bulkService.importEmployees(body);
+    }
+
+    @GetMapping(value = "/employee", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportEmployees() {
+        LOG.debug("Received bulk employee export request");
+        return ndjson(Employee.class, bulkService::exportEmployees);
+    }
+
+    @PostMapping(value = "/compensation", consumes = {"application/json", "application/x-ndjson"})
+    public BulkImportResult importCompensations(InputStream body) {
+        LOG.debug("Received bulk compensation import request");
+        return bulkService.importCompensations(body);
+    }
+
+    @GetMapping(value = "/compensation", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportCompensations() {
+        LOG.debug("Received bulk compensation export request");
+        return ndjson(Compensation.class, bulkService::exportCompensations);
+    }
+
+    //the compensation in effect for every employee on a date, today when none is given
+    @GetMapping(value = "/compensation/payroll", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportPayroll(@RequestParam(required = false)
+                                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        LOG.debug("Received payroll snapshot request as of [{}]", asOf);
+        LocalDate date = asOf == null ? LocalDate.now() : asOf;
+        return ndjson(Compensation.class, sink -> bulkService.exportPayroll(date, sink));
+    }
+
+    private <T> ResponseEntity<StreamingResponseBody> ndjson(Class<T> type, Consumer<Consumer<T>> export) {
+        ObjectWriter writer = objectMapper.writerFor(type);
+        StreamingResponseBody body = out -> {
+            try {
+                export.accept(record -> write(out, writer, record));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
+    private static void write(OutputStream out, ObjectWriter writer, Object record) {
+        try {
+            out.write(writer.writeValueAsBytes(record));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
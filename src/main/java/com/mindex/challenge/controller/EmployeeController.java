@@ -1,24 +1,56 @@
 package com.mindex.challenge.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.mindex.challenge.data.Compensation;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeePage;
+import com.mindex.challenge.data.EmployeeSearch;
+import com.mindex.challenge.data.ReportingNode;
 import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.data.ReportingStructureBatch;
+import com.mindex.challenge.data.ReportingStructureBatchRequest;
+import com.mindex.challenge.data.ReportingStructureOptions;
+import com.mindex.challenge.service.EmployeeSearchService;
 import com.mindex.challenge.service.EmployeeService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/employee")
 public class EmployeeController {
     private static final Logger LOG = LoggerFactory.getLogger(EmployeeController.class);
 
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final EmployeeService employeeService;
+    private final EmployeeSearchService employeeSearchService;
+    private final ObjectWriter reportingNodeWriter;
+    private final MeterRegistry meterRegistry;
 
-    public EmployeeController(EmployeeService employeeService) {
+    public EmployeeController(EmployeeService employeeService, EmployeeSearchService employeeSearchService,
+                              ObjectMapper objectMapper, MeterRegistry meterRegistry) {
         this.employeeService = employeeService;
+        this.employeeSearchService = employeeSearchService;
+        this.reportingNodeWriter = objectMapper.writerFor(ReportingNode.class);
+        this.meterRegistry = meterRegistry;
     }
 
     @PostMapping("")
@@ -28,11 +60,39 @@ public class EmployeeController {
         return employeeService.create(employee);
     }
 
+    //e.g. search?department=Engineering&name=Len&sort=lastName&limit=50
+    //then search?department=Engineering&name=Len&sort=lastName&limit=50&cursor={nextCursor} for the next page
+    @GetMapping("/search")
+    public EmployeePage search(@RequestParam(required = false) String department,
+                               @RequestParam(required = false) String position,
+                               @RequestParam(required = false) String name,
+                               @RequestParam(required = false) String sort,
+                               @RequestParam(defaultValue = "false") boolean descending,
+                               @RequestParam(required = false) String cursor,
+                               @RequestParam(required = false) Integer limit) {
+        LOG.debug("Received employee search request");
+        return employeeSearchService.search(new EmployeeSearch.EmployeeSearchBuilder()
+                .Department(department)
+                .Position(position)
+                .Name(name)
+                .Sort(sort)
+                .Descending(descending)
+                .Cursor(cursor)
+                .Limit(limit)
+                .build());
+    }
+
+    //sent with an ETag; If-None-Match with it is answered 304 until the employee is written
     @GetMapping("/{id}")
-    public Employee read(@PathVariable String id) {
+    public ResponseEntity<Employee> read(@PathVariable String id,
+                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         LOG.debug("Received employee search request for id [{}]", id);
+        String etag = employeeService.getEmployeeTag(id);
+        if (notModified("employee", etag, ifNoneMatch, () -> employeeService.read(id))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
 
-        return employeeService.read(id);
+        return ResponseEntity.ok().eTag(etag).body(employeeService.read(id));
     }
 
     @PutMapping("/{id}")
@@ -43,10 +103,89 @@ public class EmployeeController {
         return employeeService.update(employee);
     }
 
+    //only the fields sent are changed, e.g. {"department": "Engineering", "version": 3}
+    //with a version the change is refused with a 409 if the employee has been written since it was read
+    @PatchMapping("/{id}")
+    public Employee patch(@PathVariable String id, @RequestBody Employee changes) {
+        LOG.debug("Received employee patch request for id [{}] and changes [{}]", id, changes);
+
+        changes.setEmployeeId(id);
+        return employeeService.patch(changes);
+    }
+
+    //e.g. reportingStructure/{id}?depth=1&fields=firstName,lastName&limit=50
+    //then reportingStructure/{id}?depth=1&fields=firstName,lastName&limit=50&cursor={nextCursor} for the next page
+    //or reportingStructure/{id}?flat=true for everyone below the employee as {employeeId, parentId, depth}
     @GetMapping("reportingStructure/{id}")
-    public ReportingStructure readReportingStructure(@PathVariable String id) throws ExecutionException, InterruptedException {
+    public ResponseEntity<ReportingStructure> readReportingStructure(@PathVariable String id,
+                                                                     @RequestParam(required = false) Integer depth,
+                                                                     @RequestParam(required = false) Set<String> fields,
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @RequestParam(required = false) Integer limit,
+                                                                     @RequestParam(defaultValue = "false") boolean compensation,
+                                                                     @RequestParam(defaultValue = "false") boolean flat,
+                                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws ExecutionException, InterruptedException {
         LOG.debug("Received employee reporting structure request for id [{}]", id);
-        return employeeService.getReportingStructure(id);
+        ReportingStructureOptions options = new ReportingStructureOptions.ReportingStructureOptionsBuilder()
+                .Depth(depth)
+                .Fields(fields)
+                .Cursor(cursor)
+                .Limit(limit)
+                .Compensation(compensation)
+                .Flat(flat)
+                .build();
+        //the ETag moves on when anyone in the structure is written, so a 304 skips the traversal entirely
+        String etag = employeeService.getReportingStructureTag(id, options);
+        if (notModified("reportingStructure", etag, ifNoneMatch, () -> employeeService.read(id))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(employeeService.getReportingStructure(id, options));
+    }
+
+    //reportingStructure/{id}/count?compensation=true adds the total and average salary of everyone under the employee
+    @GetMapping("reportingStructure/{id}/count")
+    public ReportingStructure readReportingCount(@PathVariable String id,
+                                                 @RequestParam(defaultValue = "false") boolean compensation) {
+        LOG.debug("Received employee reporting count request for id [{}]", id);
+        return employeeService.getReportingCount(id, compensation);
+    }
+
+    //e.g. {"employeeIds": ["16a596ae-...", "03aa1462-..."], "includeStructures": false}
+    //counts every employee in one shared walk, returned as {"numberOfReports": {"16a596ae-...": 4, ...}}
+    @PostMapping("reportingStructure/batch")
+    public ReportingStructureBatch readReportingStructures(@RequestBody ReportingStructureBatchRequest request) {
+        LOG.debug("Received batch reporting structure request for [{}] employees",
+                request.getEmployeeIds() == null ? 0 : request.getEmployeeIds().size());
+        return employeeService.getReportingStructures(request.getEmployeeIds(), request.isIncludeStructures());
+    }
+
+    //one {"employeeId":...,"parentId":...,"depth":...} per line, written as the traversal finds them
+    //the employee is read up front so an unknown id is still a 418 rather than a broken stream
+    @GetMapping(value = "reportingStructure/{id}/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamReportingStructure(@PathVariable String id,
+                                                                          @RequestParam(required = false) Integer depth) {
+        LOG.debug("Received employee reporting structure stream request for id [{}]", id);
+        employeeService.read(id);
+
+        StreamingResponseBody body = out -> {
+            try {
+                employeeService.streamReportingStructure(id, depth, batch -> {
+                    try {
+                        for (ReportingNode node : batch) {
+                            out.write(reportingNodeWriter.writeValueAsBytes(node));
+                            out.write('\n');
+                        }
+                        //blocks while the client is behind, which holds the traversal back with it
+                        out.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
     }
 
     //Example request body
@@ -61,20 +200,76 @@ public class EmployeeController {
         LOG.debug("Received employee add compensation request for id [{}]", id);
         Employee employee = employeeService.read(id);
 
+        compensation.setEmployeeId(id);
         return employeeService.createCompensation(compensation);
     }
 
+    //compensation/{id} is what is in effect today, compensation/{id}?asOf=2024-11-01 what was or will be on that date
     @GetMapping("/compensation/{id}")
-    public Compensation readCompensation(@PathVariable String id) {
+    public ResponseEntity<Compensation> readCompensation(@PathVariable String id,
+                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf,
+                                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         LOG.debug("Received employee compensation request for id [{}]", id);
-        return employeeService.readCompensation(id);
+        String etag = employeeService.getCompensationTag(id, asOf);
+        if (notModified("compensation", etag, ifNoneMatch,
+                () -> asOf == null ? employeeService.readCompensation(id) : employeeService.readCompensation(id, asOf))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag)
+                .body(asOf == null ? employeeService.readCompensation(id) : employeeService.readCompensation(id, asOf));
     }
 
+    //every change effective between the dates, both optional and inclusive, oldest first
+    @GetMapping("/compensation/{id}/history")
+    public List<Compensation> readCompensationHistory(@PathVariable String id,
+                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LOG.debug("Received employee compensation history request for id [{}]", id);
+        return employeeService.readCompensationHistory(id, from, to);
+    }
+
+    //records a new change like the POST, keeping the salary in effect today if none is sent
     @PatchMapping("/compensation/{id}")
     public Compensation updateCompensation(@PathVariable String id, @RequestBody Compensation compensation) {
-        LOG.debug("Received employee update (it's really no different) compensation request for id [{}]", id);
+        LOG.debug("Received employee update compensation request for id [{}]", id);
         Employee employee = employeeService.read(id);
 
+        compensation.setEmployeeId(id);
         return employeeService.updateCompensation(compensation);
     }
+
+    /**
+     * Tells whether one of the tags in If-None-Match is the current one, compared weakly as a GET allows, so the
+     * client's copy is current and nothing needs reading. The ETag is only set on successful responses, so a tag
+     * never stands for an error. Conditional requests are counted by resource as a hit when they can be answered
+     * with a 304 and a miss when they cannot.
+     * <p>
+     * {@code If-None-Match: *} matches any current representation (RFC 9110 section 13.1.2), so it is only answered
+     * with a 304 once {@code exists} has found one; if there is none it fails just as the GET itself would.
+     */
+    private boolean notModified(String resource, String etag, String ifNoneMatch, Supplier<?> exists) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        boolean notModified = false;
+        if (ifNoneMatch.trim().equals("*")) {
+            exists.get();
+            notModified = true;
+        } else {
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                notModified |= tag.equals("\"" + etag + "\"");
+            }
+        }
+        Counter.builder("http.conditional.requests")
+                .description("Requests carrying If-None-Match, by resource and whether they were answered with a 304")
+                .tag("resource", resource)
+                .tag("result", notModified ? "hit" : "miss")
+                .register(meterRegistry)
+                .increment();
+        return notModified;
+    }
 }
@@ -1,8 +1,11 @@
 package com.mindex.challenge.controller;
 
 import com.mindex.challenge.data.ErrorResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -13,12 +16,37 @@ public class GlobalAdviceController {
 
     private static final Logger LOG = LoggerFactory.getLogger(GlobalAdviceController.class);
 
+    private final MeterRegistry meterRegistry;
+
+    public GlobalAdviceController(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<?> handleException(Exception e) {
         LOG.error(e.getMessage(), e);
+        countError(e);
 
         ErrorResponse errorResponse = new ErrorResponse("One should centralize error handling, probably in a more granular way...", e.getMessage());
         return new ResponseEntity<>(errorResponse, HttpStatus.I_AM_A_TEAPOT);
     }
 
+    //a lost race on a versioned write is the client's to resolve by reading again, not a server error
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<?> handleConflict(OptimisticLockingFailureException e) {
+        LOG.debug(e.getMessage());
+        countError(e);
+
+        ErrorResponse errorResponse = new ErrorResponse("The employee has changed since it was read", e.getMessage());
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    private void countError(Exception e) {
+        Counter.builder("api.errors")
+                .description("Requests that ended in an exception, by exception type")
+                .tag("exception", e.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+    }
+
 }
@@ -0,0 +1,80 @@
+package com.mindex.challenge.controller;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.service.ReactiveEmployeeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+//same endpoints as /employee, answered without holding a request thread while mongo works
+//spring mvc subscribes to the returned Mono and finishes the request asynchronously when it completes
+@RestController
+@RequestMapping("/reactive/employee")
+@ConditionalOnProperty(name = "reactive.enabled", havingValue = "true")
+public class ReactiveEmployeeController {
+    private static final Logger LOG = LoggerFactory.getLogger(ReactiveEmployeeController.class);
+
+    private final ReactiveEmployeeService employeeService;
+
+    public ReactiveEmployeeController(ReactiveEmployeeService employeeService) {
+        this.employeeService = employeeService;
+    }
+
+    @PostMapping("")
+    public Mono<Employee> create(@RequestBody Employee employee) {
+        LOG.debug("Received reactive employee create request for [{}]", employee);
+
+        return employeeService.create(employee);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<Employee> read(@PathVariable String id) {
+        LOG.debug("Received reactive employee search request for id [{}]", id);
+
+        return employeeService.read(id);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<Employee> update(@PathVariable String id, @RequestBody Employee employee) {
+        LOG.debug("Received reactive employee update request for id [{}] and employee [{}]", id, employee);
+
+        employee.setEmployeeId(id);
+        return employeeService.update(employee);
+    }
+
+    @GetMapping("reportingStructure/{id}")
+    public Mono<ReportingStructure> readReportingStructure(@PathVariable String id) {
+        LOG.debug("Received reactive employee reporting structure request for id [{}]", id);
+        return employeeService.getReportingStructure(id);
+    }
+
+    @GetMapping("reportingStructure/{id}/count")
+    public Mono<ReportingStructure> readReportingCount(@PathVariable String id) {
+        LOG.debug("Received reactive employee reporting count request for id [{}]", id);
+        return employeeService.getReportingCount(id);
+    }
+
+    @PostMapping("/compensation/{id}")
+    public Mono<Compensation> addCompensation(@PathVariable String id, @RequestBody Compensation compensation) {
+        LOG.debug("Received reactive employee add compensation request for id [{}]", id);
+        compensation.setEmployeeId(id);
+        return employeeService.read(id).then(employeeService.createCompensation(compensation));
+    }
+
+    @GetMapping("/compensation/{id}")
+    public Mono<Compensation> readCompensation(@PathVariable String id) {
+        LOG.debug("Received reactive employee compensation request for id [{}]", id);
+        return employeeService.readCompensation(id);
+    }
+
+    @PatchMapping("/compensation/{id}")
+    public Mono<Compensation> updateCompensation(@PathVariable String id, @RequestBody Compensation compensation) {
+        LOG.debug("Received reactive employee update compensation request for id [{}]", id);
+        compensation.setEmployeeId(id);
+        return employeeService.read(id).then(employeeService.updateCompensation(compensation));
+    }
+}
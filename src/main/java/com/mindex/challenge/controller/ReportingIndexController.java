@@ -0,0 +1,31 @@
+package com.mindex.challenge.controller;
+
+import com.mindex.challenge.data.ReportingIndexStatus;
+import com.mindex.challenge.service.ReportingIndexService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/reportingIndex")
+public class ReportingIndexController {
+    private static final Logger LOG = LoggerFactory.getLogger(ReportingIndexController.class);
+
+    private final ReportingIndexService reportingIndexService;
+
+    public ReportingIndexController(ReportingIndexService reportingIndexService) {
+        this.reportingIndexService = reportingIndexService;
+    }
+
+    @PostMapping("/rebuild")
+    public ReportingIndexStatus rebuild() {
+        LOG.debug("Received reporting index rebuild request");
+        return reportingIndexService.rebuild();
+    }
+
+    @GetMapping("/check")
+    public ReportingIndexStatus check() {
+        LOG.debug("Received reporting index consistency check request");
+        return reportingIndexService.check();
+    }
+}
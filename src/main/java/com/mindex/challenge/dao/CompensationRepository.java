@@ -1,10 +1,26 @@
 package com.mindex.challenge.dao;
 
 import com.mindex.challenge.data.Compensation;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.List;
+
 @Repository
 public interface CompensationRepository extends MongoRepository<Compensation, String> {
-    Compensation findByEmployeeId(String employeeId);
+    //latest change first; generated ids grow, so the last one recorded wins between changes on the same day
+    Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "effectiveDate", "compensationId");
+
+    Compensation findFirstByEmployeeIdAndEffectiveDateLessThanEqual(String employeeId, LocalDate date, Sort sort);
+    List<Compensation> findByEmployeeIdAndEffectiveDateBetween(String employeeId, Range<LocalDate> effectiveDates, Sort sort);
+
+    /**
+     * @return the compensation in effect for an employee on a date, or null if none had taken effect by then
+     */
+    default Compensation findAsOf(String employeeId, LocalDate date) {
+        return findFirstByEmployeeIdAndEffectiveDateLessThanEqual(employeeId, date, NEWEST_FIRST);
+    }
 }
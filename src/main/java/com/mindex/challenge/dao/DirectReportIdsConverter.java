@@ -0,0 +1,40 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Employee;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.convert.MongoConversionContext;
+import org.springframework.data.mongodb.core.convert.MongoValueConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores {@code directReports} as a plain array of employeeIds and reads it back as id-only {@link Employee}
+ * references, so whatever the client sent under a report is never persisted and a document stays the size of its
+ * ids. Documents written before the change, with each report embedded as {@code {_id: ...}}, still read the same.
+ */
+public class DirectReportIdsConverter implements MongoValueConverter<List<Employee>, List<Object>> {
+
+    @Override
+    public List<Employee> read(List<Object> value, MongoConversionContext context) {
+        List<Employee> reports = new ArrayList<>(value.size());
+        for (Object report : value) {
+            Object id = report instanceof Document embedded ? embedded.get("_id") : report;
+            if (id != null) {
+                reports.add(Employee.reference(id.toString()));
+            }
+        }
+        return reports;
+    }
+
+    @Override
+    public List<Object> write(List<Employee> value, MongoConversionContext context) {
+        List<Object> ids = new ArrayList<>(value.size());
+        for (Employee report : value) {
+            if (report != null && report.getEmployeeId() != null) {
+                ids.add(report.getEmployeeId());
+            }
+        }
+        return ids;
+    }
+}
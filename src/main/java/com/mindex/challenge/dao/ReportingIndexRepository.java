@@ -0,0 +1,14 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.ReportingIndexEntry;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ReportingIndexRepository extends MongoRepository<ReportingIndexEntry, String> {
+    ReportingIndexEntry findByEmployeeId(String employeeId);
+    List<ReportingIndexEntry> findByEmployeeIdIn(Collection<String> employeeIds);
+}
@@ -0,0 +1,19 @@
+package com.mindex.challenge.dao.reactive;
+
+import com.mindex.challenge.dao.CompensationRepository;
+import com.mindex.challenge.data.Compensation;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+@Repository
+public interface ReactiveCompensationRepository extends ReactiveMongoRepository<Compensation, String> {
+    Mono<Compensation> findFirstByEmployeeIdAndEffectiveDateLessThanEqual(String employeeId, LocalDate date, Sort sort);
+
+    default Mono<Compensation> findAsOf(String employeeId, LocalDate date) {
+        return findFirstByEmployeeIdAndEffectiveDateLessThanEqual(employeeId, date, CompensationRepository.NEWEST_FIRST);
+    }
+}
@@ -0,0 +1,33 @@
+package com.mindex.challenge.data;
+
+/**
+ * Why one record of a bulk import was not written.
+ */
+public class BulkImportError {
+    private int record;
+    private String employeeId;
+    private String message;
+
+    public BulkImportError() {}
+
+    public BulkImportError(int record, String employeeId, String message) {
+        this.record = record;
+        this.employeeId = employeeId;
+        this.message = message;
+    }
+
+    /**
+     * @return the zero-based position of the record in the request body
+     */
+    public int getRecord() {
+        return record;
+    }
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,51 @@
+package com.mindex.challenge.data;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: how many records were read and written, why the others were not, and how fast it went.
+ * Only the first {@code bulk.max-errors} errors are listed; {@code failed} always counts all of them.
+ */
+public class BulkImportResult {
+    private int received;
+    private int imported;
+    private int failed;
+    private List<BulkImportError> errors;
+    private long elapsedMillis;
+    private double recordsPerSecond;
+
+    public BulkImportResult() {}
+
+    public BulkImportResult(int received, int imported, int failed, List<BulkImportError> errors, long elapsedMillis) {
+        this.received = received;
+        this.imported = imported;
+        this.failed = failed;
+        this.errors = errors;
+        this.elapsedMillis = elapsedMillis;
+        this.recordsPerSecond = elapsedMillis == 0 ? imported : imported * 1000.0 / elapsedMillis;
+    }
+
+    public int getReceived() {
+        return received;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<BulkImportError> getErrors() {
+        return errors;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public double getRecordsPerSecond() {
+        return recordsPerSecond;
+    }
+}
@@ -2,15 +2,20 @@ package com.mindex.challenge.data;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
+//one document per change, never rewritten; the index serves both "as of a date" lookups (newest first) and date
+//ranges (walked backwards), with _id breaking ties between changes recorded for the same day
 @Document("compensation")
+@CompoundIndex(name = "employeeId_effectiveDate", def = "{'employeeId': 1, 'effectiveDate': -1, '_id': -1}")
 public class Compensation {
 
     @Id
+    private String compensationId;
     private String employeeId;
     private BigDecimal salary;
     @JsonFormat(pattern = "yyyy-MM-dd")
@@ -18,6 +23,14 @@ public class Compensation {
 
     public Compensation() {}
 
+    public String getCompensationId() {
+        return compensationId;
+    }
+
+    public void setCompensationId(String compensationId) {
+        this.compensationId = compensationId;
+    }
+
     public BigDecimal getSalary() {
         return salary;
     }
@@ -0,0 +1,36 @@
+package com.mindex.challenge.data;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Salary cost of everyone under a manager, from the compensation in effect for each of them.
+ * Reports without compensation are left out of both the total and the average; {@code compensatedReports} says how
+ * many were counted.
+ */
+public class CompensationRollup {
+    private BigDecimal totalSalary;
+    private BigDecimal averageSalary;
+    private int compensatedReports;
+
+    public CompensationRollup() {}
+
+    public CompensationRollup(BigDecimal totalSalary, int compensatedReports) {
+        this.totalSalary = totalSalary;
+        this.compensatedReports = compensatedReports;
+        this.averageSalary = compensatedReports == 0 ? null
+                : totalSalary.divide(BigDecimal.valueOf(compensatedReports), 2, RoundingMode.HALF_UP);
+    }
+
+    public BigDecimal getTotalSalary() {
+        return totalSalary;
+    }
+
+    public BigDecimal getAverageSalary() {
+        return averageSalary;
+    }
+
+    public int getCompensatedReports() {
+        return compensatedReports;
+    }
+}
@@ -1,11 +1,24 @@
 package com.mindex.challenge.data;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mindex.challenge.dao.DirectReportIdsConverter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.convert.ValueConverter;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.List;
 
+//search indexes: each filter that is matched exactly comes first, then the sort field, then _id so keyset pages
+//are read straight off the index
 @Document
+@CompoundIndex(name = "lastName", def = "{'lastName': 1, '_id': 1}")
+@CompoundIndex(name = "firstName", def = "{'firstName': 1, '_id': 1}")
+@CompoundIndex(name = "department_lastName", def = "{'department': 1, 'lastName': 1, '_id': 1}")
+@CompoundIndex(name = "position_lastName", def = "{'position': 1, 'lastName': 1, '_id': 1}")
 public class Employee {
 
     @Id
@@ -14,7 +27,20 @@ public class Employee {
     private String lastName;
     private String position;
     private String department;
+    //stored as employeeIds only; see DirectReportIdsConverter. Indexed for "who lists X", which the reporting index
+    //follows up through every manager
+    @Indexed
+    @ValueConverter(DirectReportIdsConverter.class)
     private List<Employee> directReports;
+    //maintained by the reporting index from one of the employees listing this one as a direct report, never taken
+    //from clients. Indexed for "who reports to X"; a shared report is found under only one of their managers this way
+    @Indexed
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String managerId;
+    //bumped by every write of the fields above bar managerId; send it back with an update to have it refused if
+    //someone else has written since
+    @Version
+    private Long version;
 
     //I wasn't certain which implementation was the intended target for the second task
     //At this point I've implemented a version that appends data directly to the employee collection
@@ -28,6 +54,17 @@ public class Employee {
     public Employee() {
     }
 
+    /**
+     * Lets a direct report be given as just its employeeId, e.g. {@code "directReports": ["16a596ae-..."]}, as well as
+     * the usual {@code {"employeeId": "16a596ae-..."}}.
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Employee reference(String employeeId) {
+        Employee reference = new Employee();
+        reference.setEmployeeId(employeeId);
+        return reference;
+    }
+
     public String getEmployeeId() {
         return employeeId;
     }
@@ -76,6 +113,30 @@ public class Employee {
         this.directReports = directReports;
     }
 
+    /**
+     * @return the employee who lists this one as a direct report, or null if nobody does; when several do, the one
+     * who added them most recently
+     */
+    public String getManagerId() {
+        return managerId;
+    }
+
+    public void setManagerId(String managerId) {
+        this.managerId = managerId;
+    }
+
+    /**
+     * @return how many times the employee has been written since it was created, or null for an employee stored
+     * before versions were kept
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     /*public Compensation getCompensation() {
         return compensation;
     }
@@ -0,0 +1,27 @@
+package com.mindex.challenge.data;
+
+import java.util.List;
+
+/**
+ * One page of employee search results, without their direct reports. {@code nextCursor} is only set when there is
+ * another page.
+ */
+public class EmployeePage {
+    private List<Employee> employees;
+    private String nextCursor;
+
+    public EmployeePage() {}
+
+    public EmployeePage(List<Employee> employees, String nextCursor) {
+        this.employees = employees;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Employee> getEmployees() {
+        return employees;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,96 @@
+package com.mindex.challenge.data;
+
+/**
+ * Which employees to list, and in what order. Every filter is optional and they are combined with and.
+ * <ul>
+ *     <li>{@code department}/{@code position}: exact matches</li>
+ *     <li>{@code name}: a case-sensitive prefix of the first or last name</li>
+ *     <li>{@code sort}/{@code descending}: one of firstName, lastName, department, position or employeeId, with
+ *     employeeId breaking ties</li>
+ *     <li>{@code cursor}/{@code limit}: the page after the one that returned {@code cursor}</li>
+ * </ul>
+ */
+public class EmployeeSearch {
+    private final String department;
+    private final String position;
+    private final String name;
+    private final String sort;
+    private final boolean descending;
+    private final String cursor;
+    private final Integer limit;
+
+    private EmployeeSearch(EmployeeSearchBuilder builder) {
+        this.department = builder.department;
+        this.position = builder.position;
+        this.name = builder.name;
+        this.sort = builder.sort;
+        this.descending = builder.descending;
+        this.cursor = builder.cursor;
+        this.limit = builder.limit;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+    public String getPosition() {
+        return position;
+    }
+    public String getName() {
+        return name;
+    }
+    public String getSort() {
+        return sort;
+    }
+    public boolean isDescending() {
+        return descending;
+    }
+    public String getCursor() {
+        return cursor;
+    }
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public static class EmployeeSearchBuilder {
+        private String department;
+        private String position;
+        private String name;
+        private String sort;
+        private boolean descending;
+        private String cursor;
+        private Integer limit;
+
+        public EmployeeSearchBuilder() {}
+        public EmployeeSearchBuilder Department(String department) {
+            this.department = department;
+            return this;
+        }
+        public EmployeeSearchBuilder Position(String position) {
+            this.position = position;
+            return this;
+        }
+        public EmployeeSearchBuilder Name(String name) {
+            this.name = name;
+            return this;
+        }
+        public EmployeeSearchBuilder Sort(String sort) {
+            this.sort = sort;
+            return this;
+        }
+        public EmployeeSearchBuilder Descending(boolean descending) {
+            this.descending = descending;
+            return this;
+        }
+        public EmployeeSearchBuilder Cursor(String cursor) {
+            this.cursor = cursor;
+            return this;
+        }
+        public EmployeeSearchBuilder Limit(Integer limit) {
+            this.limit = limit;
+            return this;
+        }
+        public EmployeeSearch build() {
+            return new EmployeeSearch(this);
+        }
+    }
+}
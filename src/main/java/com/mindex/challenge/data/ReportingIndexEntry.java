@@ -0,0 +1,107 @@
+package com.mindex.challenge.data;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+
+/**
+ * Materialized reporting data for one employee, kept up to date as org changes are written so that
+ * {@code numberOfReports} and the salary rollup can be read without walking the subtree. Salaries are stored as
+ * decimals rather than strings so they can be {@code $inc}remented.
+ */
+@Document("reportingIndex")
+public class ReportingIndexEntry {
+
+    @Id
+    private String employeeId;
+    private String managerId;
+    //how many employees list this one as a direct report; anyone listed more than once is looked up by it
+    @Indexed
+    private int managers;
+    private int numberOfReports;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal salary;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal reportsSalary = BigDecimal.ZERO;
+    private int compensatedReports;
+
+    public ReportingIndexEntry() {}
+
+    public ReportingIndexEntry(String employeeId, String managerId, int numberOfReports) {
+        this.employeeId = employeeId;
+        this.managerId = managerId;
+        this.numberOfReports = numberOfReports;
+    }
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(String employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    /**
+     * @return one of the employees listing this one as a direct report, or null if nobody does
+     */
+    public String getManagerId() {
+        return managerId;
+    }
+
+    public void setManagerId(String managerId) {
+        this.managerId = managerId;
+    }
+
+    public int getManagers() {
+        return managers;
+    }
+
+    public void setManagers(int managers) {
+        this.managers = managers;
+    }
+
+    public int getNumberOfReports() {
+        return numberOfReports;
+    }
+
+    public void setNumberOfReports(int numberOfReports) {
+        this.numberOfReports = numberOfReports;
+    }
+
+    /**
+     * @return the employee's own salary in effect when the entry was last written, or null if they had none
+     */
+    public BigDecimal getSalary() {
+        return salary;
+    }
+
+    public void setSalary(BigDecimal salary) {
+        this.salary = salary;
+    }
+
+    /**
+     * @return the summed salaries of everyone under the employee
+     */
+    public BigDecimal getReportsSalary() {
+        return reportsSalary;
+    }
+
+    public void setReportsSalary(BigDecimal reportsSalary) {
+        this.reportsSalary = reportsSalary;
+    }
+
+    /**
+     * @return how many of the employees under the employee have a salary in {@link #getReportsSalary()}
+     */
+    public int getCompensatedReports() {
+        return compensatedReports;
+    }
+
+    public void setCompensatedReports(int compensatedReports) {
+        this.compensatedReports = compensatedReports;
+    }
+}
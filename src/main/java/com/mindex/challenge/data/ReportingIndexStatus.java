@@ -0,0 +1,38 @@
+package com.mindex.challenge.data;
+
+import java.util.List;
+
+/**
+ * Outcome of rebuilding or checking the reporting index against the employee collection.
+ */
+public class ReportingIndexStatus {
+    private int employees;
+    private int mismatches;
+    private List<String> sampleMismatches;
+    private long elapsedMillis;
+
+    public ReportingIndexStatus() {}
+
+    public ReportingIndexStatus(int employees, int mismatches, List<String> sampleMismatches, long elapsedMillis) {
+        this.employees = employees;
+        this.mismatches = mismatches;
+        this.sampleMismatches = sampleMismatches;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getEmployees() {
+        return employees;
+    }
+
+    public int getMismatches() {
+        return mismatches;
+    }
+
+    public List<String> getSampleMismatches() {
+        return sampleMismatches;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
@@ -0,0 +1,31 @@
+package com.mindex.challenge.data;
+
+/**
+ * One employee of a streamed reporting structure: who they are, who listed them as a direct report, and how many
+ * levels below the requested employee they sit.
+ */
+public class ReportingNode {
+    private String employeeId;
+    private String parentId;
+    private int depth;
+
+    public ReportingNode() {}
+
+    public ReportingNode(String employeeId, String parentId, int depth) {
+        this.employeeId = employeeId;
+        this.parentId = parentId;
+        this.depth = depth;
+    }
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    public String getParentId() {
+        return parentId;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+}
@@ -1,8 +1,13 @@
 package com.mindex.challenge.data;
 
+import java.util.List;
+
 public class ReportingStructure {
     private Employee employee;
     private int numberOfReports;
+    private String nextCursor;
+    private CompensationRollup compensation;
+    private List<ReportingNode> reports;
 
     public ReportingStructure() {}
 
@@ -15,15 +20,33 @@ public class ReportingStructure {
     public void setNumberOfReports(int numberOfReports) {
         this.numberOfReports = numberOfReports;
     }
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    public CompensationRollup getCompensation() {
+        return compensation;
+    }
+    public void setCompensation(CompensationRollup compensation) {
+        this.compensation = compensation;
+    }
+    public List<ReportingNode> getReports() {
+        return reports;
+    }
 
     private ReportingStructure(ReportingStructureBuilder builder) {
         this.employee = builder.employee;
         this.numberOfReports = builder.numberOfReports;
+        this.nextCursor = builder.nextCursor;
+        this.compensation = builder.compensation;
+        this.reports = builder.reports;
     }
 
     public static class ReportingStructureBuilder {
         private Employee employee;
         private int numberOfReports;
+        private String nextCursor;
+        private CompensationRollup compensation;
+        private List<ReportingNode> reports;
 
         public ReportingStructureBuilder() {}
         public ReportingStructureBuilder Employee(Employee employee) {
@@ -34,6 +57,18 @@ public class ReportingStructure {
             this.numberOfReports = numberOfReports;
             return this;
         }
+        public ReportingStructureBuilder NextCursor(String nextCursor) {
+            this.nextCursor = nextCursor;
+            return this;
+        }
+        public ReportingStructureBuilder Compensation(CompensationRollup compensation) {
+            this.compensation = compensation;
+            return this;
+        }
+        public ReportingStructureBuilder Reports(List<ReportingNode> reports) {
+            this.reports = reports;
+            return this;
+        }
         public ReportingStructure build() {
             return new ReportingStructure(this);
         }
@@ -0,0 +1,29 @@
+package com.mindex.challenge.data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reporting counts for many employees at once, in the order they were asked for.
+ * {@code structures} is only filled in when requested, and is shallow: each employee comes back with their direct
+ * reports as id-only stubs.
+ */
+public class ReportingStructureBatch {
+    private Map<String, Integer> numberOfReports;
+    private List<ReportingStructure> structures;
+
+    public ReportingStructureBatch() {}
+
+    public ReportingStructureBatch(Map<String, Integer> numberOfReports, List<ReportingStructure> structures) {
+        this.numberOfReports = numberOfReports;
+        this.structures = structures;
+    }
+
+    public Map<String, Integer> getNumberOfReports() {
+        return numberOfReports;
+    }
+
+    public List<ReportingStructure> getStructures() {
+        return structures;
+    }
+}
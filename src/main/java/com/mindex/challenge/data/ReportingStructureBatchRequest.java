@@ -0,0 +1,35 @@
+package com.mindex.challenge.data;
+
+import java.util.List;
+
+/**
+ * Body of a batch reporting structure request: the employees to count, and whether to also return each of them with
+ * their direct reports as stored.
+ */
+public class ReportingStructureBatchRequest {
+    private List<String> employeeIds;
+    private boolean includeStructures;
+
+    public ReportingStructureBatchRequest() {}
+
+    public ReportingStructureBatchRequest(List<String> employeeIds, boolean includeStructures) {
+        this.employeeIds = employeeIds;
+        this.includeStructures = includeStructures;
+    }
+
+    public List<String> getEmployeeIds() {
+        return employeeIds;
+    }
+
+    public void setEmployeeIds(List<String> employeeIds) {
+        this.employeeIds = employeeIds;
+    }
+
+    public boolean isIncludeStructures() {
+        return includeStructures;
+    }
+
+    public void setIncludeStructures(boolean includeStructures) {
+        this.includeStructures = includeStructures;
+    }
+}
@@ -0,0 +1,119 @@
+package com.mindex.challenge.data;
+
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * How much of a reporting structure to return. Leaving everything unset asks for the fully expanded tree.
+ * <ul>
+ *     <li>{@code depth}: how many levels below the employee to hydrate; reports below that are left as id-only stubs</li>
+ *     <li>{@code fields}: which employee fields to include besides {@code employeeId} and {@code directReports}</li>
+ *     <li>{@code cursor}/{@code limit}: a page of the employee's own direct reports</li>
+ *     <li>{@code compensation}: also total and average the salaries of everyone under the employee</li>
+ *     <li>{@code flat}: list everyone under the employee by id and manager instead of hydrating the tree; combines
+ *     with {@code depth} only</li>
+ * </ul>
+ */
+public class ReportingStructureOptions {
+    public static final ReportingStructureOptions FULL = new ReportingStructureOptionsBuilder().build();
+
+    private final Integer depth;
+    private final Set<String> fields;
+    private final String cursor;
+    private final Integer limit;
+    private final boolean compensation;
+    private final boolean flat;
+
+    private ReportingStructureOptions(ReportingStructureOptionsBuilder builder) {
+        this.depth = builder.depth;
+        this.fields = builder.fields == null ? null : Set.copyOf(builder.fields);
+        this.cursor = builder.cursor;
+        this.limit = builder.limit;
+        this.compensation = builder.compensation;
+        this.flat = builder.flat;
+    }
+
+    public Integer getDepth() {
+        return depth;
+    }
+    public Set<String> getFields() {
+        return fields;
+    }
+    public String getCursor() {
+        return cursor;
+    }
+    public Integer getLimit() {
+        return limit;
+    }
+    public boolean isCompensation() {
+        return compensation;
+    }
+    public boolean isFlat() {
+        return flat;
+    }
+
+    public boolean isFullStructure() {
+        return depth == null && fields == null && cursor == null && limit == null && !flat;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ReportingStructureOptions that)) {
+            return false;
+        }
+        return Objects.equals(depth, that.depth) && Objects.equals(fields, that.fields)
+                && Objects.equals(cursor, that.cursor) && Objects.equals(limit, that.limit)
+                && compensation == that.compensation && flat == that.flat;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(depth, fields, cursor, limit, compensation, flat);
+    }
+
+    @Override
+    public String toString() {
+        return "depth=" + depth + ", fields=" + fields + ", cursor=" + cursor + ", limit=" + limit + ", compensation=" + compensation + ", flat=" + flat;
+    }
+
+    public static class ReportingStructureOptionsBuilder {
+        private Integer depth;
+        private Set<String> fields;
+        private String cursor;
+        private Integer limit;
+        private boolean compensation;
+        private boolean flat;
+
+        public ReportingStructureOptionsBuilder() {}
+        public ReportingStructureOptionsBuilder Depth(Integer depth) {
+            this.depth = depth;
+            return this;
+        }
+        public ReportingStructureOptionsBuilder Fields(Set<String> fields) {
+            this.fields = fields;
+            return this;
+        }
+        public ReportingStructureOptionsBuilder Cursor(String cursor) {
+            this.cursor = cursor;
+            return this;
+        }
+        public ReportingStructureOptionsBuilder Limit(Integer limit) {
+            this.limit = limit;
+            return this;
+        }
+        public ReportingStructureOptionsBuilder Compensation(boolean compensation) {
+            this.compensation = compensation;
+            return this;
+        }
+        public ReportingStructureOptionsBuilder Flat(boolean flat) {
+            this.flat = flat;
+            return this;
+        }
+        public ReportingStructureOptions build() {
+            return new ReportingStructureOptions(this);
+        }
+    }
+}
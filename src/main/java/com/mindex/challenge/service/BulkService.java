@@ -0,0 +1,17 @@
+package com.mindex.challenge.service;
+
+import com.mindex.challenge.data.BulkImportResult;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+public interface BulkService {
+    BulkImportResult importEmployees(InputStream in);
+    BulkImportResult importCompensations(InputStream in);
+    void exportEmployees(Consumer<Employee> sink);
+    void exportCompensations(Consumer<Compensation> sink);
+    void exportPayroll(LocalDate asOf, Consumer<Compensation> sink);
+}
@@ -0,0 +1,8 @@
+package com.mindex.challenge.service;
+
+import com.mindex.challenge.data.EmployeePage;
+import com.mindex.challenge.data.EmployeeSearch;
+
+public interface EmployeeSearchService {
+    EmployeePage search(EmployeeSearch search);
+}
@@ -2,17 +2,34 @@ package com.mindex.challenge.service;
 
 import com.mindex.challenge.data.Compensation;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingNode;
 import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.data.ReportingStructureBatch;
+import com.mindex.challenge.data.ReportingStructureOptions;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
     Employee create(Employee employee);
     Employee read(String id);
     Employee update(Employee employee);
+    Employee patch(Employee changes);
     ReportingStructure getReportingStructure(String employeeId) throws ExecutionException, InterruptedException;
+    ReportingStructure getReportingStructure(String employeeId, ReportingStructureOptions options) throws ExecutionException, InterruptedException;
+    ReportingStructure getReportingCount(String employeeId);
+    ReportingStructure getReportingCount(String employeeId, boolean compensation);
+    ReportingStructureBatch getReportingStructures(List<String> employeeIds, boolean includeStructures);
+    void streamReportingStructure(String employeeId, Integer depth, Consumer<List<ReportingNode>> sink);
     Compensation createCompensation(Compensation compensation);
     Compensation readCompensation(String employeeId);
+    Compensation readCompensation(String employeeId, LocalDate asOf);
+    List<Compensation> readCompensationHistory(String employeeId, LocalDate from, LocalDate to);
     Compensation updateCompensation(Compensation compensation);
+    String getEmployeeTag(String employeeId);
+    String getReportingStructureTag(String employeeId, ReportingStructureOptions options);
+    String getCompensationTag(String employeeId, LocalDate asOf);
 
 }
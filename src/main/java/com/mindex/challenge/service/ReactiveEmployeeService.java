@@ -0,0 +1,17 @@
+package com.mindex.challenge.service;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveEmployeeService {
+    Mono<Employee> create(Employee employee);
+    Mono<Employee> read(String id);
+    Mono<Employee> update(Employee employee);
+    Mono<ReportingStructure> getReportingStructure(String employeeId);
+    Mono<ReportingStructure> getReportingCount(String employeeId);
+    Mono<Compensation> createCompensation(Compensation compensation);
+    Mono<Compensation> readCompensation(String employeeId);
+    Mono<Compensation> updateCompensation(Compensation compensation);
+}
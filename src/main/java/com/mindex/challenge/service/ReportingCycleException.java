@@ -0,0 +1,26 @@
+package com.mindex.challenge.service;
+
+import java.util.List;
+
+/**
+ * Thrown when following direct reports leads back to an employee already on the path, i.e. someone would end up
+ * reporting to themselves.
+ */
+public class ReportingCycleException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<String> cycle;
+
+    /**
+     * @param cycle the employeeIds around the cycle, starting and ending with the same employee
+     */
+    public ReportingCycleException(List<String> cycle) {
+        super("Reporting cycle: " + String.join(" -> ", cycle));
+        this.cycle = List.copyOf(cycle);
+    }
+
+    public List<String> getCycle() {
+        return cycle;
+    }
+}
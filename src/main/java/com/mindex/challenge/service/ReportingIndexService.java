@@ -0,0 +1,18 @@
+package com.mindex.challenge.service;
+
+import com.mindex.challenge.data.CompensationRollup;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingIndexStatus;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface ReportingIndexService {
+    Integer getNumberOfReports(String employeeId);
+    CompensationRollup getCompensationRollup(String employeeId);
+    void onEmployeeCreated(Employee employee);
+    void onDirectReportsChanged(String employeeId, List<Employee> before, List<Employee> after);
+    void onSalaryChanged(String employeeId, BigDecimal salary);
+    ReportingIndexStatus rebuild();
+    ReportingIndexStatus check();
+}
@@ -0,0 +1,17 @@
+package com.mindex.challenge.service;
+
+/**
+ * The available ways of calculating a reporting structure, selected with {@code reporting.strategy}.
+ */
+public enum ReportingStrategy {
+    /** Recursive fan-out of per-employee reads over a worker pool. */
+    PARALLEL,
+    /** Recursive per-employee reads on the calling thread, kept as a baseline for comparison. */
+    SEQUENTIAL,
+    /** Level-order expansion with one batched query per org level. */
+    BATCHED,
+    /** Counting and walking the cached in-memory org graph, touching the database only to hydrate employees. */
+    GRAPH,
+    /** One server-side {@code $graphLookup} aggregation for the whole subtree, bounded by a maximum depth. */
+    GRAPH_LOOKUP
+}
@@ -0,0 +1,14 @@
+package com.mindex.challenge.service;
+
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+
+/**
+ * A single way of expanding an employee into their full reporting structure.
+ * Implementations hydrate {@code directReports} on the employee they are given, so callers should pass an
+ * instance that is not shared with another traversal.
+ */
+public interface ReportingTraversal {
+    ReportingStrategy getStrategy();
+    ReportingStructure calculate(Employee root);
+}
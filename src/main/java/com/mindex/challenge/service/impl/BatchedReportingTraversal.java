@@ -0,0 +1,262 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingNode;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.service.ReportingCycleException;
+import com.mindex.challenge.service.ReportingStrategy;
+import com.mindex.challenge.service.ReportingTraversal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Expands a reporting structure one org level at a time.
+ * Every level (the frontier) is fetched with a single {@code $in} query, split into chunks of at most
+ * {@code reporting.batch.size} ids, so the number of round trips is bounded by the depth of the tree rather than
+ * the number of employees under it.
+ */
+@Component
+public class BatchedReportingTraversal implements ReportingTraversal {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchedReportingTraversal.class);
+
+    private final EmployeeRepository employeeRepository;
+    private final MongoTemplate mongoTemplate;
+    private final TraversalMetrics traversalMetrics;
+
+    @Value("${reporting.batch.size}")
+    private int batchSize;
+
+    public BatchedReportingTraversal(EmployeeRepository employeeRepository, MongoTemplate mongoTemplate,
+                                     TraversalMetrics traversalMetrics) {
+        this.employeeRepository = employeeRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.traversalMetrics = traversalMetrics;
+    }
+
+    @Override
+    public ReportingStrategy getStrategy() {
+        return ReportingStrategy.BATCHED;
+    }
+
+    /**
+     * Calculates the reporting structure for a given employee, hydrating every level of direct reports.
+     *
+     * @param root the employee at the top of the reporting structure
+     * @return the complete reporting structure of the employee, including all direct and indirect reports
+     * @throws RuntimeException if a direct report references an employeeId that does not exist
+     */
+    @Override
+    public ReportingStructure calculate(Employee root) {
+        LOG.debug("*Batched* Constructing Report Structure for employee [{} {}]", root.getFirstName(), root.getLastName());
+
+        return new ReportingStructure.ReportingStructureBuilder()
+                .Employee(root)
+                .NumberOfReports(expand(root, Integer.MAX_VALUE))
+                .build();
+    }
+
+    /**
+     * Hydrates at most {@code maxDepth} levels of direct reports below the given employee.
+     * Reports on the last hydrated level keep their {@code directReports} exactly as stored, i.e. as id-only stubs.
+     * An employee listed under several managers is fetched and expanded once, and the same instance is linked under
+     * each of them.
+     *
+     * @param root the employee at the top of the reporting structure
+     * @param maxDepth how many levels below the employee to hydrate
+     * @return the number of distinct reports hydrated
+     * @throws RuntimeException if a direct report references an employeeId that does not exist
+     * @throws ReportingCycleException if the direct reports lead back to an employee above them
+     */
+    public int expand(Employee root, int maxDepth) {
+        int roundTrips = 0;
+        int depth = 0;
+        int levels = 0;
+        Map<String, Employee> hydrated = new HashMap<>();
+        Map<String, List<String>> directReportIds = new HashMap<>();
+        hydrated.put(root.getEmployeeId(), root);
+        List<Employee> frontier = List.of(root);
+
+        while (!frontier.isEmpty() && depth++ < maxDepth) {
+            LinkedHashSet<String> childIds = new LinkedHashSet<>();
+            boolean anyReports = false;
+            for (Employee parent : frontier) {
+                List<String> reportIds = ReportingGraphs.directReportIds(parent);
+                directReportIds.put(parent.getEmployeeId(), reportIds);
+                anyReports |= !reportIds.isEmpty();
+                for (String id : reportIds) {
+                    //anyone already hydrated is a shared report or a cycle, either way not fetched again
+                    if (!hydrated.containsKey(id)) {
+                        childIds.add(id);
+                    }
+                }
+            }
+            if (!anyReports) {
+                break;
+            }
+            levels++;
+
+            Map<String, Employee> level = new HashMap<>(childIds.size() * 2);
+            List<String> ids = new ArrayList<>(childIds);
+            for (int from = 0; from < ids.size(); from += batchSize) {
+                List<String> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+                employeeRepository.findByEmployeeIdIn(batch)
+                        .forEach(employee -> level.put(employee.getEmployeeId(), employee));
+                roundTrips++;
+            }
+            for (String id : ids) {
+                if (!level.containsKey(id)) {
+                    throw new RuntimeException("Invalid employeeId: " + id);
+                }
+            }
+            hydrated.putAll(level);
+
+            for (Employee parent : frontier) {
+                if (parent.getDirectReports() != null) {
+                    parent.setDirectReports(directReportIds.get(parent.getEmployeeId()).stream()
+                            .map(hydrated::get)
+                            .toList());
+                }
+            }
+            frontier = ids.stream().map(level::get).toList();
+        }
+
+        int numberOfReports = ReportingGraphs.countReports(root.getEmployeeId(), directReportIds);
+        LOG.debug("*Batched* Resolved [{}] reports in [{}] round trips", numberOfReports, roundTrips);
+        traversalMetrics.record(getStrategy(), numberOfReports, levels, roundTrips);
+
+        return numberOfReports;
+    }
+
+    /**
+     * Walks the reporting structure below an employee without building it, handing every employee to the sink as
+     * soon as their manager's document is read.
+     * Only ids are fetched, {@code reporting.batch.size} managers per query, and nothing is kept once it has been
+     * handed over except the ids already seen and the ids still waiting to have their own reports looked up. The sink
+     * is called once per batch and may block, e.g. on a slow client, which simply pauses the walk.
+     * An employee listed under more than one manager, or back up the chain, is emitted under each of them but only
+     * walked below once, so a cycle cannot keep the stream going forever.
+     *
+     * @param root the employee at the top of the walk, emitted first at depth 0
+     * @param maxDepth how many levels below the employee to walk
+     * @param sink receives each batch of discovered employees, in breadth-first order
+     * @throws RuntimeException if a direct report references an employeeId that does not exist
+     */
+    public void walk(Employee root, int maxDepth, Consumer<List<ReportingNode>> sink) {
+        ReportingNode rootNode = new ReportingNode(root.getEmployeeId(), null, 0);
+        Deque<ReportingNode> pending = new ArrayDeque<>();
+        Set<String> seen = new HashSet<>();
+        seen.add(root.getEmployeeId());
+        List<ReportingNode> discovered = new ArrayList<>();
+        discovered.add(rootNode);
+        discover(rootNode, root.getDirectReports(), maxDepth, discovered, pending, seen);
+        sink.accept(discovered);
+
+        while (!pending.isEmpty()) {
+            //kept in the order the nodes were discovered, so each level comes out in directReports order
+            Map<String, ReportingNode> batch = new LinkedHashMap<>();
+            while (!pending.isEmpty() && batch.size() < batchSize) {
+                ReportingNode node = pending.poll();
+                batch.put(node.getEmployeeId(), node);
+            }
+
+            Query query = Query.query(Criteria.where("employeeId").in(batch.keySet()));
+            query.fields().include("employeeId").include("directReports");
+            Map<String, Employee> managers = new HashMap<>(batch.size() * 2);
+            mongoTemplate.find(query, Employee.class).forEach(employee -> managers.put(employee.getEmployeeId(), employee));
+
+            discovered = new ArrayList<>();
+            for (ReportingNode node : batch.values()) {
+                Employee manager = managers.get(node.getEmployeeId());
+                if (manager == null) {
+                    throw new RuntimeException("Invalid employeeId: " + node.getEmployeeId());
+                }
+                discover(node, manager.getDirectReports(), maxDepth, discovered, pending, seen);
+            }
+            if (!discovered.isEmpty()) {
+                sink.accept(discovered);
+            }
+        }
+    }
+
+    /**
+     * Collects who reports to whom below several employees in one shared walk.
+     * Like {@link #walk}, only ids are fetched, {@code reporting.batch.size} managers per query, and an employee below
+     * more than one of the given employees, or listed by more than one manager, is looked up once.
+     *
+     * @param roots the employees at the top of the walk, as already read
+     * @return the direct report ids of the roots and of everyone below them, by employeeId
+     * @throws RuntimeException if a direct report references an employeeId that does not exist
+     */
+    public Map<String, List<String>> directReportIds(Collection<Employee> roots) {
+        Map<String, List<String>> directReportIds = new HashMap<>();
+        roots.forEach(root -> directReportIds.put(root.getEmployeeId(), ReportingGraphs.directReportIds(root)));
+        Set<String> seen = new HashSet<>(directReportIds.keySet());
+        Deque<String> pending = new ArrayDeque<>();
+        directReportIds.values().forEach(ids -> ids.stream().filter(seen::add).forEach(pending::add));
+
+        int roundTrips = 0;
+        while (!pending.isEmpty()) {
+            List<String> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+            while (!pending.isEmpty() && batch.size() < batchSize) {
+                batch.add(pending.poll());
+            }
+
+            Query query = Query.query(Criteria.where("employeeId").in(batch));
+            query.fields().include("employeeId").include("directReports");
+            Map<String, Employee> managers = new HashMap<>(batch.size() * 2);
+            mongoTemplate.find(query, Employee.class).forEach(employee -> managers.put(employee.getEmployeeId(), employee));
+            roundTrips++;
+
+            for (String id : batch) {
+                Employee manager = managers.get(id);
+                if (manager == null) {
+                    throw new RuntimeException("Invalid employeeId: " + id);
+                }
+                List<String> reportIds = ReportingGraphs.directReportIds(manager);
+                directReportIds.put(id, reportIds);
+                reportIds.stream().filter(seen::add).forEach(pending::add);
+            }
+        }
+
+        LOG.debug("*Batched* Collected [{}] employees below [{}] roots in [{}] round trips",
+                directReportIds.size(), roots.size(), roundTrips);
+        return directReportIds;
+    }
+
+    private static void discover(ReportingNode manager, List<Employee> directReports, int maxDepth,
+                                 List<ReportingNode> discovered, Deque<ReportingNode> pending, Set<String> seen) {
+        if (directReports == null || manager.getDepth() >= maxDepth) {
+            return;
+        }
+        for (Employee report : directReports) {
+            if (report == null || report.getEmployeeId() == null) {
+                continue;
+            }
+            ReportingNode node = new ReportingNode(report.getEmployeeId(), manager.getEmployeeId(), manager.getDepth() + 1);
+            discovered.add(node);
+            if (node.getDepth() < maxDepth && seen.add(node.getEmployeeId())) {
+                pending.add(node);
+            }
+        }
+    }
+}
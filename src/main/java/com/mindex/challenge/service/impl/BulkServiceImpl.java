@@ -0,0 +1,462 @@
+package com.mindex.challenge.service.impl;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.data.BulkImportError;
+import com.mindex.challenge.data.BulkImportResult;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.BulkService;
+import com.mindex.challenge.service.ReportingCycleException;
+import com.mindex.challenge.service.ReportingIndexService;
+import com.mongodb.bulk.BulkWriteError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Imports and exports employees and compensation in bulk.
+ * <p>
+ * Imports read the body one record at a time and write {@code bulk.batch.size} records per unordered bulk insert,
+ * so one bad record only fails itself. A direct report must either already exist or be part of the same import.
+ * Records that point ahead to employees later in the body are still written with their batch, and only their
+ * employeeId and the reports they are waiting for are kept; any whose reports never turn up, or that would report to
+ * themselves through other records of the import, are deleted again at the end and rejected.
+ */
+@Service
+public class BulkServiceImpl implements BulkService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkServiceImpl.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final ReportingIndexService reportingIndexService;
+    private final OrgGraphCache orgGraphCache;
+    private final EmployeeLookupCache lookupCache;
+    private final OrgVersions orgVersions;
+    private final CompensationRollups compensationRollups;
+
+    @Value("${bulk.batch.size}")
+    private int batchSize;
+
+    @Value("${bulk.max-errors}")
+    private int maxErrors;
+
+    public BulkServiceImpl(MongoTemplate mongoTemplate, ObjectMapper objectMapper,
+                           ReportingIndexService reportingIndexService, OrgGraphCache orgGraphCache,
+                           EmployeeLookupCache lookupCache, OrgVersions orgVersions,
+                           CompensationRollups compensationRollups) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.reportingIndexService = reportingIndexService;
+        this.orgGraphCache = orgGraphCache;
+        this.lookupCache = lookupCache;
+        this.orgVersions = orgVersions;
+        this.compensationRollups = compensationRollups;
+    }
+
+    /**
+     * Imports employees from a JSON array or NDJSON body. Employees without an employeeId are given one, and direct
+     * reports are stored as employeeId references only.
+     * The reporting index is rebuilt and the org graph and lookup caches dropped once anything has been written.
+     */
+    @Override
+    public BulkImportResult importEmployees(InputStream in) {
+        Import run = new Import();
+        Set<String> seen = new HashSet<>();
+        Set<String> known = new HashSet<>();
+        Unresolved unresolved = new Unresolved();
+        List<Pending<Employee>> batch = new ArrayList<>(batchSize);
+
+        read(in, Employee.class, run, (index, employee) -> {
+            if (employee.getEmployeeId() == null) {
+                employee.setEmployeeId(UUID.randomUUID().toString());
+            }
+            if (!seen.add(employee.getEmployeeId())) {
+                run.reject(index, employee.getEmployeeId(), "Duplicate employeeId in import");
+                return;
+            }
+            employee.setDirectReports(stubs(employee.getDirectReports()));
+            batch.add(new Pending<>(index, employee.getEmployeeId(), employee));
+            if (batch.size() >= batchSize) {
+                writeEmployees(batch, known, unresolved, run);
+                batch.clear();
+            }
+        });
+        writeEmployees(batch, known, unresolved, run);
+
+        //whatever is still waiting can no longer be satisfied, so take it back out
+        Map<String, List<String>> cycles = unresolved.cycles();
+        List<String> failed = new ArrayList<>(unresolved.held.keySet());
+        for (int from = 0; from < failed.size(); from += batchSize) {
+            List<String> ids = failed.subList(from, Math.min(from + batchSize, failed.size()));
+            mongoTemplate.remove(Query.query(Criteria.where("employeeId").in(ids)), Employee.class);
+        }
+        run.imported -= failed.size();
+        unresolved.held.forEach((employeeId, held) -> {
+            List<String> cycle = cycles.get(employeeId);
+            run.reject(held.index(), employeeId, cycle == null
+                    ? "Invalid direct reports: " + held.waitingFor()
+                    : new ReportingCycleException(cycle).getMessage());
+        });
+
+        if (run.imported > 0) {
+            //written around EmployeeServiceImpl, so index everything in one pass like the bootstrap loader does
+            reportingIndexService.rebuild();
+            orgGraphCache.invalidate();
+            lookupCache.invalidateAll();
+            orgVersions.invalidateAll();
+        }
+        return run.finish("employees");
+    }
+
+    /**
+     * Imports compensation changes from a JSON array or NDJSON body. Each record must name an existing employee and
+     * is added to their history, taking effect today when it has no effective date; later records win between
+     * changes to the same employee on the same day.
+     * The reporting index is rebuilt for the new salary rollups and the lookup cache dropped once anything has been
+     * written.
+     */
+    @Override
+    public BulkImportResult importCompensations(InputStream in) {
+        Import run = new Import();
+        List<Pending<Compensation>> batch = new ArrayList<>(batchSize);
+
+        read(in, Compensation.class, run, (index, compensation) -> {
+            if (compensation.getEmployeeId() == null) {
+                run.reject(index, null, "Missing employeeId");
+                return;
+            }
+            compensation.setCompensationId(null);
+            if (compensation.getEffectiveDate() == null) {
+                compensation.setEffectiveDate(LocalDate.now());
+            }
+            batch.add(new Pending<>(index, compensation.getEmployeeId(), compensation));
+            if (batch.size() >= batchSize) {
+                writeCompensations(batch, run);
+                batch.clear();
+            }
+        });
+        writeCompensations(batch, run);
+        if (run.imported > 0) {
+            reportingIndexService.rebuild();
+            lookupCache.invalidateAll();
+            orgVersions.invalidateAll();
+        }
+
+        return run.finish("compensations");
+    }
+
+    @Override
+    public void exportEmployees(Consumer<Employee> sink) {
+        try (Stream<Employee> employees = mongoTemplate.stream(new Query(), Employee.class)) {
+            employees.forEach(sink);
+        }
+    }
+
+    @Override
+    public void exportCompensations(Consumer<Compensation> sink) {
+        try (Stream<Compensation> compensations = mongoTemplate.stream(new Query(), Compensation.class)) {
+            compensations.forEach(sink);
+        }
+    }
+
+    /**
+     * Streams the compensation in effect for every employee on a date, by employeeId.
+     */
+    @Override
+    public void exportPayroll(LocalDate asOf, Consumer<Compensation> sink) {
+        compensationRollups.forEachInEffect(asOf, sink);
+    }
+
+    /**
+     * Writes a batch of employees, and holds on to the ones whose direct reports are not all known yet until they are.
+     */
+    private void writeEmployees(List<Pending<Employee>> batch, Set<String> known, Unresolved unresolved, Import run) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        //records written earlier in this import exist already but are only known once they are resolved
+        Set<String> unknown = new HashSet<>();
+        for (Pending<Employee> pending : batch) {
+            for (String id : reportIds(pending.record())) {
+                if (!known.contains(id) && !unresolved.held.containsKey(id)) {
+                    unknown.add(id);
+                }
+            }
+        }
+        known.addAll(existingEmployeeIds(unknown));
+
+        //hold everything before resolving anything, so reports within the batch resolve whichever order they come in
+        List<String> ready = new ArrayList<>();
+        for (Pending<Employee> pending : insert(batch, Employee.class, run)) {
+            Set<String> waitingFor = reportIds(pending.record());
+            waitingFor.removeAll(known);
+            if (waitingFor.isEmpty()) {
+                ready.add(pending.employeeId());
+            } else {
+                unresolved.hold(pending.index(), pending.employeeId(), waitingFor);
+            }
+        }
+        ready.forEach(employeeId -> unresolved.resolve(employeeId, known));
+    }
+
+    private void writeCompensations(List<Pending<Compensation>> batch, Import run) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Set<String> employeeIds = new HashSet<>();
+        batch.forEach(pending -> employeeIds.add(pending.employeeId()));
+        Set<String> existing = existingEmployeeIds(employeeIds);
+
+        List<Pending<Compensation>> valid = new ArrayList<>(batch.size());
+        for (Pending<Compensation> pending : batch) {
+            if (existing.contains(pending.employeeId())) {
+                valid.add(pending);
+            } else {
+                run.reject(pending.index(), pending.employeeId(), "Invalid employeeId: " + pending.employeeId());
+            }
+        }
+        insert(valid, Compensation.class, run);
+    }
+
+    /**
+     * Inserts records in one unordered bulk write, rejecting only the ones the database refused.
+     *
+     * @return the records that were written
+     */
+    private <T> List<Pending<T>> insert(List<Pending<T>> records, Class<T> type, Import run) {
+        if (records.isEmpty()) {
+            return records;
+        }
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+        records.forEach(pending -> operations.insert(pending.record()));
+
+        Set<Integer> refused = new HashSet<>();
+        try {
+            operations.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                Pending<T> pending = records.get(error.getIndex());
+                refused.add(error.getIndex());
+                run.reject(pending.index(), pending.employeeId(), error.getMessage());
+            }
+        }
+
+        List<Pending<T>> written = new ArrayList<>(records.size() - refused.size());
+        for (int i = 0; i < records.size(); i++) {
+            if (!refused.contains(i)) {
+                written.add(records.get(i));
+            }
+        }
+        run.imported += written.size();
+        LOG.debug("Bulk inserted [{}] of [{}] {} records", written.size(), records.size(), type.getSimpleName());
+        return written;
+    }
+
+    private Set<String> existingEmployeeIds(Collection<String> employeeIds) {
+        Set<String> existing = new HashSet<>();
+        if (employeeIds.isEmpty()) {
+            return existing;
+        }
+        Query query = Query.query(Criteria.where("employeeId").in(employeeIds));
+        query.fields().include("employeeId");
+        mongoTemplate.find(query, Employee.class).forEach(employee -> existing.add(employee.getEmployeeId()));
+        return existing;
+    }
+
+    /**
+     * Feeds every record of the body to the handler, rejecting the ones that cannot be bound. Malformed JSON ends
+     * the read, keeping whatever was handled before it.
+     */
+    private <T> void read(InputStream in, Class<T> type, Import run, RecordHandler<T> handler) {
+        JsonRecordReader<T> reader = null;
+        try {
+            reader = new JsonRecordReader<>(objectMapper, in, type);
+            while (true) {
+                T record;
+                try {
+                    record = reader.next();
+                } catch (JsonMappingException e) {
+                    run.received++;
+                    run.reject(reader.getIndex(), null, e.getOriginalMessage());
+                    continue;
+                }
+                if (record == null) {
+                    break;
+                }
+                run.received++;
+                handler.accept(reader.getIndex(), record);
+            }
+        } catch (IOException e) {
+            run.reject(reader == null ? 0 : reader.getIndex(), null, "Malformed input, nothing after this record was read: " + e.getMessage());
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    LOG.debug("Failed to close bulk import reader", e);
+                }
+            }
+        }
+    }
+
+    private static List<Employee> stubs(List<Employee> directReports) {
+        if (directReports == null) {
+            return null;
+        }
+        List<Employee> stubs = new ArrayList<>(directReports.size());
+        for (Employee report : directReports) {
+            if (report != null && report.getEmployeeId() != null) {
+                Employee stub = new Employee();
+                stub.setEmployeeId(report.getEmployeeId());
+                stubs.add(stub);
+            }
+        }
+        return stubs;
+    }
+
+    private static Set<String> reportIds(Employee employee) {
+        Set<String> ids = new LinkedHashSet<>();
+        if (employee.getDirectReports() != null) {
+            employee.getDirectReports().stream().map(Employee::getEmployeeId).filter(Objects::nonNull).forEach(ids::add);
+        }
+        return ids;
+    }
+
+    private interface RecordHandler<T> {
+        void accept(int index, T record);
+    }
+
+    private record Pending<T>(int index, String employeeId, T record) {}
+
+    /**
+     * Employees written before all of their direct reports were known, by employeeId, with the reports each is still
+     * waiting for. Only ids are kept, never the records.
+     */
+    private static class Unresolved {
+        private final Map<String, Held> held = new LinkedHashMap<>();
+        private final Map<String, List<String>> heldBy = new HashMap<>();
+
+        void hold(int index, String employeeId, Set<String> waitingFor) {
+            held.put(employeeId, new Held(index, waitingFor));
+            waitingFor.forEach(id -> heldBy.computeIfAbsent(id, key -> new ArrayList<>()).add(employeeId));
+        }
+
+        /**
+         * Marks an employee as known, along with everyone who was only waiting for them, transitively.
+         */
+        void resolve(String employeeId, Set<String> known) {
+            Deque<String> resolved = new ArrayDeque<>();
+            resolved.add(employeeId);
+            while (!resolved.isEmpty()) {
+                String id = resolved.poll();
+                known.add(id);
+                for (String manager : heldBy.getOrDefault(id, List.of())) {
+                    Held waiting = held.get(manager);
+                    if (waiting != null && waiting.waitingFor().remove(id) && waiting.waitingFor().isEmpty()) {
+                        held.remove(manager);
+                        resolved.add(manager);
+                    }
+                }
+                heldBy.remove(id);
+            }
+        }
+
+        /**
+         * Looks for reporting cycles among the employees still held, with a three-color depth-first walk.
+         *
+         * @return the cycle found through each employee that is on one, starting and ending with the same employee
+         */
+        Map<String, List<String>> cycles() {
+            Map<String, List<String>> cycles = new HashMap<>();
+            //false while an employee is on the current path, true once everything below them has been walked
+            Map<String, Boolean> walked = new HashMap<>();
+            for (String root : held.keySet()) {
+                if (walked.containsKey(root)) {
+                    continue;
+                }
+                List<String> path = new ArrayList<>();
+                List<Iterator<String>> next = new ArrayList<>();
+                path.add(root);
+                next.add(held.get(root).waitingFor().iterator());
+                walked.put(root, false);
+                while (!path.isEmpty()) {
+                    int top = path.size() - 1;
+                    if (!next.get(top).hasNext()) {
+                        walked.put(path.remove(top), true);
+                        next.remove(top);
+                        continue;
+                    }
+                    String report = next.get(top).next();
+                    if (!held.containsKey(report)) {
+                        continue;
+                    }
+                    Boolean done = walked.get(report);
+                    if (done == null) {
+                        walked.put(report, false);
+                        path.add(report);
+                        next.add(held.get(report).waitingFor().iterator());
+                    } else if (!done) {
+                        List<String> cycle = new ArrayList<>(path.subList(path.indexOf(report), path.size()));
+                        cycle.add(report);
+                        cycle.subList(0, cycle.size() - 1).forEach(id -> cycles.putIfAbsent(id, cycle));
+                    }
+                }
+            }
+            return cycles;
+        }
+    }
+
+    private record Held(int index, Set<String> waitingFor) {}
+
+    /**
+     * Running totals of one import.
+     */
+    private class Import {
+        private final long start = System.nanoTime();
+        private final List<BulkImportError> errors = new ArrayList<>();
+        private int received;
+        private int imported;
+        private int failed;
+
+        void reject(int index, String employeeId, String message) {
+            if (failed++ < maxErrors) {
+                errors.add(new BulkImportError(index, employeeId, message));
+            }
+        }
+
+        BulkImportResult finish(String what) {
+            BulkImportResult result = new BulkImportResult(received, imported, failed, errors, (System.nanoTime() - start) / 1_000_000);
+            LOG.info("Imported [{}] of [{}] {} in [{}ms] ([{}] records/s)", imported, received, what,
+                    result.getElapsedMillis(), Math.round(result.getRecordsPerSecond()));
+            return result;
+        }
+    }
+}
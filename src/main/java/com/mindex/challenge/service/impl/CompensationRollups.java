@@ -0,0 +1,113 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.dao.CompensationRepository;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.CompensationRollup;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Reads the compensation in effect on a date for many employees at once, and sums it over reporting subtrees.
+ * Every read walks compensation history in (employeeId, effectiveDate) index order, newest change first within each
+ * employee, and keeps only the first change it sees per employee, so nothing but the answer is held in memory.
+ */
+@Component
+public class CompensationRollups {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${reporting.batch.size}")
+    private int batchSize;
+
+    public CompensationRollups(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Streams the compensation in effect on a date for every employee who has one, by employeeId.
+     */
+    public void forEachInEffect(LocalDate asOf, Consumer<Compensation> sink) {
+        stream(Criteria.where("effectiveDate").lte(asOf), sink);
+    }
+
+    /**
+     * @return the salary in effect on a date for each of the employees that has one, fetched in {@code $in} chunks of
+     * {@code reporting.batch.size} ids
+     */
+    public Map<String, BigDecimal> salariesInEffect(Collection<String> employeeIds, LocalDate asOf) {
+        Map<String, BigDecimal> salaries = new HashMap<>(employeeIds.size() * 2);
+        List<String> ids = new ArrayList<>(employeeIds);
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            stream(Criteria.where("employeeId").in(ids.subList(from, Math.min(from + batchSize, ids.size())))
+                            .and("effectiveDate").lte(asOf),
+                    compensation -> {
+                        if (compensation.getSalary() != null) {
+                            salaries.put(compensation.getEmployeeId(), compensation.getSalary());
+                        }
+                    });
+        }
+        return salaries;
+    }
+
+    /**
+     * Totals the salaries in effect on a date for everyone below the root, one org level at a time: each level's
+     * compensation is fetched together before moving on to the next. Employees listed under several managers are
+     * counted once, and a reporting cycle ends the walk instead of looping.
+     *
+     * @param rootId the employee at the top, not included
+     * @param directReportIds the direct report ids of everyone below the root, as collected by an id-only walk
+     */
+    public CompensationRollup rollup(String rootId, Map<String, List<String>> directReportIds, LocalDate asOf) {
+        BigDecimal total = BigDecimal.ZERO;
+        int compensated = 0;
+        Set<String> visited = new HashSet<>();
+        visited.add(rootId);
+        List<String> level = List.of(rootId);
+        while (!level.isEmpty()) {
+            List<String> next = new ArrayList<>();
+            for (String id : level) {
+                for (String reportId : directReportIds.getOrDefault(id, List.of())) {
+                    if (visited.add(reportId)) {
+                        next.add(reportId);
+                    }
+                }
+            }
+            for (BigDecimal salary : salariesInEffect(next, asOf).values()) {
+                total = total.add(salary);
+                compensated++;
+            }
+            level = next;
+        }
+        return new CompensationRollup(total, compensated);
+    }
+
+    private void stream(Criteria criteria, Consumer<Compensation> sink) {
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "employeeId").and(CompensationRepository.NEWEST_FIRST));
+        try (Stream<Compensation> compensations = mongoTemplate.stream(query, Compensation.class)) {
+            String[] previous = {null};
+            compensations.forEach(compensation -> {
+                if (!compensation.getEmployeeId().equals(previous[0])) {
+                    previous[0] = compensation.getEmployeeId();
+                    sink.accept(compensation);
+                }
+            });
+        }
+    }
+}
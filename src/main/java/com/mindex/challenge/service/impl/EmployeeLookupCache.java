@@ -0,0 +1,147 @@
+package com.mindex.challenge.service.impl;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.mindex.challenge.dao.CompensationRepository;
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Bounded read-through cache in front of single employee and compensation lookups.
+ * <p>
+ * Concurrent misses for the same id share one repository read, and ids that do not exist are not cached. Entries
+ * are evicted by size and by age, and every write through {@code EmployeeServiceImpl} invalidates the id it wrote,
+ * after the write, so a read that raced the write cannot leave the old document behind. Anything that writes around
+ * the service, like the bootstrap loader or bulk import, should {@link #invalidateAll()} instead.
+ * <p>
+ * Compensation is cached as the record in effect today, so a change dated today or earlier evicts it, and one dated
+ * in the future is picked up once it takes effect and the entry has aged out.
+ * <p>
+ * Callers get their own copy of the cached document, since reporting traversals hydrate the employee they are given.
+ * Hit ratio and evictions are published as {@code cache.*} meters tagged {@code cache=employee|compensation}.
+ */
+@Component
+public class EmployeeLookupCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EmployeeLookupCache.class);
+
+    private final LoadingCache<String, Employee> employees;
+    private final LoadingCache<String, Compensation> compensations;
+
+    public EmployeeLookupCache(EmployeeRepository employeeRepository, CompensationRepository compensationRepository,
+                               @Value("${cache.employee.max-size}") long employeeMaxSize,
+                               @Value("${cache.employee.ttl}") Duration employeeTtl,
+                               @Value("${cache.compensation.max-size}") long compensationMaxSize,
+                               @Value("${cache.compensation.ttl}") Duration compensationTtl,
+                               MeterRegistry meterRegistry) {
+        this.employees = Caffeine.newBuilder()
+                .maximumSize(employeeMaxSize)
+                .expireAfterWrite(employeeTtl)
+                .recordStats()
+                .build(employeeRepository::findByEmployeeId);
+        this.compensations = Caffeine.newBuilder()
+                .maximumSize(compensationMaxSize)
+                .expireAfterWrite(compensationTtl)
+                .recordStats()
+                .build(employeeId -> compensationRepository.findAsOf(employeeId, LocalDate.now()));
+
+        CaffeineCacheMetrics.monitor(meterRegistry, employees, "employee");
+        CaffeineCacheMetrics.monitor(meterRegistry, compensations, "compensation");
+    }
+
+    /**
+     * @return a copy of the employee, or null if there is no such employee
+     */
+    public Employee getEmployee(String employeeId) {
+        return copyOf(employees.get(employeeId));
+    }
+
+    /**
+     * @return a copy of the employee's compensation in effect today, or null if they have none yet
+     */
+    public Compensation getCompensation(String employeeId) {
+        return copyOf(compensations.get(employeeId));
+    }
+
+    public void invalidateEmployee(String employeeId) {
+        employees.invalidate(employeeId);
+    }
+
+    public void invalidateCompensation(String employeeId) {
+        compensations.invalidate(employeeId);
+    }
+
+    public void invalidateAll() {
+        LOG.debug("Invalidating cached employee and compensation lookups");
+        employees.invalidateAll();
+        compensations.invalidateAll();
+    }
+
+    /**
+     * Copies an employee along with whatever direct reports were read with them, which are stored as references only.
+     * Walks with a queue, so a hydrated tree of any depth copies just as well.
+     */
+    private static Employee copyOf(Employee employee) {
+        if (employee == null) {
+            return null;
+        }
+        Employee root = copyFields(employee);
+        Deque<Employee[]> pending = new ArrayDeque<>();
+        pending.add(new Employee[]{employee, root});
+        while (!pending.isEmpty()) {
+            Employee[] next = pending.poll();
+            List<Employee> reports = next[0].getDirectReports();
+            if (reports == null) {
+                continue;
+            }
+            List<Employee> copies = new ArrayList<>(reports.size());
+            for (Employee report : reports) {
+                Employee copy = report == null ? null : copyFields(report);
+                if (copy != null) {
+                    pending.add(new Employee[]{report, copy});
+                }
+                copies.add(copy);
+            }
+            next[1].setDirectReports(copies);
+        }
+        return root;
+    }
+
+    private static Employee copyFields(Employee employee) {
+        Employee copy = new Employee();
+        copy.setEmployeeId(employee.getEmployeeId());
+        copy.setFirstName(employee.getFirstName());
+        copy.setLastName(employee.getLastName());
+        copy.setPosition(employee.getPosition());
+        copy.setDepartment(employee.getDepartment());
+        copy.setManagerId(employee.getManagerId());
+        copy.setVersion(employee.getVersion());
+        return copy;
+    }
+
+    private static Compensation copyOf(Compensation compensation) {
+        if (compensation == null) {
+            return null;
+        }
+        Compensation copy = new Compensation();
+        copy.setCompensationId(compensation.getCompensationId());
+        copy.setEmployeeId(compensation.getEmployeeId());
+        copy.setSalary(compensation.getSalary());
+        copy.setEffectiveDate(compensation.getEffectiveDate());
+        return copy;
+    }
+}
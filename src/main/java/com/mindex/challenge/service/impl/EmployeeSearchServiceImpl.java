@@ -0,0 +1,166 @@
+package com.mindex.challenge.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeePage;
+import com.mindex.challenge.data.EmployeeSearch;
+import com.mindex.challenge.service.EmployeeSearchService;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lists employees matching a search, one page at a time.
+ * <p>
+ * Pages are keyset based: the cursor carries the sort value and employeeId of the last employee on the page, and the
+ * next page starts strictly after that pair. Every page is then a bounded range read off one of the
+ * {@code Employee} search indexes however deep into the results it is, and no page ever needs a total count.
+ * Results leave out {@code directReports}, so managers of large teams cost the same to list as anyone else.
+ */
+@Service
+@Timed(value = "employee.service", description = "Employee service calls, by method")
+public class EmployeeSearchServiceImpl implements EmployeeSearchService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EmployeeSearchServiceImpl.class);
+    private static final Set<String> SORTABLE_FIELDS = Set.of("employeeId", "firstName", "lastName", "department", "position");
+    private static final String DEFAULT_SORT = "lastName";
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${search.page.size}")
+    private int defaultPageSize;
+
+    @Value("${search.max-page-size}")
+    private int maxPageSize;
+
+    public EmployeeSearchServiceImpl(MongoTemplate mongoTemplate, ObjectMapper objectMapper) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @throws RuntimeException if the sort, cursor or limit is invalid
+     */
+    @Override
+    public EmployeePage search(EmployeeSearch search) {
+        String sort = search.getSort() == null ? DEFAULT_SORT : search.getSort();
+        if (!SORTABLE_FIELDS.contains(sort)) {
+            throw new RuntimeException("Invalid sort: " + sort + ", expected one of " + SORTABLE_FIELDS);
+        }
+        int limit = search.getLimit() == null ? defaultPageSize : search.getLimit();
+        if (limit <= 0 || limit > maxPageSize) {
+            throw new RuntimeException("Invalid limit: " + limit + ", expected 1 to " + maxPageSize);
+        }
+        LOG.debug("Searching employees: department [{}], position [{}], name [{}], sort [{}]",
+                search.getDepartment(), search.getPosition(), search.getName(), sort);
+
+        List<Criteria> filters = new ArrayList<>();
+        if (search.getDepartment() != null) {
+            filters.add(Criteria.where("department").is(search.getDepartment()));
+        }
+        if (search.getPosition() != null) {
+            filters.add(Criteria.where("position").is(search.getPosition()));
+        }
+        if (search.getName() != null) {
+            //an anchored, case-sensitive prefix is answered as an index range scan
+            String prefix = "^" + escape(search.getName());
+            filters.add(new Criteria().orOperator(Criteria.where("lastName").regex(prefix), Criteria.where("firstName").regex(prefix)));
+        }
+        if (search.getCursor() != null) {
+            filters.add(after(sort, search.isDescending(), decode(search.getCursor(), sort, search.isDescending())));
+        }
+
+        Sort.Direction direction = search.isDescending() ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Query query = new Query(filters.isEmpty() ? new Criteria() : new Criteria().andOperator(filters))
+                .with(sort.equals("employeeId") ? Sort.by(direction, "employeeId") : Sort.by(direction, sort, "employeeId"))
+                .limit(limit + 1);
+        query.fields().exclude("directReports");
+
+        List<Employee> employees = mongoTemplate.find(query, Employee.class);
+        String nextCursor = null;
+        if (employees.size() > limit) {
+            employees = employees.subList(0, limit);
+            nextCursor = encode(sort, search.isDescending(), employees.get(limit - 1));
+        }
+        return new EmployeePage(employees, nextCursor);
+    }
+
+    /**
+     * Matches the employees that sort after the cursor's. Missing values sort before any name, so ascending pages
+     * move from them onto the named, and descending pages end with them.
+     */
+    private static Criteria after(String sort, boolean descending, Cursor cursor) {
+        if (sort.equals("employeeId")) {
+            return descending ? Criteria.where("employeeId").lt(cursor.employeeId()) : Criteria.where("employeeId").gt(cursor.employeeId());
+        }
+        Criteria sameValueLaterId = descending
+                ? Criteria.where(sort).is(cursor.value()).and("employeeId").lt(cursor.employeeId())
+                : Criteria.where(sort).is(cursor.value()).and("employeeId").gt(cursor.employeeId());
+        if (cursor.value() == null) {
+            return descending ? sameValueLaterId : new Criteria().orOperator(sameValueLaterId, Criteria.where(sort).ne(null));
+        }
+        return descending
+                ? new Criteria().orOperator(Criteria.where(sort).lt(cursor.value()), sameValueLaterId, Criteria.where(sort).is(null))
+                : new Criteria().orOperator(Criteria.where(sort).gt(cursor.value()), sameValueLaterId);
+    }
+
+    /**
+     * The cursor is the opaque, url-safe encoding of the sort it was made for and the last employee's sort value and
+     * employeeId, so a cursor cannot be replayed against a different order.
+     */
+    private String encode(String sort, boolean descending, Employee last) {
+        Object value = switch (sort) {
+            case "firstName" -> last.getFirstName();
+            case "lastName" -> last.getLastName();
+            case "department" -> last.getDepartment();
+            case "position" -> last.getPosition();
+            default -> last.getEmployeeId();
+        };
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(new Cursor(sort, descending, (String) value, last.getEmployeeId()));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Cursor decode(String encoded, String sort, boolean descending) {
+        Cursor cursor;
+        try {
+            cursor = objectMapper.readValue(new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8), Cursor.class);
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            throw new RuntimeException("Invalid cursor: " + encoded);
+        }
+        if (!sort.equals(cursor.sort()) || descending != cursor.descending() || cursor.employeeId() == null) {
+            throw new RuntimeException("Invalid cursor: " + encoded);
+        }
+        return cursor;
+    }
+
+    private static String escape(String literal) {
+        StringBuilder escaped = new StringBuilder(literal.length() + 8);
+        for (char c : literal.toCharArray()) {
+            if ("\\^$.|?*+()[]{}".indexOf(c) >= 0) {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    private record Cursor(String sort, boolean descending, String value, String employeeId) {}
+}
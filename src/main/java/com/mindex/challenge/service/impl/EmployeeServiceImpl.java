@@ -3,33 +3,110 @@ package com.mindex.challenge.service.impl;
 import com.mindex.challenge.dao.CompensationRepository;
 import com.mindex.challenge.dao.EmployeeRepository;
 import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.CompensationRollup;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingNode;
 import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.data.ReportingStructureBatch;
+import com.mindex.challenge.data.ReportingStructureOptions;
 import com.mindex.challenge.service.EmployeeService;
+import com.mindex.challenge.service.ReportingCycleException;
+import com.mindex.challenge.service.ReportingIndexService;
+import com.mindex.challenge.service.ReportingStrategy;
+import com.mindex.challenge.service.ReportingTraversal;
+import com.mongodb.client.MongoCollection;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 @Service
+@Timed(value = "employee.service", description = "Employee service calls, by method")
 public class EmployeeServiceImpl implements EmployeeService {
 
     private static final Logger LOG = LoggerFactory.getLogger(EmployeeServiceImpl.class);
+    private static final Set<String> PROJECTABLE_FIELDS = Set.of("firstName", "lastName", "position", "department", "managerId");
+    //how many times an update that did not name a version is re-read and retried after losing a race
+    private static final int WRITE_ATTEMPTS = 3;
 
     private final EmployeeRepository employeeRepository;
     private final CompensationRepository compensationRepository;
-
-    @Value("${max.worker.threads}")
-    private int maxWorkerThreads;
-
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository, CompensationRepository compensationRepository) {
+    private final Map<ReportingStrategy, ReportingTraversal> traversals = new EnumMap<>(ReportingStrategy.class);
+    private final ReportingIndexService reportingIndexService;
+    private final OrgGraphCache orgGraphCache;
+    private final BatchedReportingTraversal batchedReportingTraversal;
+    private final GraphLookupReportingTraversal graphLookupReportingTraversal;
+    private final EmployeeLookupCache lookupCache;
+    private final CompensationRollups compensationRollups;
+    private final MeterRegistry meterRegistry;
+    private final MongoTemplate mongoTemplate;
+    private final ReportingStructureCache reportingStructureCache;
+    private final OrgVersions orgVersions;
+
+    @Value("${reporting.strategy}")
+    private ReportingStrategy reportingStrategy;
+
+    @Value("${reporting.benchmark.sample-rate}")
+    private double benchmarkSampleRate;
+
+    @Value("${reporting.page.size}")
+    private int defaultPageSize;
+
+    @Value("${reporting.request.max-ids}")
+    private int maxRequestIds;
+
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository, CompensationRepository compensationRepository,
+                               List<ReportingTraversal> traversals, ReportingIndexService reportingIndexService,
+                               OrgGraphCache orgGraphCache, BatchedReportingTraversal batchedReportingTraversal,
+                               GraphLookupReportingTraversal graphLookupReportingTraversal,
+                               EmployeeLookupCache lookupCache, CompensationRollups compensationRollups,
+                               MeterRegistry meterRegistry, MongoTemplate mongoTemplate,
+                               ReportingStructureCache reportingStructureCache, OrgVersions orgVersions) {
         this.employeeRepository = employeeRepository;
         this.compensationRepository = compensationRepository;
+        traversals.forEach(traversal -> this.traversals.put(traversal.getStrategy(), traversal));
+        this.reportingIndexService = reportingIndexService;
+        this.orgGraphCache = orgGraphCache;
+        this.batchedReportingTraversal = batchedReportingTraversal;
+        this.graphLookupReportingTraversal = graphLookupReportingTraversal;
+        this.lookupCache = lookupCache;
+        this.compensationRollups = compensationRollups;
+        this.meterRegistry = meterRegistry;
+        this.mongoTemplate = mongoTemplate;
+        this.reportingStructureCache = reportingStructureCache;
+        this.orgVersions = orgVersions;
     }
 
     @Override
@@ -37,16 +114,14 @@ public class EmployeeServiceImpl implements EmployeeService {
         LOG.debug("Creating employee [{}]", employee);
 
         employee.setEmployeeId(UUID.randomUUID().toString());
-        employeeRepository.insert(employee);
-
-        return employee;
+        return insert(employee);
     }
 
     @Override
     public Employee read(String id) {
         LOG.debug("Retrieving employee with id [{}]", id);
 
-        Employee employee = employeeRepository.findByEmployeeId(id);
+        Employee employee = lookupCache.getEmployee(id);
 
         if (employee == null) {
             throw new RuntimeException("Invalid employeeId: " + id);
@@ -55,183 +130,667 @@ public class EmployeeServiceImpl implements EmployeeService {
         return employee;
     }
 
+    /**
+     * Replaces an employee's fields with the ones given, apart from their managerId, which only changes through their
+     * manager's direct reports. Only the fields that differ are written, as described for {@link #patch(Employee)}.
+     * An employeeId nobody has yet is created as given. As with a repository save, the employee given is left at the
+     * version written.
+     *
+     * @throws ReportingCycleException if one of the new direct reports is the employee, or already manages them
+     * @throws OptimisticLockingFailureException if a version was given and the employee has been written since
+     */
     @Override
     public Employee update(Employee employee) {
         LOG.debug("Updating employee [{}]", employee);
+        Employee updated = write(employee.getEmployeeId(), employee.getVersion(), existing -> employee);
+        if (updated == null) {
+            rejectCycles(employee.getEmployeeId(), null, employee);
+            return insert(employee);
+        }
+        employee.setVersion(updated.getVersion());
+        return updated;
+    }
 
-        return employeeRepository.save(employee);
+    /**
+     * Changes only the fields given, leaving the ones that are null as they are; an empty list of direct reports
+     * removes them all.
+     * The changed fields are set with a single write that only applies to the version it was worked out from. With a
+     * version given, an employee written since then is refused rather than overwritten; without one, the change is
+     * worked out again from the latest version.
+     *
+     * @throws RuntimeException if the employee does not exist
+     * @throws ReportingCycleException if one of the new direct reports is the employee, or already manages them
+     * @throws OptimisticLockingFailureException if a version was given and the employee has been written since
+     */
+    @Override
+    public Employee patch(Employee changes) {
+        LOG.debug("Patching employee [{}]", changes);
+        Employee patched = write(changes.getEmployeeId(), changes.getVersion(), existing -> {
+            Employee updated = new Employee();
+            updated.setEmployeeId(existing.getEmployeeId());
+            updated.setFirstName(changes.getFirstName() == null ? existing.getFirstName() : changes.getFirstName());
+            updated.setLastName(changes.getLastName() == null ? existing.getLastName() : changes.getLastName());
+            updated.setPosition(changes.getPosition() == null ? existing.getPosition() : changes.getPosition());
+            updated.setDepartment(changes.getDepartment() == null ? existing.getDepartment() : changes.getDepartment());
+            updated.setDirectReports(changes.getDirectReports() == null ? existing.getDirectReports() : changes.getDirectReports());
+            return updated;
+        });
+        if (patched == null) {
+            throw new RuntimeException("Invalid employeeId: " + changes.getEmployeeId());
+        }
+        return patched;
     }
 
+    /**
+     * Records a compensation change. Changes are only ever added, never rewritten, so the history stays queryable;
+     * one without an effective date takes effect today. A change that is already in effect is rolled up into the
+     * reporting index for everyone above the employee.
+     */
     @Override
     public Compensation createCompensation(Compensation compensation) {
         LOG.debug("Creating compensation [{}]", compensation);
-        compensationRepository.save(compensation);
-        return compensation;
+        compensation.setCompensationId(null);
+        if (compensation.getEffectiveDate() == null) {
+            compensation.setEffectiveDate(LocalDate.now());
+        }
+        Compensation created = compensationRepository.insert(compensation);
+        lookupCache.invalidateCompensation(created.getEmployeeId());
+        if (!created.getEffectiveDate().isAfter(LocalDate.now())) {
+            Compensation current = compensationRepository.findAsOf(created.getEmployeeId(), LocalDate.now());
+            reportingIndexService.onSalaryChanged(created.getEmployeeId(), current == null ? null : current.getSalary());
+        }
+        orgVersions.onCompensationWritten(created.getEmployeeId());
+        return created;
     }
 
+    /**
+     * @return the compensation in effect today
+     */
     @Override
     public Compensation readCompensation(String employeeId) {
         LOG.debug("Retrieving compensation with id [{}]", employeeId);
-        Compensation compensation = compensationRepository.findByEmployeeId(employeeId);
+        Compensation compensation = lookupCache.getCompensation(employeeId);
         if (compensation == null) {
             throw new RuntimeException("Invalid compensationId: " + employeeId);
         }
         return compensation;
     }
 
+    @Override
+    public Compensation readCompensation(String employeeId, LocalDate asOf) {
+        LOG.debug("Retrieving compensation with id [{}] as of [{}]", employeeId, asOf);
+        Compensation compensation = compensationRepository.findAsOf(employeeId, asOf);
+        if (compensation == null) {
+            throw new RuntimeException("Invalid compensationId: " + employeeId);
+        }
+        return compensation;
+    }
+
+    /**
+     * @param from first effective date to include, or null for the start of the history
+     * @param to last effective date to include, or null for the end of the history
+     * @return every change effective in the range, oldest first
+     */
+    @Override
+    public List<Compensation> readCompensationHistory(String employeeId, LocalDate from, LocalDate to) {
+        LOG.debug("Retrieving compensation history with id [{}] from [{}] to [{}]", employeeId, from, to);
+        Range<LocalDate> effectiveDates = Range.of(
+                from == null ? Range.Bound.unbounded() : Range.Bound.inclusive(from),
+                to == null ? Range.Bound.unbounded() : Range.Bound.inclusive(to));
+        return compensationRepository.findByEmployeeIdAndEffectiveDateBetween(employeeId, effectiveDates,
+                CompensationRepository.NEWEST_FIRST.ascending());
+    }
+
+    /**
+     * Records another compensation change, taking a salary it leaves out from the compensation in effect today;
+     * changes already recorded are never updated in place.
+     */
     @Override
     public Compensation updateCompensation(Compensation compensation) {
         LOG.debug("Updating compensation [{}]", compensation);
-        return compensationRepository.save(compensation);
+        if (compensation.getSalary() == null) {
+            Compensation current = compensationRepository.findAsOf(compensation.getEmployeeId(), LocalDate.now());
+            compensation.setSalary(current == null ? null : current.getSalary());
+        }
+        return createCompensation(compensation);
+    }
+
+    /**
+     * Identifies the current version of an employee from in-process counters, without reading anything; a tag
+     * handed out before an employee is read is never newer than what was read. See {@link OrgVersions}.
+     */
+    @Override
+    public String getEmployeeTag(String employeeId) {
+        return orgVersions.employeeTag(employeeId);
+    }
+
+    @Override
+    public String getReportingStructureTag(String employeeId, ReportingStructureOptions options) {
+        return orgVersions.reportingStructureTag(employeeId, options);
+    }
+
+    /**
+     * @param asOf the date the compensation is read as of, or null for today
+     */
+    @Override
+    public String getCompensationTag(String employeeId, LocalDate asOf) {
+        return orgVersions.compensationTag(employeeId, asOf);
     }
 
     /**
      * Retrieves the reporting structure for a given employee.
+     * The structure is calculated once with the configured {@code reporting.strategy}, and shared with concurrent and
+     * recent requests for it until anyone in it is written; see {@link ReportingStructureCache}. When benchmark sampling is
+     * enabled, a sampled fraction of requests also runs every other strategy over a fresh copy of the employee so
+     * their timings and results can be compared through metrics.
      *
      * @param employeeId the ID of the employee whose reporting structure is to be retrieved
      * @return the reporting structure of the specified employee
      * @throws ExecutionException if the computation threw an exception
      * @throws InterruptedException if the current thread was interrupted while waiting
      * @throws RuntimeException if the employeeId is invalid (i.e., no employee with the given ID exists)
+     * @throws ReportingCycleException if the direct reports below the employee lead back up to someone above them
      */
     @Override
     public ReportingStructure getReportingStructure(String employeeId) throws ExecutionException, InterruptedException {
+        return getReportingStructure(employeeId, ReportingStructureOptions.FULL);
+    }
+
+    private ReportingStructure traverse(String employeeId) throws ExecutionException, InterruptedException {
+        //read() throws for an unknown id, so the structure has one not-found path
         Employee currentEmployee = read(employeeId);
-        if (currentEmployee == null) {
-            throw new RuntimeException("Invalid employeeId: " + employeeId);
+
+        ReportingStructure returnVal = timeTraversal(traversals.get(reportingStrategy), currentEmployee, "primary");
+
+        if (benchmarkSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < benchmarkSampleRate) {
+            runShadowComparisons(employeeId, returnVal);
         }
 
-        ForkJoinPool customPool = new ForkJoinPool(maxWorkerThreads);
+        return returnVal;
+    }
 
-        LOG.info("Starting async Calc");
-        long asyncStartTime = System.nanoTime();
-        ReportingStructure returnVal = calculateReportStructure(new ReportingStructure.ReportingStructureBuilder()
-                .Employee(currentEmployee)
-                .NumberOfReports(0) // setting a default value of 0, calculateReportStructure will either correct this or it's already correct.
-                .build(), customPool);
-        long asyncEndTime = System.nanoTime();
+    /**
+     * Retrieves a reporting structure limited by the given options.
+     * The employee's own direct reports are paged first, then at most {@code depth} levels below them are hydrated
+     * one batched query per level, and finally the tree is projected down to the requested fields. However little of
+     * the tree is expanded, {@code numberOfReports} is the employee's full count, read from the reporting index, as is
+     * the salary rollup when {@code compensation} is asked for. A {@code flat} structure skips the hydration: everyone
+     * below the employee is listed by id and manager from a single {@code $graphLookup} projected on the server.
+     * Like the full structure, it is shared with other requests for the same employee and options.
+     *
+     * @param employeeId the ID of the employee whose reporting structure is to be retrieved
+     * @param options how much of the reporting structure to return
+     * @return the reporting structure of the specified employee, with a cursor to the next page of direct reports if
+     * there is one
+     * @throws RuntimeException if the employeeId, depth, fields, cursor or limit is invalid, or fields, cursor or
+     * limit are asked for with a flat structure
+     */
+    @Override
+    public ReportingStructure getReportingStructure(String employeeId, ReportingStructureOptions options) throws ExecutionException, InterruptedException {
+        return reportingStructureCache.get(employeeId, options, orgVersions.reportingStructureTag(employeeId, options),
+                () -> calculateReportingStructure(employeeId, options));
+    }
 
-        LOG.info("Ending async Calc");
+    private ReportingStructure calculateReportingStructure(String employeeId, ReportingStructureOptions options) throws ExecutionException, InterruptedException {
+        if (options.isFullStructure()) {
+            ReportingStructure structure = traverse(employeeId);
+            if (options.isCompensation()) {
+                structure.setCompensation(rollupCompensation(employeeId));
+            }
+            return structure;
+        }
+        if (options.getDepth() != null && options.getDepth() < 0) {
+            throw new RuntimeException("Invalid depth: " + options.getDepth());
+        }
+        if (options.getFields() != null && !PROJECTABLE_FIELDS.containsAll(options.getFields())) {
+            throw new RuntimeException("Invalid fields: " + options.getFields() + ", expected any of " + PROJECTABLE_FIELDS);
+        }
+        if (options.isFlat()) {
+            return flatReportingStructure(employeeId, options);
+        }
+
+        Employee currentEmployee = read(employeeId);
+        int numberOfReports = countReports(employeeId);
+
+        String nextCursor = pageDirectReports(currentEmployee, options.getCursor(), options.getLimit());
+        batchedReportingTraversal.expand(currentEmployee, options.getDepth() == null ? Integer.MAX_VALUE : options.getDepth());
+
+        return new ReportingStructure.ReportingStructureBuilder()
+                .Employee(options.getFields() == null ? currentEmployee : project(currentEmployee, options.getFields()))
+                .NumberOfReports(numberOfReports)
+                .NextCursor(nextCursor)
+                .Compensation(options.isCompensation() ? rollupCompensation(employeeId) : null)
+                .build();
+    }
+
+    private ReportingStructure flatReportingStructure(String employeeId, ReportingStructureOptions options) {
+        //the list has no employee documents to project or page, only ids
+        if (options.getFields() != null || options.getCursor() != null || options.getLimit() != null) {
+            throw new RuntimeException("Invalid options for a flat reporting structure: " + options);
+        }
+        Employee currentEmployee = read(employeeId);
+        List<ReportingNode> reports = graphLookupReportingTraversal.descendants(employeeId);
+        if (options.getDepth() != null) {
+            reports = reports.stream().filter(node -> node.getDepth() <= options.getDepth()).toList();
+        }
 
-        //I got on this whole thing wondering if there was actually any performance improvement over a dataset this small.
-        LOG.info("Starting sync Calc");
-        long startTime = System.nanoTime();
-        ReportingStructure testVal = calculateReportStructureSlow(new ReportingStructure.ReportingStructureBuilder()
+        return new ReportingStructure.ReportingStructureBuilder()
                 .Employee(currentEmployee)
-                .NumberOfReports(0)
-                .build());
-        long endTime = System.nanoTime();
-        LOG.info("Ending sync Calc");
-
-        long asyncElapsedTime = asyncEndTime - asyncStartTime;
-        long asyncElapsedTimeInMillis = asyncElapsedTime / 1_000_000;
-        long elapsedTime = endTime - startTime;
-        long elapsedTimeInMillis = elapsedTime / 1_000_000;
-        LOG.info("Async Elapsed Time: {}", asyncElapsedTimeInMillis);
-        LOG.info("Sync Elapsed Time: {}", elapsedTimeInMillis);
+                .NumberOfReports(countReports(employeeId))
+                .Reports(reports)
+                .Compensation(options.isCompensation() ? rollupCompensation(employeeId) : null)
+                .build();
+    }
 
-        return returnVal;
+    /**
+     * Streams the reporting structure below an employee as it is discovered, one batch at a time, instead of
+     * building it in memory first.
+     *
+     * @param employeeId the ID of the employee at the top of the stream
+     * @param depth how many levels below the employee to stream, or null for all of them
+     * @param sink receives each batch of employees, the requested employee first; it may block to slow the walk down
+     * @throws RuntimeException if the employeeId or depth is invalid, or a direct report references a missing employee
+     */
+    @Override
+    public void streamReportingStructure(String employeeId, Integer depth, Consumer<List<ReportingNode>> sink) {
+        if (depth != null && depth < 0) {
+            throw new RuntimeException("Invalid depth: " + depth);
+        }
+        Employee currentEmployee = read(employeeId);
+        LOG.debug("Streaming Report Structure for employee [{} {}]", currentEmployee.getFirstName(), currentEmployee.getLastName());
+
+        batchedReportingTraversal.walk(currentEmployee, depth == null ? Integer.MAX_VALUE : depth, sink);
     }
 
+    /**
+     * Retrieves an employee and their total number of reports without expanding the reporting structure.
+     *
+     * @param employeeId the ID of the employee whose number of reports is to be retrieved
+     * @return a reporting structure holding the employee as stored, and their total number of reports
+     * @throws RuntimeException if the employeeId is invalid (i.e., no employee with the given ID exists)
+     */
+    @Override
+    public ReportingStructure getReportingCount(String employeeId) {
+        return getReportingCount(employeeId, false);
+    }
 
     /**
-     * Calculates the reporting structure for a given employee.
-     * Calculations parallelized with a configurable worker pool to increase response time at scale
+     * Retrieves an employee and their total number of reports, and optionally the salary cost of those reports, all
+     * from the reporting index without expanding the reporting structure.
      *
-     * @param employeeReportingStructure the initial reporting structure of the employee
-     * @param customPool the ForkJoinPool used to parallelize the computation
-     * @return the complete reporting structure of the employee, including all direct and indirect reports
-     * @throws ExecutionException if the computation threw an exception
-     * @throws InterruptedException if the current thread was interrupted while waiting
+     * @param compensation whether to total and average the salaries of everyone under the employee
+     * @throws RuntimeException if the employeeId is invalid (i.e., no employee with the given ID exists)
      */
-    private ReportingStructure calculateReportStructure(ReportingStructure employeeReportingStructure, ForkJoinPool customPool) throws ExecutionException, InterruptedException {
+    @Override
+    public ReportingStructure getReportingCount(String employeeId, boolean compensation) {
+        Employee currentEmployee = read(employeeId);
 
-        Employee employee = employeeReportingStructure.getEmployee();
-        LOG.debug("*Async* Constructing Report Structure for employee [{} {}]", employee.getFirstName(), employee.getLastName());
+        return new ReportingStructure.ReportingStructureBuilder()
+                .Employee(currentEmployee)
+                .NumberOfReports(countReports(employeeId))
+                .Compensation(compensation ? rollupCompensation(employeeId) : null)
+                .build();
+    }
 
-        if (employee.getDirectReports() == null) {
-            return employeeReportingStructure;
+    /**
+     * Refuses direct reports that would make someone report to themselves: the employee, or anyone the employee
+     * already reports to, directly or not. Only reports that are being added are checked, by walking up from the
+     * employee through everyone who lists them, one query per level of the management chain above them.
+     */
+    private void rejectCycles(String employeeId, Employee before, Employee after) {
+        Set<String> added = new LinkedHashSet<>(ReportingGraphs.directReportIds(after));
+        if (before != null) {
+            added.removeAll(ReportingGraphs.directReportIds(before));
+        }
+        if (added.isEmpty() || employeeId == null) {
+            return;
+        }
+        if (added.contains(employeeId)) {
+            throw new ReportingCycleException(List.of(employeeId, employeeId));
         }
+        //each manager found maps to the employee they were found listing, so a cycle can be followed back down
+        Map<String, String> below = new HashMap<>();
+        below.put(employeeId, null);
+        List<String> level = List.of(employeeId);
+        while (!level.isEmpty()) {
+            List<String> next = new ArrayList<>();
+            for (Document manager : employees().find(new Document("directReports", new Document("$in", level)))
+                    .projection(new Document("directReports", 1))) {
+                String managerId = manager.getString("_id");
+                if (below.containsKey(managerId)) {
+                    continue;
+                }
+                List<String> reportIds = manager.getList("directReports", String.class, List.of());
+                below.put(managerId, level.stream().filter(reportIds::contains).findFirst().orElse(null));
+                if (added.contains(managerId)) {
+                    List<String> cycle = new ArrayList<>();
+                    cycle.add(employeeId);
+                    for (String id = managerId; id != null; id = below.get(id)) {
+                        cycle.add(id);
+                    }
+                    throw new ReportingCycleException(cycle);
+                }
+                next.add(managerId);
+            }
+            level = next;
+        }
+    }
 
-        int directReportCount = employee.getDirectReports().size();
-        if (directReportCount > 0) {
-            //db reads can be expensive so each is given to a worker thread to increase throughput
-            List<Employee> directReports = customPool.submit(() ->
-                employee.getDirectReports().parallelStream()
-                        .map(Employee::getEmployeeId)
-                        .map(this::read)
-                        .toList()
-            ).get();
+    private MongoCollection<Document> employees() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Employee.class));
+    }
+
+    /**
+     * Counts the reports of many employees with one shared walk instead of one traversal each.
+     * The requested employees are read with a single query, everyone below them is collected with id-only batched
+     * queries that look each employee up once however many of the requested managers share them, and the counts are
+     * then worked out in memory, reusing the count of any subtree that sits below more than one requested manager.
+     *
+     * @param employeeIds the employees to count; duplicates are answered once
+     * @param includeStructures whether to also return each employee as stored, with their direct reports as stubs
+     * @return each employee's total number of reports, in the order asked for, and their shallow structures if requested
+     * @throws RuntimeException if no ids or too many are given, or one of them does not exist
+     * @throws ReportingCycleException if the direct reports below one of the employees lead back up to them
+     */
+    @Override
+    public ReportingStructureBatch getReportingStructures(List<String> employeeIds, boolean includeStructures) {
+        if (employeeIds == null || employeeIds.isEmpty()) {
+            throw new RuntimeException("Invalid employeeIds: none given");
+        }
+        Set<String> ids = new LinkedHashSet<>(employeeIds);
+        if (ids.size() > maxRequestIds) {
+            throw new RuntimeException("Invalid employeeIds: " + ids.size() + " given, at most " + maxRequestIds + " allowed");
+        }
+        LOG.debug("Counting reports for [{}] employees", ids.size());
+
+        Map<String, Employee> employees = new HashMap<>(ids.size() * 2);
+        employeeRepository.findByEmployeeIdIn(ids).forEach(employee -> employees.put(employee.getEmployeeId(), employee));
+        for (String id : ids) {
+            if (!employees.containsKey(id)) {
+                throw new RuntimeException("Invalid employeeId: " + id);
+            }
+        }
+
+        Map<String, Integer> counts = ReportingGraphs.countReports(ids,
+                batchedReportingTraversal.directReportIds(employees.values()));
 
-            //each of the employees gathered may have their own direct reports
-            //depending on the connections between employees, the custom pool size will being to bottleneck to prevent
-            //consuming too many resources
-            List<ReportingStructure> directReportStructures = customPool.submit(() ->directReports.parallelStream()
-                    .map(leafEmployee -> new ReportingStructure.ReportingStructureBuilder()
-                            .Employee(leafEmployee)
-                            .NumberOfReports(0)
+        List<ReportingStructure> structures = null;
+        if (includeStructures) {
+            structures = ids.stream()
+                    .map(id -> new ReportingStructure.ReportingStructureBuilder()
+                            .Employee(employees.get(id))
+                            .NumberOfReports(counts.get(id))
                             .build())
-                    .map(rs -> {
-                        try {
-                            return calculateReportStructure(rs, customPool);
-                        } catch (ExecutionException | InterruptedException e) {
-                            throw new RuntimeException(e);
-                        }
-                    })
-                    .toList()
-            ).get();
+                    .toList();
+        }
+        return new ReportingStructureBatch(counts, structures);
+    }
+
+    /**
+     * The count is read from the reporting index; an employee that has not been indexed yet falls back to a
+     * traversal, or under the graph lookup strategy to an aggregation that returns only the count.
+     */
+    private int countReports(String employeeId) {
+        Integer numberOfReports = reportingIndexService.getNumberOfReports(employeeId);
+        if (numberOfReports == null) {
+            LOG.warn("Employee [{}] is missing from the reporting index, counting with a traversal", employeeId);
+            numberOfReports = reportingStrategy == ReportingStrategy.GRAPH_LOOKUP
+                    ? graphLookupReportingTraversal.countReports(employeeId)
+                    : traversals.get(reportingStrategy).calculate(read(employeeId)).getNumberOfReports();
+        }
+        return numberOfReports;
+    }
+
+    /**
+     * The rollup is read from the reporting index; an employee that has not been indexed yet falls back to an id-only
+     * walk of their subtree, with compensation fetched one level at a time.
+     */
+    private CompensationRollup rollupCompensation(String employeeId) {
+        CompensationRollup rollup = reportingIndexService.getCompensationRollup(employeeId);
+        if (rollup == null) {
+            LOG.warn("Employee [{}] is missing from the reporting index, rolling up compensation with a traversal", employeeId);
+            rollup = compensationRollups.rollup(employeeId,
+                    batchedReportingTraversal.directReportIds(List.of(read(employeeId))), LocalDate.now());
+        }
+        return rollup;
+    }
 
-            employeeReportingStructure.getEmployee()
-                    .setDirectReports(directReportStructures.stream()
-                            .map(ReportingStructure::getEmployee)
-                            .toList());
-            directReportCount += directReportStructures.stream()
-                    .map(ReportingStructure::getNumberOfReports)
-                    .mapToInt(Integer::intValue).sum();
+    /**
+     * Trims an employee's direct reports down to one page.
+     * The cursor is the opaque, url-safe encoding of the last employeeId on the previous page, so pages stay stable
+     * when reports are added after it.
+     *
+     * @return the cursor for the page after this one, or null if this is the last page or paging was not asked for
+     */
+    private String pageDirectReports(Employee employee, String cursor, Integer limit) {
+        if (cursor == null && limit == null) {
+            return null;
         }
-        employeeReportingStructure.setNumberOfReports(directReportCount);
+        int pageSize = limit == null ? defaultPageSize : limit;
+        if (pageSize <= 0) {
+            throw new RuntimeException("Invalid limit: " + limit);
+        }
+
+        List<Employee> directReports = employee.getDirectReports() == null ? List.of() : employee.getDirectReports();
+        int from = 0;
+        if (cursor != null) {
+            String after;
+            try {
+                after = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Invalid cursor: " + cursor);
+            }
+            while (from < directReports.size() && !after.equals(directReports.get(from).getEmployeeId())) {
+                from++;
+            }
+            if (from == directReports.size()) {
+                throw new RuntimeException("Invalid cursor: " + cursor);
+            }
+            from++;
+        }
+        int to = Math.min(from + pageSize, directReports.size());
 
-        return employeeReportingStructure;
+        employee.setDirectReports(new ArrayList<>(directReports.subList(from, to)));
+        if (to == directReports.size()) {
+            return null;
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(directReports.get(to - 1).getEmployeeId().getBytes(StandardCharsets.UTF_8));
     }
 
     /**
-     * Calculates the reporting structure for a given employee.
-     * Sequential stream solution for comparison's sake
+     * Copies a reporting tree keeping only {@code employeeId}, {@code directReports} and the requested fields.
+     * Walks the tree with a queue rather than recursion, since an unlimited depth can be arbitrarily deep.
+     */
+    private static Employee project(Employee root, Set<String> fields) {
+        Map<Employee, Employee> copies = new IdentityHashMap<>();
+        Deque<Employee> pending = new ArrayDeque<>();
+        Employee rootCopy = projectOne(root, fields);
+        copies.put(root, rootCopy);
+        pending.add(root);
+        while (!pending.isEmpty()) {
+            Employee original = pending.poll();
+            if (original.getDirectReports() == null) {
+                continue;
+            }
+            List<Employee> reports = new ArrayList<>(original.getDirectReports().size());
+            for (Employee report : original.getDirectReports()) {
+                Employee copy = copies.get(report);
+                if (copy == null) {
+                    copy = projectOne(report, fields);
+                    copies.put(report, copy);
+                    pending.add(report);
+                }
+                reports.add(copy);
+            }
+            copies.get(original).setDirectReports(reports);
+        }
+        return rootCopy;
+    }
+
+    /**
+     * Stores a new employee, ignoring any managerId or version they were given, and brings the reporting index and
+     * caches in line with their direct reports.
+     */
+    private Employee insert(Employee employee) {
+        employee.setManagerId(null);
+        employee.setVersion(null);
+        employeeRepository.insert(employee);
+        lookupCache.invalidateEmployee(employee.getEmployeeId());
+        reportingIndexService.onEmployeeCreated(employee);
+        invalidateReports(null, employee.getDirectReports());
+        orgGraphCache.onDirectReportsChanged(employee.getEmployeeId(), employee.getDirectReports());
+        //their direct reports now carry their managerId
+        List<String> written = new ArrayList<>(ReportingGraphs.directReportIds(employee));
+        written.add(employee.getEmployeeId());
+        orgVersions.onEmployeesWritten(written);
+
+        return employee;
+    }
+
+    /**
+     * Writes the fields {@code change} alters on the stored employee, conditionally on the version they were read at,
+     * and then brings the reporting index and caches in line with any change to the direct reports.
      *
-     * @param employeeReportingStructure the initial reporting structure of the employee
-     * @return the complete reporting structure of the employee, including all direct and indirect reports
+     * @param version the version the caller last read, or null to apply the change to whichever version is stored
+     * @return the employee as written, or null if there is no employee to change
      */
-    private ReportingStructure calculateReportStructureSlow(ReportingStructure employeeReportingStructure) {
+    private Employee write(String employeeId, Long version, UnaryOperator<Employee> change) {
+        for (int attempt = 1; ; attempt++) {
+            Employee existing = employeeRepository.findByEmployeeId(employeeId);
+            if (existing == null) {
+                return null;
+            }
+            if (version != null && !version.equals(existing.getVersion())) {
+                throw new OptimisticLockingFailureException("Employee " + employeeId + " is at version "
+                        + existing.getVersion() + ", not " + version);
+            }
+
+            Employee updated = change.apply(existing);
+            rejectCycles(employeeId, existing, updated);
+            Update update = new Update();
+            setIfChanged(update, "firstName", existing.getFirstName(), updated.getFirstName());
+            setIfChanged(update, "lastName", existing.getLastName(), updated.getLastName());
+            setIfChanged(update, "position", existing.getPosition(), updated.getPosition());
+            setIfChanged(update, "department", existing.getDepartment(), updated.getDepartment());
+            if (!ReportingGraphs.directReportIds(existing).equals(ReportingGraphs.directReportIds(updated))) {
+                setIfChanged(update, "directReports", existing.getDirectReports(), updated.getDirectReports());
+            }
+            if (update.getUpdateObject().isEmpty()) {
+                return existing;
+            }
+
+            //employees stored before versions were kept have none, which the query matches as null
+            Query query = Query.query(Criteria.where("employeeId").is(employeeId).and("version").is(existing.getVersion()));
+            Employee written = mongoTemplate.findAndModify(query, update.inc("version", 1),
+                    FindAndModifyOptions.options().returnNew(true), Employee.class);
+            if (written == null) {
+                if (version != null || attempt == WRITE_ATTEMPTS) {
+                    throw new OptimisticLockingFailureException("Employee " + employeeId + " was written by someone else since version "
+                            + existing.getVersion());
+                }
+                LOG.debug("Employee [{}] was written while being updated, retrying", employeeId);
+                continue;
+            }
+
+            lookupCache.invalidateEmployee(employeeId);
+            reportingIndexService.onDirectReportsChanged(employeeId, existing.getDirectReports(), written.getDirectReports());
+            invalidateReports(existing.getDirectReports(), written.getDirectReports());
+            orgGraphCache.onDirectReportsChanged(employeeId, written.getDirectReports());
+            //reports added or removed had their managerId moved
+            Set<String> changed = new LinkedHashSet<>(ReportingGraphs.directReportIds(existing));
+            for (String reportId : ReportingGraphs.directReportIds(written)) {
+                if (!changed.remove(reportId)) {
+                    changed.add(reportId);
+                }
+            }
+            changed.add(employeeId);
+            orgVersions.onEmployeesWritten(changed);
+            return written;
+        }
+    }
 
-        Employee employee = employeeReportingStructure.getEmployee();
-        LOG.debug("*Sync* Constructing Report Structure for employee [{} {}]", employee.getFirstName(), employee.getLastName());
+    private static void setIfChanged(Update update, String field, Object before, Object after) {
+        if (Objects.equals(before, after)) {
+            return;
+        }
+        if (after == null) {
+            update.unset(field);
+        } else {
+            update.set(field, after);
+        }
+    }
 
-        if (employee.getDirectReports() == null) {
-            return employeeReportingStructure;
+    /**
+     * Drops the cached copies of an employee's direct reports before and after a change, since the reporting index
+     * may just have moved their managerId.
+     */
+    private void invalidateReports(List<Employee> before, List<Employee> after) {
+        for (List<Employee> reports : Arrays.asList(before, after)) {
+            if (reports == null) {
+                continue;
+            }
+            reports.stream()
+                    .filter(Objects::nonNull)
+                    .map(Employee::getEmployeeId)
+                    .filter(Objects::nonNull)
+                    .forEach(lookupCache::invalidateEmployee);
         }
+    }
 
-        int directReportCount = employee.getDirectReports().size();
-        if (directReportCount > 0) {
-            List<ReportingStructure> directReportStructures = employee.getDirectReports().stream()
-                        .map(Employee::getEmployeeId)
-                        .map(this::read)
-                    .map(leafEmployee -> new ReportingStructure.ReportingStructureBuilder()
-                            .Employee(leafEmployee)
-                            .NumberOfReports(0)
-                            .build())
-                    .map(this::calculateReportStructureSlow)
-                    .toList();
+    private static Employee projectOne(Employee employee, Set<String> fields) {
+        Employee copy = new Employee();
+        copy.setEmployeeId(employee.getEmployeeId());
+        if (fields.contains("firstName")) {
+            copy.setFirstName(employee.getFirstName());
+        }
+        if (fields.contains("lastName")) {
+            copy.setLastName(employee.getLastName());
+        }
+        if (fields.contains("position")) {
+            copy.setPosition(employee.getPosition());
+        }
+        if (fields.contains("department")) {
+            copy.setDepartment(employee.getDepartment());
+        }
+        if (fields.contains("managerId")) {
+            copy.setManagerId(employee.getManagerId());
+        }
+        return copy;
+    }
 
-            employeeReportingStructure.getEmployee()
-                    .setDirectReports(directReportStructures.stream()
-                            .map(ReportingStructure::getEmployee)
-                            .toList());
-            directReportCount += directReportStructures.stream()
-                    .map(ReportingStructure::getNumberOfReports)
-                    .mapToInt(Integer::intValue).sum();
+    /**
+     * Runs every non-primary strategy against the same employee and records whether it agreed with the primary.
+     * Shadow failures are logged and counted but never surface to the caller.
+     */
+    private void runShadowComparisons(String employeeId, ReportingStructure primary) {
+        for (ReportingTraversal shadow : traversals.values()) {
+            if (shadow.getStrategy() == reportingStrategy) {
+                continue;
+            }
+            try {
+                ReportingStructure shadowVal = timeTraversal(shadow, read(employeeId), "shadow");
+                if (shadowVal.getNumberOfReports() != primary.getNumberOfReports()) {
+                    LOG.warn("Shadow strategy [{}] counted [{}] reports for [{}], primary [{}] counted [{}]",
+                            shadow.getStrategy(), shadowVal.getNumberOfReports(), employeeId,
+                            reportingStrategy, primary.getNumberOfReports());
+                    meterRegistry.counter("reporting.structure.shadow.mismatches",
+                            "strategy", shadow.getStrategy().name().toLowerCase()).increment();
+                }
+            } catch (RuntimeException e) {
+                LOG.warn("Shadow strategy [{}] failed for [{}]", shadow.getStrategy(), employeeId, e);
+                meterRegistry.counter("reporting.structure.shadow.failures",
+                        "strategy", shadow.getStrategy().name().toLowerCase()).increment();
+            }
         }
-        employeeReportingStructure.setNumberOfReports(directReportCount);
+    }
 
-        return employeeReportingStructure;
+    private ReportingStructure timeTraversal(ReportingTraversal traversal, Employee root, String role) {
+        return Timer.builder("reporting.structure.traversal")
+                .description("Time taken to calculate a reporting structure")
+                .tag("strategy", traversal.getStrategy().name().toLowerCase())
+                .tag("role", role)
+                .register(meterRegistry)
+                .record(() -> traversal.calculate(root));
     }
 }
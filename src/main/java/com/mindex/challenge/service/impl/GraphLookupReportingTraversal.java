@@ -0,0 +1,298 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingNode;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.service.ReportingStrategy;
+import com.mindex.challenge.service.ReportingTraversal;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Calculates reporting structures with a single {@code $graphLookup} aggregation, letting the database follow the
+ * employeeIds stored in {@code directReports} instead of the application asking for one level at a time.
+ * The lookup follows at most {@code reporting.graph-lookup.max-depth} levels. A structure that does not fit is
+ * recognised by the reports it leaves unfetched and handed to the batched traversal rather than cut short.
+ * MongoDB visits every employee once, but the embedded mongo-java-server follows every path and numbers its depths
+ * differently, so duplicates are dropped and depths are worked out here from the reports that came back.
+ * Besides full structures it can return just the count, or a flat list of descendants projected on the server.
+ */
+@Component
+public class GraphLookupReportingTraversal implements ReportingTraversal {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GraphLookupReportingTraversal.class);
+
+    private static final String DIRECT_REPORTS = "directReports";
+    private static final String REPORTS = "reports";
+    private static final String DEPTH = "depth";
+
+    private final MongoTemplate mongoTemplate;
+    private final BatchedReportingTraversal batchedReportingTraversal;
+    private final TraversalMetrics traversalMetrics;
+
+    private final int maxDepth;
+
+    public GraphLookupReportingTraversal(MongoTemplate mongoTemplate, BatchedReportingTraversal batchedReportingTraversal,
+                                         TraversalMetrics traversalMetrics,
+                                         @Value("${reporting.graph-lookup.max-depth}") int maxDepth) {
+        //$graphLookup is sent maxDepth - 1 and rejects anything negative, so fail at startup rather than on first use
+        if (maxDepth < 1) {
+            throw new IllegalStateException("reporting.graph-lookup.max-depth must be at least 1, was " + maxDepth);
+        }
+        this.mongoTemplate = mongoTemplate;
+        this.batchedReportingTraversal = batchedReportingTraversal;
+        this.traversalMetrics = traversalMetrics;
+        this.maxDepth = maxDepth;
+    }
+
+    @Override
+    public ReportingStrategy getStrategy() {
+        return ReportingStrategy.GRAPH_LOOKUP;
+    }
+
+    @Override
+    public ReportingStructure calculate(Employee root) {
+        LOG.debug("*GraphLookup* Constructing Report Structure for employee [{} {}]", root.getFirstName(), root.getLastName());
+        Map<String, Document> found = lookup(root.getEmployeeId(), null);
+        Map<String, List<String>> directReportIds = new HashMap<>(found.size() * 2);
+        found.forEach((id, document) -> directReportIds.put(id, reportIdsOf(document)));
+
+        //a cycle among the levels that came back is a cycle however deep the rest goes
+        int numberOfReports = ReportingGraphs.countReports(root.getEmployeeId(), directReportIds);
+        Set<String> unfetched = new LinkedHashSet<>();
+        List<ReportingNode> nodes = walk(root.getEmployeeId(), found, unfetched);
+        if (cutShort(unfetched)) {
+            LOG.debug("*GraphLookup* Employee [{}] has more than [{}] levels of reports, expanding with batched queries",
+                    root.getEmployeeId(), maxDepth);
+            return batchedReportingTraversal.calculate(root);
+        }
+
+        Map<String, Employee> hydrated = new HashMap<>(found.size() * 2);
+        hydrated.put(root.getEmployeeId(), root);
+        for (ReportingNode node : nodes) {
+            hydrated.put(node.getEmployeeId(), mongoTemplate.getConverter().read(Employee.class, found.get(node.getEmployeeId())));
+        }
+        //the database hands back each report's own directReports; point them at the single hydrated instance
+        hydrated.values().forEach(employee -> link(employee, directReportIds.get(employee.getEmployeeId()), hydrated));
+        traversalMetrics.record(getStrategy(), numberOfReports, depthOf(nodes), 1);
+
+        return new ReportingStructure.ReportingStructureBuilder()
+                .Employee(root)
+                .NumberOfReports(numberOfReports)
+                .build();
+    }
+
+    /**
+     * Counts everyone below an employee without bringing any of them back: the aggregation projects the number of
+     * distinct ids it found and how deep it went, and nothing else.
+     * Unlike {@link #calculate(Employee)} the count neither detects reporting cycles nor checks that every direct
+     * report exists; the database simply stops at employees it has already seen or cannot find. Without the ids it
+     * cannot tell a structure that ends on the deepest level it may reach from one that goes on, so either is counted
+     * again with batched queries that fetch only ids.
+     *
+     * @param employeeId the employee to count reports for
+     * @return the number of distinct employees below them
+     * @throws RuntimeException if the employee does not exist
+     */
+    public int countReports(String employeeId) {
+        List<Document> pipeline = List.of(
+                match(employeeId),
+                graphLookup(),
+                new Document("$project", new Document("_id", 0)
+                        .append("numberOfReports", new Document("$size", new Document("$setUnion", List.of("$" + REPORTS + "._id"))))
+                        .append(DEPTH, new Document("$max", "$" + REPORTS + "." + DEPTH))));
+        Document result = collection().aggregate(pipeline).first();
+        if (result == null) {
+            throw new RuntimeException("Invalid employeeId: " + employeeId);
+        }
+        //the lookup numbers the direct reports 0 and goes no deeper than maxDepth - 1, so reports on that level may have
+        //reports of their own it never fetched. mongo-java-server numbers its levels 1, 3, 5, ... but stops on the same
+        //bound, so the check holds there too as long as maxDepth - 1 is odd, as the tests configure it
+        Number deepest = result.get(DEPTH, Number.class);
+        if (deepest != null && deepest.intValue() >= maxDepth - 1) {
+            LOG.debug("*GraphLookup* Employee [{}] may have more than [{}] levels of reports, counting with batched queries",
+                    employeeId, maxDepth);
+            return ReportingGraphs.countReports(employeeId, batchedReportingTraversal.directReportIds(List.of(root(employeeId))));
+        }
+        return result.get("numberOfReports", Number.class).intValue();
+    }
+
+    /**
+     * Lists everyone below an employee as {@link ReportingNode}s, level by level, with only their ids and the ids of
+     * their direct reports projected out of the aggregation. An employee under several managers appears once, under
+     * the first manager on the shallowest level that lists them. Levels beyond {@code reporting.graph-lookup.max-depth}
+     * are listed with batched queries that fetch only ids.
+     *
+     * @param employeeId the employee to list reports for
+     * @return the flattened reporting structure, without the employee themselves
+     * @throws RuntimeException if the employee does not exist or a direct report references an employeeId that does
+     * not exist
+     */
+    public List<ReportingNode> descendants(String employeeId) {
+        //mapped rather than projected with dotted paths, which mongo-java-server does not apply inside arrays, and
+        //defaulted since it cannot send back a field that is missing
+        Document projection = new Document(DIRECT_REPORTS, 1)
+                .append(REPORTS, new Document("$map", new Document("input", "$" + REPORTS)
+                        .append("as", "report")
+                        .append("in", new Document("_id", "$$report._id")
+                                .append(DIRECT_REPORTS, new Document("$ifNull", List.of("$$report." + DIRECT_REPORTS, List.of()))))));
+        Set<String> unfetched = new LinkedHashSet<>();
+        List<ReportingNode> nodes = walk(employeeId, lookup(employeeId, projection), unfetched);
+        if (cutShort(unfetched)) {
+            LOG.debug("*GraphLookup* Employee [{}] has more than [{}] levels of reports, listing with batched queries",
+                    employeeId, maxDepth);
+            return batchedDescendants(root(employeeId));
+        }
+        return nodes;
+    }
+
+    /**
+     * Lists the reports below an employee with the batched walk, which emits an employee under every manager that
+     * lists them; only the first, on the shallowest level, is kept.
+     */
+    private List<ReportingNode> batchedDescendants(Employee root) {
+        Map<String, ReportingNode> nodes = new LinkedHashMap<>();
+        batchedReportingTraversal.walk(root, Integer.MAX_VALUE,
+                batch -> batch.forEach(node -> nodes.putIfAbsent(node.getEmployeeId(), node)));
+        nodes.remove(root.getEmployeeId());
+        return new ArrayList<>(nodes.values());
+    }
+
+    private Employee root(String employeeId) {
+        Employee root = mongoTemplate.findById(employeeId, Employee.class);
+        if (root == null) {
+            throw new RuntimeException("Invalid employeeId: " + employeeId);
+        }
+        return root;
+    }
+
+    /**
+     * Runs the lookup for one employee and returns the employee and every distinct document found below them, keyed
+     * by employeeId.
+     */
+    private Map<String, Document> lookup(String employeeId, Document projection) {
+        List<Document> pipeline = new ArrayList<>(3);
+        pipeline.add(match(employeeId));
+        pipeline.add(graphLookup());
+        if (projection != null) {
+            pipeline.add(new Document("$project", projection));
+        }
+        Document root = collection().aggregate(pipeline).first();
+        if (root == null) {
+            throw new RuntimeException("Invalid employeeId: " + employeeId);
+        }
+
+        List<Document> reports = root.getList(REPORTS, Document.class, List.of());
+        root.remove(REPORTS);
+        Map<String, Document> found = new LinkedHashMap<>(reports.size() * 2);
+        found.put(employeeId, root);
+        reports.forEach(report -> found.putIfAbsent(report.getString("_id"), report));
+        return found;
+    }
+
+    /**
+     * Walks the documents that came back level by level from the root, collecting the reports that were listed but
+     * not fetched into {@code unfetched}.
+     */
+    private static List<ReportingNode> walk(String rootId, Map<String, Document> found, Set<String> unfetched) {
+        List<ReportingNode> nodes = new ArrayList<>(found.size());
+        Set<String> seen = new HashSet<>(found.size() * 2);
+        seen.add(rootId);
+        List<ReportingNode> level = List.of(new ReportingNode(rootId, null, 0));
+        while (!level.isEmpty()) {
+            List<ReportingNode> next = new ArrayList<>();
+            for (ReportingNode manager : level) {
+                for (String report : reportIdsOf(found.get(manager.getEmployeeId()))) {
+                    if (!found.containsKey(report)) {
+                        unfetched.add(report);
+                    } else if (seen.add(report)) {
+                        next.add(new ReportingNode(report, manager.getEmployeeId(), manager.getDepth() + 1));
+                    }
+                }
+            }
+            nodes.addAll(next);
+            level = next;
+        }
+        return nodes;
+    }
+
+    /**
+     * Tells reports the lookup stopped short of apart from ones that do not exist.
+     *
+     * @return whether any of the unfetched reports exist, so the lookup ran into {@code reporting.graph-lookup.max-depth}
+     * @throws RuntimeException if one of them does not exist
+     */
+    private boolean cutShort(Set<String> unfetched) {
+        if (unfetched.isEmpty()) {
+            return false;
+        }
+        Query query = Query.query(Criteria.where("employeeId").in(unfetched));
+        query.fields().include("employeeId");
+        Set<String> existing = new HashSet<>();
+        mongoTemplate.find(query, Employee.class).forEach(employee -> existing.add(employee.getEmployeeId()));
+        for (String id : unfetched) {
+            if (!existing.contains(id)) {
+                throw new RuntimeException("Invalid employeeId: " + id);
+            }
+        }
+        return true;
+    }
+
+    private Document match(String employeeId) {
+        return new Document("$match", new Document("_id", employeeId));
+    }
+
+    private Document graphLookup() {
+        return new Document("$graphLookup", new Document("from", mongoTemplate.getCollectionName(Employee.class))
+                .append("startWith", "$" + DIRECT_REPORTS)
+                .append("connectFromField", DIRECT_REPORTS)
+                .append("connectToField", "_id")
+                .append("as", REPORTS)
+                //$graphLookup counts the direct reports as depth 0
+                .append("maxDepth", maxDepth - 1)
+                .append("depthField", DEPTH));
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Employee.class));
+    }
+
+    private static int depthOf(List<ReportingNode> nodes) {
+        return nodes.isEmpty() ? 0 : nodes.get(nodes.size() - 1).getDepth();
+    }
+
+    private static List<String> reportIdsOf(Document document) {
+        return document.getList(DIRECT_REPORTS, String.class, List.of());
+    }
+
+    private static void link(Employee employee, List<String> reportIds, Map<String, Employee> hydrated) {
+        if (reportIds.isEmpty()) {
+            return;
+        }
+        List<Employee> directReports = new ArrayList<>(reportIds.size());
+        for (String reportId : reportIds) {
+            Employee report = hydrated.get(reportId);
+            if (report == null) {
+                throw new RuntimeException("Invalid employeeId: " + reportId);
+            }
+            directReports.add(report);
+        }
+        employee.setDirectReports(directReports);
+    }
+}
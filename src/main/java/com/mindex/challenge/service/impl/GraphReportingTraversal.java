@@ -0,0 +1,115 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.service.ReportingCycleException;
+import com.mindex.challenge.service.ReportingStrategy;
+import com.mindex.challenge.service.ReportingTraversal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Calculates reporting structures from the cached {@link OrgGraph}.
+ * The shape of the subtree and the count come entirely from memory; the database is only asked for the employee
+ * documents themselves, all of them at once in chunks of {@code reporting.batch.size}, rather than level by level.
+ * An employee the graph does not know about is handed to the batched traversal.
+ * Employees listed under several managers are counted and hydrated once, and a reporting cycle is refused up front.
+ */
+@Component
+public class GraphReportingTraversal implements ReportingTraversal {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GraphReportingTraversal.class);
+
+    private final OrgGraphCache orgGraphCache;
+    private final EmployeeRepository employeeRepository;
+    private final BatchedReportingTraversal batchedReportingTraversal;
+    private final TraversalMetrics traversalMetrics;
+
+    @Value("${reporting.batch.size}")
+    private int batchSize;
+
+    public GraphReportingTraversal(OrgGraphCache orgGraphCache, EmployeeRepository employeeRepository,
+                                   BatchedReportingTraversal batchedReportingTraversal, TraversalMetrics traversalMetrics) {
+        this.orgGraphCache = orgGraphCache;
+        this.employeeRepository = employeeRepository;
+        this.batchedReportingTraversal = batchedReportingTraversal;
+        this.traversalMetrics = traversalMetrics;
+    }
+
+    @Override
+    public ReportingStrategy getStrategy() {
+        return ReportingStrategy.GRAPH;
+    }
+
+    @Override
+    public ReportingStructure calculate(Employee root) {
+        OrgGraphCache.Lookup lookup = orgGraphCache.lookup(root.getEmployeeId());
+        if (lookup == null) {
+            LOG.debug("*Graph* Employee [{}] not in the org graph, expanding with batched queries", root.getEmployeeId());
+            return batchedReportingTraversal.calculate(root);
+        }
+        OrgGraph graph = lookup.graph();
+        LOG.debug("*Graph* Constructing Report Structure for employee [{} {}]", root.getFirstName(), root.getLastName());
+
+        //the walk below visits everyone once regardless, but a cycle would make the linked result endless
+        int[] cycle = graph.findCycle(lookup.node());
+        if (cycle != null) {
+            throw new ReportingCycleException(Arrays.stream(cycle).mapToObj(graph::idOf).toList());
+        }
+
+        List<String> descendantIds = new ArrayList<>();
+        List<int[]> levels = graph.levels(lookup.node(), Integer.MAX_VALUE);
+        for (int[] level : levels) {
+            for (int node : level) {
+                descendantIds.add(graph.idOf(node));
+            }
+        }
+
+        Map<String, Employee> hydrated = new HashMap<>(descendantIds.size() * 2);
+        hydrated.put(root.getEmployeeId(), root);
+        int dbCalls = 0;
+        for (int from = 0; from < descendantIds.size(); from += batchSize, dbCalls++) {
+            employeeRepository.findByEmployeeIdIn(descendantIds.subList(from, Math.min(from + batchSize, descendantIds.size())))
+                    .forEach(employee -> hydrated.put(employee.getEmployeeId(), employee));
+        }
+
+        link(graph, lookup.node(), root, hydrated);
+        for (String id : descendantIds) {
+            link(graph, graph.indexOf(id), hydrated.get(id), hydrated);
+        }
+        traversalMetrics.record(getStrategy(), descendantIds.size(), levels.size(), dbCalls);
+
+        return new ReportingStructure.ReportingStructureBuilder()
+                .Employee(root)
+                .NumberOfReports(descendantIds.size())
+                .build();
+    }
+
+    private static void link(OrgGraph graph, int node, Employee employee, Map<String, Employee> hydrated) {
+        if (employee == null) {
+            throw new RuntimeException("Invalid employeeId: " + graph.idOf(node));
+        }
+        int[] reports = graph.directReports(node);
+        if (reports.length == 0) {
+            return;
+        }
+        List<Employee> directReports = new ArrayList<>(reports.length);
+        for (int report : reports) {
+            Employee child = hydrated.get(graph.idOf(report));
+            if (child == null) {
+                throw new RuntimeException("Invalid employeeId: " + graph.idOf(report));
+            }
+            directReports.add(child);
+        }
+        employee.setDirectReports(directReports);
+    }
+}
@@ -0,0 +1,68 @@
+package com.mindex.challenge.service.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads records one at a time from either a JSON array or newline-delimited JSON, so large inputs never have to be
+ * held in memory whole.
+ * <p>
+ * Each record is read as a tree before it is bound, so a record with the wrong shape fails on its own with a
+ * {@link JsonMappingException} and the next call carries on with the record after it. Malformed JSON cannot be
+ * resynchronised and fails the rest of the read with a plain {@link IOException}.
+ */
+public class JsonRecordReader<T> implements Closeable {
+
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+    private final Class<T> type;
+    private final boolean array;
+
+    private JsonToken first;
+    private int index = -1;
+
+    public JsonRecordReader(ObjectMapper objectMapper, InputStream in, Class<T> type) throws IOException {
+        this.objectMapper = objectMapper;
+        this.parser = objectMapper.getFactory().createParser(in);
+        this.type = type;
+
+        JsonToken token = parser.nextToken();
+        this.array = token == JsonToken.START_ARRAY;
+        this.first = array ? null : token;
+    }
+
+    /**
+     * @return the next record, or null once the input is exhausted
+     * @throws JsonMappingException if this record could not be bound; the reader can still be used
+     * @throws IOException if the input is not valid JSON; the reader cannot be used any further
+     */
+    public T next() throws IOException {
+        JsonToken token = first != null ? first : parser.nextToken();
+        first = null;
+        if (token == null || (array && token == JsonToken.END_ARRAY)) {
+            return null;
+        }
+        index++;
+        JsonNode record = parser.readValueAsTree();
+        return objectMapper.treeToValue(record, type);
+    }
+
+    /**
+     * @return the zero-based position of the record last returned or rejected by {@link #next()}
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
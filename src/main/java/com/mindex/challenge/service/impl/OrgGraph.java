@@ -0,0 +1,467 @@
+package com.mindex.challenge.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of who reports to whom, stored without any {@code Employee} objects.
+ * <p>
+ * Every employeeId is interned to a dense int once, looked up through an open-addressing table of ints, and the
+ * direct reports of node {@code n} are {@code children[childOffsets[n] .. childOffsets[n + 1])} (compressed sparse
+ * row layout), with the managers of each node kept the same way in reverse. Beyond the id strings themselves that is
+ * roughly 4 ints per employee plus two per reporting line, so a million-employee org fits in a few tens of megabytes.
+ * <p>
+ * Changes produce a new snapshot via {@link #withDirectReports(String, List)}, so readers never need to lock. A new
+ * snapshot shares the arrays of the last compacted one and only carries an overlay of the nodes whose reports or
+ * managers changed since, plus any employees it had not seen. Copying that overlay costs its size and compacting it
+ * back into the arrays costs the whole graph, so it is compacted once it reaches about the square root of the graph's
+ * size, which keeps both at O(sqrt N) per change instead of rebuilding everything each time.
+ */
+public final class OrgGraph {
+
+    private static final int NONE = -1;
+    private static final int MIN_OVERLAY = 64;
+
+    private final String[] ids;
+    private final int[] table;
+    private final int[] childOffsets;
+    private final int[] children;
+    private final int[] managerOffsets;
+    private final int[] managers;
+
+    //changes since the arrays above were built; patched nodes are looked up here first
+    private final String[] addedIds;
+    private final Map<String, Integer> addedIndex;
+    private final Map<Integer, int[]> patchedReports;
+    private final Map<Integer, int[]> patchedManagers;
+
+    private OrgGraph(String[] ids, int[] childOffsets, int[] children) {
+        this.addedIds = new String[0];
+        this.addedIndex = Map.of();
+        this.patchedReports = Map.of();
+        this.patchedManagers = Map.of();
+        this.ids = ids;
+        this.childOffsets = childOffsets;
+        this.children = children;
+        this.table = buildTable(ids);
+        //managers are filled in node order, so each node's first manager is the first node that lists it
+        this.managerOffsets = new int[ids.length + 1];
+        for (int child : children) {
+            managerOffsets[child + 1]++;
+        }
+        for (int node = 0; node < ids.length; node++) {
+            managerOffsets[node + 1] += managerOffsets[node];
+        }
+        this.managers = new int[children.length];
+        int[] filled = Arrays.copyOf(managerOffsets, ids.length);
+        for (int node = 0; node < ids.length; node++) {
+            for (int i = childOffsets[node]; i < childOffsets[node + 1]; i++) {
+                managers[filled[children[i]]++] = node;
+            }
+        }
+    }
+
+    private OrgGraph(OrgGraph base, String[] addedIds, Map<String, Integer> addedIndex,
+                     Map<Integer, int[]> patchedReports, Map<Integer, int[]> patchedManagers) {
+        this.ids = base.ids;
+        this.table = base.table;
+        this.childOffsets = base.childOffsets;
+        this.children = base.children;
+        this.managerOffsets = base.managerOffsets;
+        this.managers = base.managers;
+        this.addedIds = addedIds;
+        this.addedIndex = addedIndex;
+        this.patchedReports = patchedReports;
+        this.patchedManagers = patchedManagers;
+    }
+
+    public int size() {
+        return ids.length + addedIds.length;
+    }
+
+    /**
+     * @return the node for an employeeId, or -1 if the graph has never seen it
+     */
+    public int indexOf(String employeeId) {
+        int mask = table.length - 1;
+        for (int slot = employeeId.hashCode() & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == 0) {
+                Integer added = addedIndex.get(employeeId);
+                return added == null ? NONE : added;
+            }
+            if (ids[entry - 1].equals(employeeId)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    public String idOf(int node) {
+        return node < ids.length ? ids[node] : addedIds[node - ids.length];
+    }
+
+    public int[] directReports(int node) {
+        return Arrays.copyOfRange(reportsArray(node), reportsFrom(node), reportsTo(node));
+    }
+
+    /**
+     * @return the manager a node was first listed under, or -1 for the top of the org
+     */
+    public int managerOf(int node) {
+        return managersFrom(node) == managersTo(node) ? NONE : managersArray(node)[managersFrom(node)];
+    }
+
+    /**
+     * Walks up from a node through every manager that lists it, visiting each employee once, so a reporting cycle
+     * ends the walk instead of looping.
+     *
+     * @return everyone the node reports to, directly or not, nearest first
+     */
+    public int[] above(int node) {
+        BitSet seen = new BitSet(size());
+        seen.set(node);
+        int[] queue = new int[16];
+        int size = 0;
+        int head = 0;
+        int current = node;
+        while (true) {
+            int[] listedBy = managersArray(current);
+            for (int i = managersFrom(current), end = managersTo(current); i < end; i++) {
+                int manager = listedBy[i];
+                if (!seen.get(manager)) {
+                    seen.set(manager);
+                    if (size == queue.length) {
+                        queue = Arrays.copyOf(queue, size * 2);
+                    }
+                    queue[size++] = manager;
+                }
+            }
+            if (head == size) {
+                return Arrays.copyOf(queue, size);
+            }
+            current = queue[head++];
+        }
+    }
+
+    /**
+     * Counts the distinct employees under a node. Each employee is counted once however many managers list them,
+     * and a reporting cycle ends the walk instead of looping.
+     */
+    public int countReports(int node) {
+        int count = 0;
+        for (int[] level : levels(node, Integer.MAX_VALUE)) {
+            count += level.length;
+        }
+        return count;
+    }
+
+    /**
+     * Walks the org below a node breadth first, visiting each employee once.
+     *
+     * @param node the employee at the top of the walk, not included in the result
+     * @param maxDepth how many levels below the node to return
+     * @return every level below the node, nearest first
+     */
+    public List<int[]> levels(int node, int maxDepth) {
+        List<int[]> levels = new ArrayList<>();
+        BitSet visited = new BitSet(size());
+        visited.set(node);
+        int[] frontier = {node};
+        for (int depth = 0; depth < maxDepth && frontier.length > 0; depth++) {
+            int[] next = new int[16];
+            int size = 0;
+            for (int parent : frontier) {
+                int[] reports = reportsArray(parent);
+                for (int i = reportsFrom(parent), end = reportsTo(parent); i < end; i++) {
+                    int child = reports[i];
+                    if (!visited.get(child)) {
+                        visited.set(child);
+                        if (size == next.length) {
+                            next = Arrays.copyOf(next, size * 2);
+                        }
+                        next[size++] = child;
+                    }
+                }
+            }
+            if (size == 0) {
+                break;
+            }
+            frontier = Arrays.copyOf(next, size);
+            levels.add(frontier);
+        }
+        return levels;
+    }
+
+    /**
+     * Looks for a reporting cycle below a node with a three-color depth-first walk.
+     *
+     * @return the nodes around the first cycle found, starting and ending with the same node, or null if there is none
+     */
+    public int[] findCycle(int node) {
+        byte[] colors = new byte[size()];
+        int[] path = new int[16];
+        int[] next = new int[16];
+        int top = 0;
+        path[0] = node;
+        next[0] = reportsFrom(node);
+        colors[node] = 1;
+        while (top >= 0) {
+            int current = path[top];
+            if (next[top] == reportsTo(current)) {
+                colors[current] = 2;
+                top--;
+                continue;
+            }
+            int child = reportsArray(current)[next[top]++];
+            if (colors[child] == 1) {
+                int from = top;
+                while (path[from] != child) {
+                    from--;
+                }
+                int[] cycle = Arrays.copyOfRange(path, from, top + 2);
+                cycle[cycle.length - 1] = child;
+                return cycle;
+            }
+            if (colors[child] == 0) {
+                colors[child] = 1;
+                if (++top == path.length) {
+                    path = Arrays.copyOf(path, top * 2);
+                    next = Arrays.copyOf(next, top * 2);
+                }
+                path[top] = child;
+                next[top] = reportsFrom(child);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return a new snapshot in which {@code employeeId} has exactly {@code directReportIds} as direct reports
+     */
+    public OrgGraph withDirectReports(String employeeId, List<String> directReportIds) {
+        Map<String, Integer> added = new LinkedHashMap<>();
+        int node = internInto(employeeId, added);
+        int[] replacement = new int[directReportIds.size()];
+        for (int i = 0; i < replacement.length; i++) {
+            replacement[i] = internInto(directReportIds.get(i), added);
+        }
+
+        String[] newAddedIds = Arrays.copyOf(addedIds, addedIds.length + added.size());
+        added.forEach((id, index) -> newAddedIds[index - ids.length] = id);
+        Map<String, Integer> newAddedIndex = new HashMap<>(addedIndex);
+        newAddedIndex.putAll(added);
+
+        Map<Integer, int[]> newPatchedManagers = new HashMap<>(patchedManagers);
+        int[] previous = directReports(node);
+        for (int report : previous) {
+            if (!contains(replacement, report)) {
+                newPatchedManagers.put(report, without(managersOf(report, newPatchedManagers), node));
+            }
+        }
+        for (int report : replacement) {
+            if (!contains(previous, report)) {
+                newPatchedManagers.put(report, withSorted(managersOf(report, newPatchedManagers), node));
+            }
+        }
+        Map<Integer, int[]> newPatchedReports = new HashMap<>(patchedReports);
+        newPatchedReports.put(node, replacement);
+
+        OrgGraph patched = new OrgGraph(this, newAddedIds, newAddedIndex, newPatchedReports, newPatchedManagers);
+        int overlay = newAddedIds.length + newPatchedReports.size() + newPatchedManagers.size();
+        return overlay > Math.max(MIN_OVERLAY, (int) Math.sqrt(ids.length)) ? patched.compact() : patched;
+    }
+
+    /**
+     * @return the same graph with its overlay folded back into freshly built arrays
+     */
+    OrgGraph compact() {
+        int size = size();
+        String[] allIds = Arrays.copyOf(ids, size);
+        System.arraycopy(addedIds, 0, allIds, ids.length, addedIds.length);
+        int[] offsets = new int[size + 1];
+        for (int node = 0; node < size; node++) {
+            offsets[node + 1] = offsets[node] + reportsTo(node) - reportsFrom(node);
+        }
+        int[] allChildren = new int[offsets[size]];
+        for (int node = 0; node < size; node++) {
+            System.arraycopy(reportsArray(node), reportsFrom(node), allChildren, offsets[node], offsets[node + 1] - offsets[node]);
+        }
+        return new OrgGraph(allIds, offsets, allChildren);
+    }
+
+    /**
+     * Rough retained size of the snapshot: the arrays plus the id strings, assuming compressed oops and
+     * single-byte strings.
+     */
+    public long estimatedBytes() {
+        long bytes = 16L + 4L * ids.length;
+        for (String id : ids) {
+            bytes += 24 + 16 + id.length();
+        }
+        bytes += 16L + 4L * table.length;
+        bytes += 16L + 4L * childOffsets.length;
+        bytes += 16L + 4L * children.length;
+        bytes += 16L + 4L * managerOffsets.length;
+        bytes += 16L + 4L * managers.length;
+        for (String id : addedIds) {
+            bytes += 4 + 24 + 16 + id.length() + 48;
+        }
+        for (int[] reports : patchedReports.values()) {
+            bytes += 48 + 16 + 4L * reports.length;
+        }
+        for (int[] listedBy : patchedManagers.values()) {
+            bytes += 48 + 16 + 4L * listedBy.length;
+        }
+        return bytes;
+    }
+
+    private int internInto(String id, Map<String, Integer> added) {
+        int existing = indexOf(id);
+        if (existing != NONE) {
+            return existing;
+        }
+        return added.computeIfAbsent(id, missing -> size() + added.size());
+    }
+
+    //a node's direct reports are reportsArray(node)[reportsFrom(node) .. reportsTo(node)), patched or not
+    private int[] reportsArray(int node) {
+        int[] patched = patchedReports.get(node);
+        return patched == null ? children : patched;
+    }
+
+    private int reportsFrom(int node) {
+        return node >= ids.length || patchedReports.containsKey(node) ? 0 : childOffsets[node];
+    }
+
+    private int reportsTo(int node) {
+        int[] patched = patchedReports.get(node);
+        if (patched != null) {
+            return patched.length;
+        }
+        return node >= ids.length ? 0 : childOffsets[node + 1];
+    }
+
+    //and the managers listing it the same way, kept in node order so the first is the first node that lists it
+    private int[] managersArray(int node) {
+        int[] patched = patchedManagers.get(node);
+        return patched == null ? managers : patched;
+    }
+
+    private int managersFrom(int node) {
+        return node >= ids.length || patchedManagers.containsKey(node) ? 0 : managerOffsets[node];
+    }
+
+    private int managersTo(int node) {
+        int[] patched = patchedManagers.get(node);
+        if (patched != null) {
+            return patched.length;
+        }
+        return node >= ids.length ? 0 : managerOffsets[node + 1];
+    }
+
+    private int[] managersOf(int node, Map<Integer, int[]> patched) {
+        int[] listedBy = patched.get(node);
+        if (listedBy != null) {
+            return listedBy;
+        }
+        return node >= ids.length ? new int[0] : Arrays.copyOfRange(managers, managerOffsets[node], managerOffsets[node + 1]);
+    }
+
+    private static boolean contains(int[] nodes, int node) {
+        for (int candidate : nodes) {
+            if (candidate == node) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] without(int[] nodes, int node) {
+        int[] kept = new int[nodes.length];
+        int size = 0;
+        for (int candidate : nodes) {
+            if (candidate != node) {
+                kept[size++] = candidate;
+            }
+        }
+        return Arrays.copyOf(kept, size);
+    }
+
+    private static int[] withSorted(int[] nodes, int node) {
+        int at = Arrays.binarySearch(nodes, node);
+        if (at >= 0) {
+            return nodes;
+        }
+        at = -at - 1;
+        int[] grown = new int[nodes.length + 1];
+        System.arraycopy(nodes, 0, grown, 0, at);
+        grown[at] = node;
+        System.arraycopy(nodes, at, grown, at + 1, nodes.length - at);
+        return grown;
+    }
+
+    private static int[] buildTable(String[] ids) {
+        //keep the load factor at or below one half so probes stay short
+        int capacity = Integer.highestOneBit(Math.max(4, ids.length * 2 - 1)) << 1;
+        int[] table = new int[capacity];
+        int mask = capacity - 1;
+        for (int node = 0; node < ids.length; node++) {
+            int slot = ids[node].hashCode() & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = node + 1;
+        }
+        return table;
+    }
+
+    /**
+     * Collects adjacency lists by employeeId and compacts them into a snapshot.
+     */
+    public static class Builder {
+        private final Map<String, Integer> interned = new LinkedHashMap<>();
+        private final List<int[]> adjacency = new ArrayList<>();
+        private int edges;
+
+        public Builder add(String employeeId, List<String> directReportIds) {
+            int node = intern(employeeId);
+            int[] reports = new int[directReportIds.size()];
+            for (int i = 0; i < reports.length; i++) {
+                reports[i] = intern(directReportIds.get(i));
+            }
+            edges += reports.length - adjacency.get(node).length;
+            adjacency.set(node, reports);
+            return this;
+        }
+
+        public OrgGraph build() {
+            String[] ids = interned.keySet().toArray(String[]::new);
+            int[] offsets = new int[ids.length + 1];
+            int[] children = new int[edges];
+            int written = 0;
+            for (int node = 0; node < ids.length; node++) {
+                offsets[node] = written;
+                int[] reports = adjacency.get(node);
+                System.arraycopy(reports, 0, children, written, reports.length);
+                written += reports.length;
+            }
+            offsets[ids.length] = written;
+            return new OrgGraph(ids, offsets, children);
+        }
+
+        private int intern(String id) {
+            Integer node = interned.get(id);
+            if (node == null) {
+                node = interned.size();
+                interned.put(id, node);
+                adjacency.add(new int[0]);
+            }
+            return node;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.Employee;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * In-process cache of the whole org as an {@link OrgGraph}.
+ * The graph is built lazily from a projection of the employee collection that only carries ids, and is then patched
+ * rather than rebuilt as {@code EmployeeServiceImpl} writes org changes. Anything that writes employees around the
+ * service, like the bootstrap loader, should {@link #invalidate()} it instead.
+ */
+@Component
+public class OrgGraphCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OrgGraphCache.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final Counter hits;
+    private final Counter misses;
+
+    private volatile OrgGraph graph;
+
+    public OrgGraphCache(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.hits = Counter.builder("org.graph.cache.requests").tag("result", "hit")
+                .description("Org graph lookups served from the cached graph")
+                .register(meterRegistry);
+        this.misses = Counter.builder("org.graph.cache.requests").tag("result", "miss")
+                .description("Org graph lookups that had to build the graph, or asked for an employee it did not have")
+                .register(meterRegistry);
+        Gauge.builder("org.graph.cache.nodes", this, cache -> cache.graph == null ? 0 : cache.graph.size())
+                .description("Employees held in the cached org graph")
+                .register(meterRegistry);
+        Gauge.builder("org.graph.cache.size", this, cache -> cache.graph == null ? 0 : cache.graph.estimatedBytes())
+                .description("Estimated heap held by the cached org graph")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the current snapshot and the node for {@code employeeId} in it, or null when the employee is unknown
+     */
+    public Lookup lookup(String employeeId) {
+        OrgGraph current = graph;
+        if (current == null) {
+            misses.increment();
+            current = load();
+        }
+        int node = current.indexOf(employeeId);
+        if (node < 0) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return new Lookup(current, node);
+    }
+
+    /**
+     * @return the current snapshot, or null when it has not been loaded; unlike {@link #lookup} this never loads it
+     */
+    public OrgGraph loaded() {
+        return graph;
+    }
+
+    public synchronized void onDirectReportsChanged(String employeeId, List<Employee> directReports) {
+        OrgGraph current = graph;
+        if (current == null) {
+            return;
+        }
+        List<String> ids = directReports == null ? List.of() : directReports.stream()
+                .filter(Objects::nonNull)
+                .map(Employee::getEmployeeId)
+                .filter(Objects::nonNull)
+                .toList();
+        graph = current.withDirectReports(employeeId, ids);
+    }
+
+    public void invalidate() {
+        LOG.debug("Invalidating cached org graph");
+        graph = null;
+    }
+
+    private synchronized OrgGraph load() {
+        if (graph != null) {
+            return graph;
+        }
+        long start = System.nanoTime();
+
+        Query query = new Query();
+        query.fields().include("employeeId").include("directReports");
+        OrgGraph.Builder builder = new OrgGraph.Builder();
+        try (Stream<Employee> employees = mongoTemplate.stream(query, Employee.class)) {
+            employees.forEach(employee -> builder.add(employee.getEmployeeId(),
+                    employee.getDirectReports() == null ? List.of() : employee.getDirectReports().stream()
+                            .map(Employee::getEmployeeId)
+                            .filter(Objects::nonNull)
+                            .toList()));
+        }
+        graph = builder.build();
+
+        LOG.info("Loaded org graph of [{}] employees (~[{}] bytes) in [{}ms]",
+                graph.size(), graph.estimatedBytes(), (System.nanoTime() - start) / 1_000_000);
+        return graph;
+    }
+
+    public record Lookup(OrgGraph graph, int node) {}
+}
@@ -0,0 +1,185 @@
+package com.mindex.challenge.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructureOptions;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process version counters behind the ETags of employees, their compensation and their reporting structures, so
+ * a client's copy can be recognised as current without reading anything from mongo.
+ * <p>
+ * Each employee has three counters that only ever go up: one for their own document, including the managerId their
+ * manager's writes set; one for their compensation history; and one for their subtree, which moves whenever any of
+ * them changes for the employee or anyone below them. A write bumps the subtree of the employee and of everyone above
+ * them, through every manager that lists them, as they stand after the write. The managers are read off the cached org
+ * graph when it is already loaded, and otherwise off the indexed {@code directReports} field one query per level, so
+ * a write never loads the whole org under strategies that do not need it.
+ * Writes through {@code EmployeeServiceImpl} report what they changed once they are done, so a tag is never newer
+ * than what it is handed out with as long as it is taken before reading. Anything that writes around the service,
+ * like the bootstrap loader or bulk import, should {@link #invalidateAll()}, which moves every tag on at once.
+ * <p>
+ * Counters are only kept for the {@code cache.versions.max-size} employees of each kind written most recently. Every
+ * write takes the next value of one clock shared by all counters, and an evicted counter raises the value every
+ * employee without one reads as to its own, so an employee never goes back to a tag handed out before their last
+ * write; employees that have not been written just move on with it and miss a 304. Every tag also names the process
+ * that issued it, so a tag from before a restart or from another instance never matches.
+ */
+@Component
+public class OrgVersions {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OrgVersions.class);
+
+    private final OrgGraphCache orgGraphCache;
+    private final MongoTemplate mongoTemplate;
+    private final int batchSize;
+    private final String instance = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    private final AtomicLong epoch = new AtomicLong();
+    private final AtomicLong clock = new AtomicLong();
+    private final Versions employees;
+    private final Versions compensations;
+    private final Versions subtrees;
+
+    public OrgVersions(OrgGraphCache orgGraphCache, MongoTemplate mongoTemplate,
+                       @Value("${reporting.batch.size}") int batchSize, @Value("${cache.versions.max-size}") long maxSize) {
+        this.orgGraphCache = orgGraphCache;
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = batchSize;
+        this.employees = new Versions(maxSize);
+        this.compensations = new Versions(maxSize);
+        this.subtrees = new Versions(maxSize);
+    }
+
+    public String employeeTag(String employeeId) {
+        return tag(employees, employeeId);
+    }
+
+    /**
+     * @param asOf the date the compensation is read as of, or null for today; a change dated in the future takes
+     * effect without a write, so the date is part of the tag
+     */
+    public String compensationTag(String employeeId, LocalDate asOf) {
+        return tag(compensations, employeeId) + "-" + (asOf == null ? LocalDate.now() : asOf);
+    }
+
+    /**
+     * Also the version reporting structures are shared under; see {@link ReportingStructureCache}.
+     */
+    public String reportingStructureTag(String employeeId, ReportingStructureOptions options) {
+        //salary rollups count the changes in effect today
+        return tag(subtrees, employeeId) + (options.isCompensation() ? "-" + LocalDate.now() : "");
+    }
+
+    /**
+     * @param employeeIds every employee whose document was written, including reports whose managerId moved
+     */
+    public void onEmployeesWritten(Collection<String> employeeIds) {
+        employeeIds.forEach(employeeId -> employees.bump(employeeId, clock.incrementAndGet()));
+        bumpSubtrees(employeeIds);
+    }
+
+    public void onCompensationWritten(String employeeId) {
+        compensations.bump(employeeId, clock.incrementAndGet());
+        bumpSubtrees(Set.of(employeeId));
+    }
+
+    public void invalidateAll() {
+        LOG.debug("Moving every employee version on to epoch [{}]", epoch.incrementAndGet());
+    }
+
+    private void bumpSubtrees(Collection<String> employeeIds) {
+        Set<String> written = new LinkedHashSet<>(employeeIds);
+        written.forEach(employeeId -> subtrees.bump(employeeId, clock.incrementAndGet()));
+        managersAbove(written).forEach(managerId -> subtrees.bump(managerId, clock.incrementAndGet()));
+    }
+
+    /**
+     * @return every distinct employee above the given ones, not including the employees themselves
+     */
+    private Set<String> managersAbove(Set<String> employeeIds) {
+        Set<String> above = new LinkedHashSet<>();
+        OrgGraph graph = orgGraphCache.loaded();
+        if (graph != null) {
+            for (String employeeId : employeeIds) {
+                int node = graph.indexOf(employeeId);
+                if (node < 0) {
+                    continue;
+                }
+                for (int manager : graph.above(node)) {
+                    String managerId = graph.idOf(manager);
+                    if (!employeeIds.contains(managerId)) {
+                        above.add(managerId);
+                    }
+                }
+            }
+            return above;
+        }
+
+        //the same walk up the directReports index as the reporting index's own, one query per level
+        Set<String> seen = new HashSet<>(employeeIds);
+        List<String> level = new ArrayList<>(employeeIds);
+        while (!level.isEmpty()) {
+            List<String> next = new ArrayList<>();
+            for (int from = 0; from < level.size(); from += batchSize) {
+                List<String> batch = level.subList(from, Math.min(from + batchSize, level.size()));
+                for (Document manager : mongoTemplate.getCollection(mongoTemplate.getCollectionName(Employee.class))
+                        .find(new Document("directReports", new Document("$in", batch)))
+                        .projection(new Document("_id", 1))) {
+                    String managerId = manager.getString("_id");
+                    if (seen.add(managerId)) {
+                        above.add(managerId);
+                        next.add(managerId);
+                    }
+                }
+            }
+            level = next;
+        }
+        return above;
+    }
+
+    private String tag(Versions versions, String employeeId) {
+        return instance + "-" + epoch.get() + "-" + versions.get(employeeId);
+    }
+
+    /**
+     * One kind of counter, by employeeId, with the floor that employees without one read as.
+     */
+    private static final class Versions {
+        private final AtomicLong floor = new AtomicLong();
+        private final Cache<String, Long> versions;
+
+        Versions(long maxSize) {
+            //runs as part of the eviction, so nobody reads the floor from before it once the counter is gone
+            this.versions = Caffeine.newBuilder()
+                    .maximumSize(maxSize)
+                    .evictionListener((String employeeId, Long version, RemovalCause cause) -> floor.accumulateAndGet(version, Math::max))
+                    .build();
+        }
+
+        long get(String employeeId) {
+            Long version = versions.getIfPresent(employeeId);
+            return version == null ? floor.get() : version;
+        }
+
+        void bump(String employeeId, long version) {
+            versions.put(employeeId, version);
+        }
+    }
+}
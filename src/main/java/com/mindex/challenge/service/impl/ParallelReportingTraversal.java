@@ -0,0 +1,128 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.service.ReportingStrategy;
+import com.mindex.challenge.service.ReportingTraversal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class ParallelReportingTraversal implements ReportingTraversal {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelReportingTraversal.class);
+
+    private final EmployeeRepository employeeRepository;
+    private final TraversalExecutor traversalExecutor;
+    private final TraversalMetrics traversalMetrics;
+
+    public ParallelReportingTraversal(EmployeeRepository employeeRepository, TraversalExecutor traversalExecutor,
+                                      TraversalMetrics traversalMetrics) {
+        this.employeeRepository = employeeRepository;
+        this.traversalExecutor = traversalExecutor;
+        this.traversalMetrics = traversalMetrics;
+    }
+
+    @Override
+    public ReportingStrategy getStrategy() {
+        return ReportingStrategy.PARALLEL;
+    }
+
+    /**
+     * Calculates the reporting structure for a given employee.
+     * The only blocking wait is here, on the calling thread; the workers themselves never wait on each other.
+     */
+    @Override
+    public ReportingStructure calculate(Employee root) {
+        Map<String, CompletableFuture<Employee>> reads = new ConcurrentHashMap<>();
+        Map<String, List<String>> directReportIds = new ConcurrentHashMap<>();
+        reads.put(root.getEmployeeId(), CompletableFuture.completedFuture(root));
+        try {
+            hydrate(root, reads, directReportIds).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+
+        int numberOfReports = ReportingGraphs.countReports(root.getEmployeeId(), directReportIds);
+        //one read per distinct employee below the root
+        traversalMetrics.record(getStrategy(), numberOfReports, TraversalMetrics.depthOf(root), reads.size() - 1);
+        return new ReportingStructure.ReportingStructureBuilder()
+                .Employee(root)
+                .NumberOfReports(numberOfReports)
+                .build();
+    }
+
+    /**
+     * Hydrates the direct reports of a given employee, and theirs in turn.
+     * Calculations parallelized over the shared traversal executor to increase response time at scale: every
+     * direct report is read on a worker, and its own subtree is chained onto that read rather than waited for.
+     * <p>
+     * Each employee is read by whichever manager reaches them first, which then also expands them. Any other manager
+     * listing them, including one further down a cycle, only waits for that read and links the same instance, never
+     * for the expansion, so shared reports are fetched once and a cycle cannot leave futures waiting on each other.
+     *
+     * @param employee the employee whose direct reports should be expanded
+     * @param reads the read of every employee reached so far in this request, by employeeId
+     * @param directReportIds the direct report ids of every employee expanded so far
+     * @return a future completing once the employee's subtree, as far as this branch owns it, is hydrated
+     */
+    private CompletableFuture<Void> hydrate(Employee employee, Map<String, CompletableFuture<Employee>> reads,
+                                            Map<String, List<String>> directReportIds) {
+        LOG.debug("*Async* Constructing Report Structure for employee [{} {}]", employee.getFirstName(), employee.getLastName());
+
+        List<String> reportIds = ReportingGraphs.directReportIds(employee);
+        directReportIds.put(employee.getEmployeeId(), reportIds);
+        if (employee.getDirectReports() == null || reportIds.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        //db reads can be expensive so each is given to a worker thread to increase throughput,
+        //and each of the employees gathered may have their own direct reports
+        List<CompletableFuture<Employee>> reports = new ArrayList<>(reportIds.size());
+        List<CompletableFuture<Void>> subtrees = new ArrayList<>(reportIds.size());
+        for (String id : reportIds) {
+            CompletableFuture<Employee> claim = new CompletableFuture<>();
+            CompletableFuture<Employee> existing = reads.putIfAbsent(id, claim);
+            if (existing != null) {
+                reports.add(existing);
+                continue;
+            }
+            traversalExecutor.supplyAsync(() -> read(id)).whenComplete((report, failure) -> {
+                if (failure != null) {
+                    claim.completeExceptionally(failure);
+                } else {
+                    claim.complete(report);
+                }
+            });
+            reports.add(claim);
+            subtrees.add(claim.thenCompose(report -> hydrate(report, reads, directReportIds)));
+        }
+
+        CompletableFuture<Void> linked = CompletableFuture.allOf(reports.toArray(CompletableFuture[]::new))
+                .thenRun(() -> employee.setDirectReports(reports.stream()
+                        .map(CompletableFuture::join)
+                        .toList()));
+        subtrees.add(linked);
+        return CompletableFuture.allOf(subtrees.toArray(CompletableFuture[]::new));
+    }
+
+    private Employee read(String id) {
+        Employee employee = employeeRepository.findByEmployeeId(id);
+        if (employee == null) {
+            throw new RuntimeException("Invalid employeeId: " + id);
+        }
+        return employee;
+    }
+}
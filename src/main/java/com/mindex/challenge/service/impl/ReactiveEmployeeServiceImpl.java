@@ -0,0 +1,189 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.dao.reactive.ReactiveCompensationRepository;
+import com.mindex.challenge.dao.reactive.ReactiveEmployeeRepository;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.service.EmployeeService;
+import com.mindex.challenge.service.ReactiveEmployeeService;
+import com.mindex.challenge.service.ReportingIndexService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Non-blocking counterpart of {@link EmployeeServiceImpl}, enabled with {@code reactive.enabled=true}.
+ * <p>
+ * Reads go through the reactive repositories and never hold a thread while mongo works. A reporting structure is
+ * expanded with {@link Flux#expand} one org level at a time, each level fetched in {@code $in} chunks of
+ * {@code reporting.batch.size} ids with at most {@code reactive.traversal.concurrency} chunks in flight, and each
+ * employee fetched once however many managers list them.
+ * <p>
+ * Writes are handed to {@link EmployeeService} on the bounded elastic scheduler, so the reporting index, the org
+ * graph, the lookup cache and cycle checks stay maintained in one place.
+ */
+@Service
+@ConditionalOnProperty(name = "reactive.enabled", havingValue = "true")
+public class ReactiveEmployeeServiceImpl implements ReactiveEmployeeService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReactiveEmployeeServiceImpl.class);
+
+    private final ReactiveEmployeeRepository employeeRepository;
+    private final ReactiveCompensationRepository compensationRepository;
+    private final EmployeeService employeeService;
+    private final ReportingIndexService reportingIndexService;
+
+    @Value("${reporting.batch.size}")
+    private int batchSize;
+
+    @Value("${reactive.traversal.concurrency}")
+    private int concurrency;
+
+    public ReactiveEmployeeServiceImpl(ReactiveEmployeeRepository employeeRepository,
+                                       ReactiveCompensationRepository compensationRepository,
+                                       EmployeeService employeeService, ReportingIndexService reportingIndexService) {
+        this.employeeRepository = employeeRepository;
+        this.compensationRepository = compensationRepository;
+        this.employeeService = employeeService;
+        this.reportingIndexService = reportingIndexService;
+    }
+
+    @Override
+    public Mono<Employee> create(Employee employee) {
+        return blocking(() -> employeeService.create(employee));
+    }
+
+    @Override
+    public Mono<Employee> read(String id) {
+        LOG.debug("Retrieving employee with id [{}]", id);
+
+        return employeeRepository.findByEmployeeId(id)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Invalid employeeId: " + id)));
+    }
+
+    @Override
+    public Mono<Employee> update(Employee employee) {
+        return blocking(() -> employeeService.update(employee));
+    }
+
+    /**
+     * Retrieves the fully hydrated reporting structure for a given employee.
+     *
+     * @throws RuntimeException if the employeeId is invalid, or a direct report references a missing employee
+     * @throws com.mindex.challenge.service.ReportingCycleException if the direct reports lead back up to someone above
+     */
+    @Override
+    public Mono<ReportingStructure> getReportingStructure(String employeeId) {
+        return read(employeeId).flatMap(root -> {
+            LOG.debug("*Reactive* Constructing Report Structure for employee [{} {}]", root.getFirstName(), root.getLastName());
+            Map<String, Employee> hydrated = new HashMap<>();
+            Map<String, List<String>> directReportIds = new HashMap<>();
+            hydrated.put(root.getEmployeeId(), root);
+
+            //levels are expanded one after another, so the maps are only ever touched by one level's callback at a time
+            return Flux.just(List.of(root))
+                    .expand(level -> nextLevel(level, hydrated, directReportIds))
+                    .then(Mono.fromCallable(() -> {
+                        for (Map.Entry<String, List<String>> entry : directReportIds.entrySet()) {
+                            Employee manager = hydrated.get(entry.getKey());
+                            if (manager.getDirectReports() != null) {
+                                manager.setDirectReports(entry.getValue().stream().map(hydrated::get).toList());
+                            }
+                        }
+                        return new ReportingStructure.ReportingStructureBuilder()
+                                .Employee(root)
+                                .NumberOfReports(ReportingGraphs.countReports(root.getEmployeeId(), directReportIds))
+                                .build();
+                    }));
+        });
+    }
+
+    @Override
+    public Mono<ReportingStructure> getReportingCount(String employeeId) {
+        //the index is a single keyed read; it stays on the blocking repository rather than growing a second one
+        return read(employeeId).zipWith(blocking(() -> reportingIndexService.getNumberOfReports(employeeId))
+                        .defaultIfEmpty(-1))
+                .flatMap(found -> found.getT2() >= 0
+                        ? Mono.just(new ReportingStructure.ReportingStructureBuilder()
+                                .Employee(found.getT1())
+                                .NumberOfReports(found.getT2())
+                                .build())
+                        : getReportingStructure(employeeId).map(structure -> new ReportingStructure.ReportingStructureBuilder()
+                                .Employee(found.getT1())
+                                .NumberOfReports(structure.getNumberOfReports())
+                                .build()));
+    }
+
+    @Override
+    public Mono<Compensation> createCompensation(Compensation compensation) {
+        return blocking(() -> employeeService.createCompensation(compensation));
+    }
+
+    @Override
+    public Mono<Compensation> readCompensation(String employeeId) {
+        LOG.debug("Retrieving compensation with id [{}]", employeeId);
+
+        return compensationRepository.findAsOf(employeeId, LocalDate.now())
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Invalid compensationId: " + employeeId)));
+    }
+
+    @Override
+    public Mono<Compensation> updateCompensation(Compensation compensation) {
+        return blocking(() -> employeeService.updateCompensation(compensation));
+    }
+
+    /**
+     * Fetches the employees the given level lists as direct reports and has not seen yet.
+     *
+     * @return the next level, or nothing once no one new turns up
+     */
+    private Flux<List<Employee>> nextLevel(List<Employee> level, Map<String, Employee> hydrated,
+                                           Map<String, List<String>> directReportIds) {
+        Set<String> childIds = new LinkedHashSet<>();
+        for (Employee manager : level) {
+            List<String> reportIds = ReportingGraphs.directReportIds(manager);
+            directReportIds.put(manager.getEmployeeId(), reportIds);
+            reportIds.stream().filter(id -> !hydrated.containsKey(id)).forEach(childIds::add);
+        }
+        if (childIds.isEmpty()) {
+            return Flux.empty();
+        }
+
+        List<String> ids = new ArrayList<>(childIds);
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            chunks.add(ids.subList(from, Math.min(from + batchSize, ids.size())));
+        }
+        return Flux.fromIterable(chunks)
+                .flatMap(employeeRepository::findByEmployeeIdIn, concurrency)
+                .collectList()
+                .flatMapMany(found -> {
+                    found.forEach(employee -> hydrated.put(employee.getEmployeeId(), employee));
+                    for (String id : ids) {
+                        if (!hydrated.containsKey(id)) {
+                            return Flux.error(new RuntimeException("Invalid employeeId: " + id));
+                        }
+                    }
+                    return Flux.just(found);
+                });
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+}
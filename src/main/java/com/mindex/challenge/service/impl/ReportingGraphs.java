@@ -0,0 +1,165 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.ReportingCycleException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Helpers shared by the traversals that fetch a reporting structure employee by employee.
+ * Each of them records which direct reports they expanded for whom, fetching every employee once even when several
+ * managers list them, and hands that adjacency here to be counted and checked for cycles.
+ */
+final class ReportingGraphs {
+
+    private static final int IN_PROGRESS = 1;
+    private static final int DONE = 2;
+
+    private ReportingGraphs() {}
+
+    /**
+     * Counts the distinct employees reachable from the root through the expanded direct reports, with a three-color
+     * depth-first walk that fails on the first edge back to an employee still in progress. Employees that were not
+     * expanded, e.g. below a depth limit, are counted but not walked.
+     *
+     * @param rootId the employee at the top, not counted
+     * @param directReportIds the direct report ids of every expanded employee
+     * @return how many distinct employees report to the root, directly or not
+     * @throws ReportingCycleException if the root reaches an employee that reaches back to itself
+     */
+    static int countReports(String rootId, Map<String, List<String>> directReportIds) {
+        Map<String, Integer> colors = new HashMap<>(directReportIds.size() * 2);
+        Deque<String> path = new ArrayDeque<>();
+        Deque<Iterator<String>> pending = new ArrayDeque<>();
+        colors.put(rootId, IN_PROGRESS);
+        path.push(rootId);
+        pending.push(directReportIds.getOrDefault(rootId, List.of()).iterator());
+
+        while (!pending.isEmpty()) {
+            Iterator<String> reports = pending.peek();
+            if (!reports.hasNext()) {
+                colors.put(path.pop(), DONE);
+                pending.pop();
+                continue;
+            }
+            String report = reports.next();
+            Integer color = colors.get(report);
+            if (color == null) {
+                colors.put(report, IN_PROGRESS);
+                path.push(report);
+                pending.push(directReportIds.getOrDefault(report, List.of()).iterator());
+            } else if (color == IN_PROGRESS) {
+                throw new ReportingCycleException(cycle(path, report));
+            }
+        }
+        return colors.size() - 1;
+    }
+
+    /**
+     * Counts the distinct reports of several employees over one shared adjacency.
+     * When nobody in it has more than one manager the subtrees are disjoint, so each is summed once, bottom up, and
+     * reused by every requested employee above it. Otherwise each employee is counted on their own.
+     *
+     * @param rootIds the employees to count, in the order the counts should be returned
+     * @param directReportIds the direct report ids of every expanded employee
+     * @return how many distinct employees report to each of the roots, directly or not
+     * @throws ReportingCycleException if a root reaches an employee that reaches back to itself
+     */
+    static Map<String, Integer> countReports(Collection<String> rootIds, Map<String, List<String>> directReportIds) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        if (!isForest(directReportIds)) {
+            rootIds.forEach(rootId -> counts.put(rootId, countReports(rootId, directReportIds)));
+            return counts;
+        }
+
+        Map<String, Integer> subtrees = new HashMap<>(directReportIds.size() * 2);
+        Set<String> inProgress = new HashSet<>();
+        Deque<String> path = new ArrayDeque<>();
+        Deque<Iterator<String>> pending = new ArrayDeque<>();
+        for (String rootId : rootIds) {
+            if (!subtrees.containsKey(rootId)) {
+                inProgress.add(rootId);
+                path.push(rootId);
+                pending.push(directReportIds.getOrDefault(rootId, List.of()).iterator());
+            }
+            while (!pending.isEmpty()) {
+                Iterator<String> reports = pending.peek();
+                if (!reports.hasNext()) {
+                    String id = path.pop();
+                    pending.pop();
+                    inProgress.remove(id);
+                    int count = 0;
+                    for (String report : directReportIds.getOrDefault(id, List.of())) {
+                        count += 1 + subtrees.get(report);
+                    }
+                    subtrees.put(id, count);
+                    continue;
+                }
+                String report = reports.next();
+                if (subtrees.containsKey(report)) {
+                    continue;
+                }
+                if (inProgress.contains(report)) {
+                    throw new ReportingCycleException(cycle(path, report));
+                }
+                inProgress.add(report);
+                path.push(report);
+                pending.push(directReportIds.getOrDefault(report, List.of()).iterator());
+            }
+            counts.put(rootId, subtrees.get(rootId));
+        }
+        return counts;
+    }
+
+    /**
+     * @return the employeeIds an employee lists as direct reports, in order, without blanks
+     */
+    static List<String> directReportIds(Employee employee) {
+        if (employee.getDirectReports() == null) {
+            return List.of();
+        }
+        List<String> ids = new ArrayList<>(employee.getDirectReports().size());
+        for (Employee report : employee.getDirectReports()) {
+            if (report != null && report.getEmployeeId() != null) {
+                ids.add(report.getEmployeeId());
+            }
+        }
+        return ids;
+    }
+
+    private static boolean isForest(Map<String, List<String>> directReportIds) {
+        Set<String> managed = new HashSet<>();
+        for (List<String> reports : directReportIds.values()) {
+            for (String report : reports) {
+                if (!managed.add(report)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static List<String> cycle(Deque<String> path, String repeated) {
+        List<String> cycle = new ArrayList<>();
+        Iterator<String> fromTop = path.descendingIterator();
+        while (fromTop.hasNext()) {
+            String id = fromTop.next();
+            if (!cycle.isEmpty() || Objects.equals(id, repeated)) {
+                cycle.add(id);
+            }
+        }
+        cycle.add(repeated);
+        return cycle;
+    }
+}
@@ -0,0 +1,655 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.dao.ReportingIndexRepository;
+import com.mindex.challenge.data.CompensationRollup;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingIndexEntry;
+import com.mindex.challenge.data.ReportingIndexStatus;
+import com.mindex.challenge.service.ReportingIndexService;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Maintains the transitive report count and salary rollup of every employee in the {@code reportingIndex} collection.
+ * <p>
+ * Like the traversals, an employee listed by several managers is counted once under each employee above them.
+ * A change to one employee's direct reports is applied as a single {@code $inc} of the added and removed subtree
+ * sizes and salaries on that employee and on every distinct employee above them, through every manager that lists
+ * them, as found with the index on the employees' {@code directReports}. That is exact as long as nobody in the moved
+ * subtrees is also listed by a manager outside them, so every entry keeps how many managers list its employee; when a
+ * moved subtree holds anyone listed more than once, the employee and everyone above them are recounted from their
+ * subtrees instead. A salary change is the same {@code $inc} of the difference on everyone above the employee, which
+ * is exact however they are shared. Salaries are the ones in effect when they were written, so a change dated in the
+ * future only shows up here after a {@link #rebuild()} once it has taken effect. {@link #check()} reports any drift,
+ * and {@link #rebuild()} recomputes everything from the employee collection.
+ * <p>
+ * One of the managers listing each employee is also copied onto the employee document as {@code managerId}, where it
+ * is indexed for "who reports to X" queries. Copying it leaves the employee's version alone, since it is not something
+ * a client edits.
+ */
+@Service
+public class ReportingIndexServiceImpl implements ReportingIndexService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReportingIndexServiceImpl.class);
+    private static final int MISMATCH_SAMPLE_SIZE = 100;
+    private static final String DIRECT_REPORTS = "directReports";
+
+    private final ReportingIndexRepository reportingIndexRepository;
+    private final MongoTemplate mongoTemplate;
+    private final CompensationRollups compensationRollups;
+    private final OrgVersions orgVersions;
+
+    @Value("${reporting.batch.size}")
+    private int batchSize;
+
+    public ReportingIndexServiceImpl(ReportingIndexRepository reportingIndexRepository, MongoTemplate mongoTemplate,
+                                     CompensationRollups compensationRollups,
+                                     OrgVersions orgVersions) {
+        this.reportingIndexRepository = reportingIndexRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.compensationRollups = compensationRollups;
+        this.orgVersions = orgVersions;
+    }
+
+    @Override
+    public Integer getNumberOfReports(String employeeId) {
+        ReportingIndexEntry entry = reportingIndexRepository.findByEmployeeId(employeeId);
+        return entry == null ? null : entry.getNumberOfReports();
+    }
+
+    @Override
+    public CompensationRollup getCompensationRollup(String employeeId) {
+        ReportingIndexEntry entry = reportingIndexRepository.findByEmployeeId(employeeId);
+        return entry == null ? null : new CompensationRollup(entry.getReportsSalary(), entry.getCompensatedReports());
+    }
+
+    @Override
+    public synchronized void onEmployeeCreated(Employee employee) {
+        LOG.debug("Indexing new employee [{}]", employee.getEmployeeId());
+
+        reportingIndexRepository.save(new ReportingIndexEntry(employee.getEmployeeId(), null, 0));
+        onDirectReportsChanged(employee.getEmployeeId(), null, employee.getDirectReports());
+    }
+
+    /**
+     * Applies a change to one employee's direct reports, once the employee has been written.
+     * Removed reports take their subtree away from this employee and everyone above them, and added reports bring
+     * theirs. A report who is, or was, also listed by another manager keeps that manager's count as it is.
+     */
+    @Override
+    public synchronized void onDirectReportsChanged(String employeeId, List<Employee> before, List<Employee> after) {
+        Set<String> beforeIds = ids(before);
+        Set<String> afterIds = ids(after);
+        afterIds.remove(employeeId);
+
+        Set<String> removed = new LinkedHashSet<>(beforeIds);
+        removed.removeAll(afterIds);
+        Set<String> added = new LinkedHashSet<>(afterIds);
+        added.removeAll(beforeIds);
+        if (removed.isEmpty() && added.isEmpty()) {
+            return;
+        }
+        LOG.debug("Reindexing [{}]: [{}] reports removed, [{}] added", employeeId, removed.size(), added.size());
+
+        Set<String> touched = new HashSet<>(removed);
+        touched.addAll(added);
+        Map<String, ReportingIndexEntry> entries = new HashMap<>();
+        reportingIndexRepository.findByEmployeeIdIn(touched).forEach(e -> entries.put(e.getEmployeeId(), e));
+
+        //whether a moved report is listed by someone else as well, before the removal or after the addition
+        boolean shared = false;
+        Subtree delta = Subtree.EMPTY;
+        List<ReportingIndexEntry> changed = new ArrayList<>();
+        Map<String, String> movedManagers = new HashMap<>();
+        for (String id : removed) {
+            ReportingIndexEntry entry = entries.get(id);
+            if (entry == null) {
+                continue;
+            }
+            shared |= entry.getManagers() > 1;
+            entry.setManagers(Math.max(0, entry.getManagers() - 1));
+            if (employeeId.equals(entry.getManagerId())) {
+                entry.setManagerId(anyManagerOf(id));
+                movedManagers.put(id, entry.getManagerId());
+            }
+            changed.add(entry);
+            delta = delta.minus(Subtree.of(entry));
+        }
+        for (String id : added) {
+            ReportingIndexEntry entry = entries.computeIfAbsent(id, missing -> new ReportingIndexEntry(missing, null, 0));
+            entry.setManagers(entry.getManagers() + 1);
+            shared |= entry.getManagers() > 1;
+            if (entry.getManagerId() == null) {
+                entry.setManagerId(employeeId);
+                movedManagers.put(id, employeeId);
+            }
+            changed.add(entry);
+            delta = delta.plus(Subtree.of(entry));
+        }
+
+        reportingIndexRepository.saveAll(changed);
+        storeManagers(movedManagers);
+        if (shared || sharesAnyoneBelow(touched)) {
+            LOG.debug("Reports moved under [{}] are shared with other managers, recounting everyone above", employeeId);
+            recount(employeeId);
+        } else {
+            adjustManagementChain(employeeId, delta);
+        }
+    }
+
+    /**
+     * Records the salary now in effect for an employee, and moves everyone above them by the difference.
+     *
+     * @param salary the employee's salary, or null if they have none
+     */
+    @Override
+    public synchronized void onSalaryChanged(String employeeId, BigDecimal salary) {
+        ReportingIndexEntry entry = reportingIndexRepository.findByEmployeeId(employeeId);
+        if (entry == null) {
+            LOG.warn("Employee [{}] is missing from the reporting index, not rolling up their salary", employeeId);
+            return;
+        }
+        BigDecimal before = entry.getSalary();
+        if (before == null ? salary == null : salary != null && before.compareTo(salary) == 0) {
+            return;
+        }
+        LOG.debug("Rolling up salary change for [{}]", employeeId);
+
+        mongoTemplate.updateFirst(Query.query(Criteria.where("employeeId").is(employeeId)),
+                salary == null ? new Update().unset("salary") : new Update().set("salary", new Decimal128(salary)),
+                ReportingIndexEntry.class);
+        Subtree delta = new Subtree(0,
+                (salary == null ? BigDecimal.ZERO : salary).subtract(before == null ? BigDecimal.ZERO : before),
+                (salary == null ? 0 : 1) - (before == null ? 0 : 1));
+        increment(managersAbove(Set.of(employeeId)), delta);
+    }
+
+    /**
+     * Recomputes every entry from the employee collection. Entries are overwritten in place and the ones left over
+     * removed afterwards, so readers keep finding the old counts until the new ones are written.
+     */
+    @Override
+    public synchronized ReportingIndexStatus rebuild() {
+        long start = System.nanoTime();
+
+        Computed computed = computeFromEmployees();
+        List<ReportingIndexEntry> entries = new ArrayList<>(computed.entries().values());
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ReportingIndexEntry.class);
+            for (ReportingIndexEntry entry : entries.subList(from, Math.min(from + batchSize, entries.size()))) {
+                operations.replaceOne(Query.query(Criteria.where("employeeId").is(entry.getEmployeeId())), entry,
+                        FindAndReplaceOptions.options().upsert());
+            }
+            operations.execute();
+        }
+        int removed = removeEntriesOtherThan(computed.entries().keySet());
+
+        Map<String, String> movedManagers = new HashMap<>();
+        for (ReportingIndexEntry entry : entries) {
+            if (!Objects.equals(entry.getManagerId(), computed.storedManagers().get(entry.getEmployeeId()))) {
+                movedManagers.put(entry.getEmployeeId(), entry.getManagerId());
+            }
+        }
+        storeManagers(movedManagers);
+        //limited structures read their counts and rollups from the index, and every employee carries a managerId
+        orgVersions.invalidateAll();
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        LOG.info("Rebuilt reporting index for [{}] employees in [{}ms], [{}] stale entries removed, [{}] managerIds corrected",
+                entries.size(), elapsedMillis, removed, movedManagers.size());
+        return new ReportingIndexStatus(entries.size(), 0, List.of(), elapsedMillis);
+    }
+
+    /**
+     * Compares the stored entries against counts recomputed from the employee collection without changing either.
+     * An employee listed by several managers may carry any of them as their managerId.
+     */
+    @Override
+    public ReportingIndexStatus check() {
+        long start = System.nanoTime();
+
+        Computed computed = computeFromEmployees();
+        Map<String, ReportingIndexEntry> actual = new HashMap<>();
+        try (Stream<ReportingIndexEntry> stored = mongoTemplate.stream(new Query(), ReportingIndexEntry.class)) {
+            stored.forEach(e -> actual.put(e.getEmployeeId(), e));
+        }
+
+        int mismatches = 0;
+        List<String> sample = new ArrayList<>();
+        for (ReportingIndexEntry want : computed.entries().values()) {
+            ReportingIndexEntry have = actual.remove(want.getEmployeeId());
+            List<String> managers = computed.managers().getOrDefault(want.getEmployeeId(), List.of());
+            String storedManager = computed.storedManagers().get(want.getEmployeeId());
+            String problem = null;
+            if (have == null) {
+                problem = want.getEmployeeId() + ": not indexed";
+            } else if (have.getNumberOfReports() != want.getNumberOfReports()) {
+                problem = want.getEmployeeId() + ": numberOfReports " + have.getNumberOfReports() + ", expected " + want.getNumberOfReports();
+            } else if (have.getManagers() != want.getManagers()) {
+                problem = want.getEmployeeId() + ": managers " + have.getManagers() + ", expected " + want.getManagers();
+            } else if (!isManagerOf(have.getManagerId(), managers)) {
+                problem = want.getEmployeeId() + ": managerId " + have.getManagerId() + ", expected one of " + managers;
+            } else if (!isManagerOf(storedManager, managers)) {
+                problem = want.getEmployeeId() + ": employee managerId " + storedManager + ", expected one of " + managers;
+            } else if (!sameAmount(have.getSalary(), want.getSalary())) {
+                problem = want.getEmployeeId() + ": salary " + have.getSalary() + ", expected " + want.getSalary();
+            } else if (!sameAmount(have.getReportsSalary(), want.getReportsSalary())
+                    || have.getCompensatedReports() != want.getCompensatedReports()) {
+                problem = want.getEmployeeId() + ": reportsSalary " + have.getReportsSalary() + " over "
+                        + have.getCompensatedReports() + ", expected " + want.getReportsSalary() + " over " + want.getCompensatedReports();
+            }
+            if (problem != null && mismatches++ < MISMATCH_SAMPLE_SIZE) {
+                sample.add(problem);
+            }
+        }
+        for (String orphan : actual.keySet()) {
+            if (mismatches++ < MISMATCH_SAMPLE_SIZE) {
+                sample.add(orphan + ": indexed but no such employee");
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        if (mismatches > 0) {
+            LOG.warn("Reporting index has [{}] mismatches across [{}] employees", mismatches, computed.entries().size());
+        }
+        return new ReportingIndexStatus(computed.entries().size(), mismatches, sample, elapsedMillis);
+    }
+
+    /**
+     * Adds {@code delta} to the given employee and every distinct manager above them in one update.
+     */
+    private void adjustManagementChain(String employeeId, Subtree delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        Set<String> chain = new LinkedHashSet<>();
+        chain.add(employeeId);
+        chain.addAll(managersAbove(chain));
+        increment(chain, delta);
+    }
+
+    private void increment(Collection<String> employeeIds, Subtree delta) {
+        if (delta.isEmpty() || employeeIds.isEmpty()) {
+            return;
+        }
+        mongoTemplate.updateMulti(Query.query(Criteria.where("employeeId").in(employeeIds)),
+                new Update().inc("numberOfReports", delta.reports())
+                        .inc("reportsSalary", new Decimal128(delta.salary()))
+                        .inc("compensatedReports", delta.compensated()),
+                ReportingIndexEntry.class);
+    }
+
+    /**
+     * Recounts an employee and everyone above them from the distinct employees below each, for when a change moved
+     * someone who is also counted through another manager. Everyone below the topmost of them is walked, one query
+     * per level, so this costs as much as the largest subtree involved.
+     */
+    private void recount(String employeeId) {
+        Set<String> chain = new LinkedHashSet<>();
+        chain.add(employeeId);
+        chain.addAll(managersAbove(chain));
+        Map<String, List<String>> directReportIds = directReportIdsBelow(chain);
+        Map<String, BigDecimal> salaries = salariesOf(directReportIds.keySet());
+
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ReportingIndexEntry.class);
+        for (String id : chain) {
+            Subtree subtree = distinctSubtree(id, directReportIds, salaries, Map.of());
+            operations.updateOne(Query.query(Criteria.where("employeeId").is(id)),
+                    new Update().set("numberOfReports", subtree.reports())
+                            .set("reportsSalary", new Decimal128(subtree.salary()))
+                            .set("compensatedReports", subtree.compensated()));
+        }
+        operations.execute();
+    }
+
+    /**
+     * Tells whether anyone listed by more than one manager is among the given employees or below them, in which case
+     * moving those employees may take away or bring people that the managers above still reach some other way.
+     */
+    private boolean sharesAnyoneBelow(Set<String> employeeIds) {
+        Query query = Query.query(Criteria.where("managers").gt(1));
+        query.fields().include("employeeId");
+        Set<String> shared = new HashSet<>();
+        mongoTemplate.find(query, ReportingIndexEntry.class).forEach(entry -> shared.add(entry.getEmployeeId()));
+        if (shared.isEmpty()) {
+            return false;
+        }
+        shared.addAll(managersAbove(shared));
+        return !Collections.disjoint(shared, employeeIds);
+    }
+
+    /**
+     * Walks up from the given employees through every manager that lists them, one query per level.
+     *
+     * @return every distinct employee above them, not including the employees themselves
+     */
+    private Set<String> managersAbove(Collection<String> employeeIds) {
+        Set<String> above = new LinkedHashSet<>();
+        Set<String> seen = new HashSet<>(employeeIds);
+        List<String> level = new ArrayList<>(employeeIds);
+        while (!level.isEmpty()) {
+            List<String> next = new ArrayList<>();
+            for (int from = 0; from < level.size(); from += batchSize) {
+                List<String> batch = level.subList(from, Math.min(from + batchSize, level.size()));
+                for (Document manager : employees().find(new Document(DIRECT_REPORTS, new Document("$in", batch)))
+                        .projection(new Document("_id", 1))) {
+                    String managerId = manager.getString("_id");
+                    if (seen.add(managerId)) {
+                        above.add(managerId);
+                        next.add(managerId);
+                    }
+                }
+            }
+            level = next;
+        }
+        return above;
+    }
+
+    private String anyManagerOf(String employeeId) {
+        Document manager = employees().find(new Document(DIRECT_REPORTS, employeeId)).projection(new Document("_id", 1)).first();
+        return manager == null ? null : manager.getString("_id");
+    }
+
+    /**
+     * Collects who reports to whom below the given employees, one query per level. Reports that do not exist are
+     * left out, as they are when the index is rebuilt.
+     */
+    private Map<String, List<String>> directReportIdsBelow(Collection<String> employeeIds) {
+        Map<String, List<String>> directReportIds = new HashMap<>();
+        Set<String> seen = new HashSet<>(employeeIds);
+        List<String> level = new ArrayList<>(employeeIds);
+        while (!level.isEmpty()) {
+            List<String> next = new ArrayList<>();
+            for (int from = 0; from < level.size(); from += batchSize) {
+                List<String> batch = level.subList(from, Math.min(from + batchSize, level.size()));
+                for (Document employee : employees().find(new Document("_id", new Document("$in", batch)))
+                        .projection(new Document(DIRECT_REPORTS, 1))) {
+                    List<String> reportIds = employee.getList(DIRECT_REPORTS, String.class, List.of());
+                    directReportIds.put(employee.getString("_id"), reportIds);
+                    reportIds.stream().filter(seen::add).forEach(next::add);
+                }
+            }
+            level = next;
+        }
+        return directReportIds;
+    }
+
+    private Map<String, BigDecimal> salariesOf(Collection<String> employeeIds) {
+        Map<String, BigDecimal> salaries = new HashMap<>(employeeIds.size() * 2);
+        List<String> ids = new ArrayList<>(employeeIds);
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            Query query = Query.query(Criteria.where("employeeId").in(ids.subList(from, Math.min(from + batchSize, ids.size()))));
+            query.fields().include("employeeId").include("salary");
+            for (ReportingIndexEntry entry : mongoTemplate.find(query, ReportingIndexEntry.class)) {
+                if (entry.getSalary() != null) {
+                    salaries.put(entry.getEmployeeId(), entry.getSalary());
+                }
+            }
+        }
+        return salaries;
+    }
+
+    /**
+     * Points employee documents at the managers given, one update per manager; a null manager clears it.
+     */
+    private void storeManagers(Map<String, String> managerIds) {
+        if (managerIds.isEmpty()) {
+            return;
+        }
+        Map<String, List<String>> byManager = new HashMap<>();
+        List<String> unmanaged = new ArrayList<>();
+        managerIds.forEach((employeeId, managerId) -> {
+            if (managerId == null) {
+                unmanaged.add(employeeId);
+            } else {
+                byManager.computeIfAbsent(managerId, id -> new ArrayList<>()).add(employeeId);
+            }
+        });
+        //by collection name rather than entity, which would also bump the version the employees' own writes are checked against
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED,
+                mongoTemplate.getCollectionName(Employee.class));
+        byManager.forEach((managerId, ids) -> operations.updateMulti(Query.query(Criteria.where("_id").in(ids)),
+                new Update().set("managerId", managerId)));
+        if (!unmanaged.isEmpty()) {
+            operations.updateMulti(Query.query(Criteria.where("_id").in(unmanaged)), new Update().unset("managerId"));
+        }
+        operations.execute();
+    }
+
+    /**
+     * Removes the entries of employees that no longer exist, reading only the ids of what is stored.
+     *
+     * @return how many entries were removed
+     */
+    private int removeEntriesOtherThan(Set<String> employeeIds) {
+        List<String> stale = new ArrayList<>();
+        Query query = new Query();
+        query.fields().include("employeeId");
+        try (Stream<ReportingIndexEntry> stored = mongoTemplate.stream(query, ReportingIndexEntry.class)) {
+            stored.map(ReportingIndexEntry::getEmployeeId).filter(id -> !employeeIds.contains(id)).forEach(stale::add);
+        }
+        for (int from = 0; from < stale.size(); from += batchSize) {
+            mongoTemplate.remove(Query.query(Criteria.where("employeeId").in(stale.subList(from, Math.min(from + batchSize, stale.size())))),
+                    ReportingIndexEntry.class);
+        }
+        return stale.size();
+    }
+
+    /**
+     * Builds the entry every employee should have: who lists them, their salary, and the size and salaries of the
+     * distinct employees under them.
+     * Employees are streamed with only their ids, so what is kept in memory is the adjacency rather than documents.
+     * Anyone with no one listed more than once below them heads a plain tree, and is summed bottom-up with an
+     * explicit stack, so deep orgs cannot overflow the call stack, and a reporting cycle is cut rather than followed
+     * forever. Everyone above a shared employee is counted with their own walk instead, reusing those sums below it.
+     */
+    private Computed computeFromEmployees() {
+        Map<String, List<String>> children = new HashMap<>();
+        Map<String, String> storedManagers = new HashMap<>();
+        Query query = new Query();
+        query.fields().include("employeeId").include(DIRECT_REPORTS).include("managerId");
+        try (Stream<Employee> employees = mongoTemplate.stream(query, Employee.class)) {
+            employees.forEach(employee -> {
+                children.put(employee.getEmployeeId(), new ArrayList<>(ids(employee.getDirectReports())));
+                if (employee.getManagerId() != null) {
+                    storedManagers.put(employee.getEmployeeId(), employee.getManagerId());
+                }
+            });
+        }
+        Map<String, List<String>> managers = new HashMap<>();
+        children.forEach((id, reportIds) -> reportIds.stream()
+                .filter(children::containsKey)
+                .forEach(reportId -> managers.computeIfAbsent(reportId, report -> new ArrayList<>(1)).add(id)));
+        Map<String, BigDecimal> salaries = new HashMap<>(children.size() * 2);
+        compensationRollups.forEachInEffect(LocalDate.now(), compensation -> {
+            if (compensation.getSalary() != null) {
+                salaries.put(compensation.getEmployeeId(), compensation.getSalary());
+            }
+        });
+
+        //everyone listed by more than one manager, and everyone above them
+        Set<String> aboveShared = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>();
+        managers.forEach((id, listedBy) -> {
+            if (listedBy.size() > 1 && aboveShared.add(id)) {
+                pending.push(id);
+            }
+        });
+        while (!pending.isEmpty()) {
+            for (String managerId : managers.getOrDefault(pending.pop(), List.of())) {
+                if (aboveShared.add(managerId)) {
+                    pending.push(managerId);
+                }
+            }
+        }
+
+        Map<String, Subtree> subtrees = new HashMap<>(children.size() * 2);
+        for (String root : children.keySet()) {
+            if (aboveShared.contains(root)) {
+                continue;
+            }
+            Deque<String> stack = new ArrayDeque<>();
+            Set<String> onStack = new HashSet<>();
+            stack.push(root);
+            while (!stack.isEmpty()) {
+                String id = stack.peek();
+                if (subtrees.containsKey(id)) {
+                    stack.pop();
+                    continue;
+                }
+                onStack.add(id);
+                boolean ready = true;
+                for (String child : children.get(id)) {
+                    if (!children.containsKey(child) || subtrees.containsKey(child)) {
+                        continue;
+                    }
+                    if (onStack.contains(child)) {
+                        LOG.warn("Reporting cycle through [{}] and [{}], not counting it twice", id, child);
+                        continue;
+                    }
+                    stack.push(child);
+                    ready = false;
+                }
+                if (ready) {
+                    Subtree subtree = Subtree.EMPTY;
+                    for (String child : children.get(id)) {
+                        if (children.containsKey(child)) {
+                            subtree = subtree.plus(Subtree.of(salaries.get(child), subtrees.getOrDefault(child, Subtree.EMPTY)));
+                        }
+                    }
+                    subtrees.put(id, subtree);
+                    onStack.remove(id);
+                    stack.pop();
+                }
+            }
+        }
+        Map<String, Subtree> trees = new HashMap<>(subtrees);
+        aboveShared.forEach(id -> subtrees.put(id, distinctSubtree(id, children, salaries, trees)));
+
+        Map<String, ReportingIndexEntry> entries = new HashMap<>(children.size() * 2);
+        for (String id : children.keySet()) {
+            List<String> listedBy = managers.getOrDefault(id, List.of());
+            //an employee keeps the manager already stored while that manager still lists them
+            String storedManager = storedManagers.get(id);
+            String managerId = storedManager != null && listedBy.contains(storedManager) ? storedManager
+                    : listedBy.isEmpty() ? null : listedBy.get(0);
+            ReportingIndexEntry entry = new ReportingIndexEntry(id, managerId, subtrees.get(id).reports());
+            entry.setManagers(listedBy.size());
+            entry.setSalary(salaries.get(id));
+            entry.setReportsSalary(subtrees.get(id).salary());
+            entry.setCompensatedReports(subtrees.get(id).compensated());
+            entries.put(id, entry);
+        }
+        return new Computed(entries, managers, storedManagers);
+    }
+
+    /**
+     * Sums the distinct employees below the root, each once however many managers list them. Reports missing from
+     * {@code directReportIds} do not exist and are skipped; reports in {@code trees} head a plain tree whose sum is
+     * already known, so it is added without walking it.
+     */
+    private static Subtree distinctSubtree(String rootId, Map<String, List<String>> directReportIds,
+                                           Map<String, BigDecimal> salaries, Map<String, Subtree> trees) {
+        Subtree subtree = Subtree.EMPTY;
+        Set<String> seen = new HashSet<>();
+        seen.add(rootId);
+        Deque<String> pending = new ArrayDeque<>();
+        pending.push(rootId);
+        while (!pending.isEmpty()) {
+            for (String report : directReportIds.getOrDefault(pending.pop(), List.of())) {
+                if (!directReportIds.containsKey(report) || !seen.add(report)) {
+                    continue;
+                }
+                Subtree tree = trees.get(report);
+                subtree = subtree.plus(Subtree.of(salaries.get(report), tree == null ? Subtree.EMPTY : tree));
+                if (tree == null) {
+                    pending.push(report);
+                }
+            }
+        }
+        return subtree;
+    }
+
+    private static boolean isManagerOf(String managerId, List<String> managers) {
+        return managerId == null ? managers.isEmpty() : managers.contains(managerId);
+    }
+
+    private MongoCollection<Document> employees() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Employee.class));
+    }
+
+    private static boolean sameAmount(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+
+    /**
+     * Size and salary cost of a subtree, or of a change to one.
+     */
+    private record Subtree(int reports, BigDecimal salary, int compensated) {
+        static final Subtree EMPTY = new Subtree(0, BigDecimal.ZERO, 0);
+
+        //the employee an entry belongs to, along with everyone under them
+        static Subtree of(ReportingIndexEntry entry) {
+            return of(entry.getSalary(), new Subtree(entry.getNumberOfReports(),
+                    entry.getReportsSalary() == null ? BigDecimal.ZERO : entry.getReportsSalary(), entry.getCompensatedReports()));
+        }
+
+        static Subtree of(BigDecimal salary, Subtree below) {
+            return salary == null ? below.plus(new Subtree(1, BigDecimal.ZERO, 0)) : below.plus(new Subtree(1, salary, 1));
+        }
+
+        Subtree plus(Subtree other) {
+            return new Subtree(reports + other.reports, salary.add(other.salary), compensated + other.compensated);
+        }
+
+        Subtree minus(Subtree other) {
+            return new Subtree(reports - other.reports, salary.subtract(other.salary), compensated - other.compensated);
+        }
+
+        boolean isEmpty() {
+            return reports == 0 && salary.signum() == 0 && compensated == 0;
+        }
+    }
+
+    /**
+     * The entries recomputed from the employee collection, who lists each employee, and the managerId each employee
+     * document carries now.
+     */
+    private record Computed(Map<String, ReportingIndexEntry> entries, Map<String, List<String>> managers,
+                            Map<String, String> storedManagers) {}
+
+    private static Set<String> ids(List<Employee> employees) {
+        Set<String> ids = new LinkedHashSet<>();
+        if (employees != null) {
+            employees.stream().filter(Objects::nonNull).map(Employee::getEmployeeId).filter(Objects::nonNull).forEach(ids::add);
+        }
+        return ids;
+    }
+}
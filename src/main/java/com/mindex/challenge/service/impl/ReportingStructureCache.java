@@ -0,0 +1,109 @@
+package com.mindex.challenge.service.impl;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.data.ReportingStructureOptions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Shares reporting structure calculations between requests for the same employee and options.
+ * <p>
+ * The first request for a structure calculates it on its own thread; requests that arrive while it is running wait
+ * for the same result instead of starting their own traversal, and once it is done it is served for a short while
+ * longer. Entries are keyed by the version of the employee's subtree from {@link OrgVersions}, which every write
+ * below them moves on once it is done, so a structure calculated before a write is never handed to a request made
+ * after it; the stale entries simply age out.
+ * <p>
+ * Every request sharing a structure gets the same instance, so it must not be changed once returned. A calculation
+ * that fails is not kept; everyone waiting on it gets the failure, and the next request tries again.
+ * The cache is bounded by how many employees its structures hold rather than how many structures there are, since one
+ * structure near the top of the org holds nearly everyone; each weighs its number of reports plus one, which limited
+ * structures stay under. A structure heavier than the whole bound is still shared while it is calculated, but not kept.
+ * Requests are counted as {@code reporting.structure.requests} tagged {@code result=calculated|coalesced|cached}.
+ */
+@Component
+public class ReportingStructureCache {
+
+    private final AsyncCache<Key, ReportingStructure> structures;
+    private final Counter calculated;
+    private final Counter coalesced;
+    private final Counter cached;
+
+    public ReportingStructureCache(@Value("${reporting.cache.max-weight}") long maxWeight,
+                                   @Value("${reporting.cache.ttl}") Duration ttl,
+                                   MeterRegistry meterRegistry) {
+        //an entry only starts to age once its calculation has finished, so a ttl of 0 still coalesces
+        this.structures = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Key key, ReportingStructure structure) -> 1 + Math.max(0, structure.getNumberOfReports()))
+                .expireAfterWrite(ttl)
+                .buildAsync();
+        this.calculated = counter(meterRegistry, "calculated", "Reporting structure requests that ran their own calculation");
+        this.coalesced = counter(meterRegistry, "coalesced", "Reporting structure requests that waited on a calculation already running");
+        this.cached = counter(meterRegistry, "cached", "Reporting structure requests served a recently calculated structure");
+    }
+
+    /**
+     * @param version the version of the structure wanted, taken before calculating it
+     * @param calculation calculates the structure when no request for the same one is running or recently finished
+     * @return the structure, shared with every other request for it
+     * @throws ExecutionException if the calculation threw a checked exception
+     * @throws InterruptedException if the current thread was interrupted while waiting on another request's calculation
+     */
+    public ReportingStructure get(String employeeId, ReportingStructureOptions options, String version,
+                                  Callable<ReportingStructure> calculation) throws ExecutionException, InterruptedException {
+        Key key = new Key(employeeId, options, version);
+        CompletableFuture<ReportingStructure> mine = new CompletableFuture<>();
+        CompletableFuture<ReportingStructure> shared = structures.get(key, (k, executor) -> mine);
+        if (shared != mine) {
+            (shared.isDone() ? cached : coalesced).increment();
+            return await(shared);
+        }
+
+        calculated.increment();
+        try {
+            mine.complete(calculation.call());
+        } catch (Exception | Error e) {
+            mine.completeExceptionally(e);
+        }
+        return await(mine);
+    }
+
+    private static ReportingStructure await(CompletableFuture<ReportingStructure> structure) throws ExecutionException, InterruptedException {
+        try {
+            return structure.get();
+        } catch (ExecutionException e) {
+            //rethrown as the calculation threw it, so an unknown employee is still reported as one
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof ExecutionException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof InterruptedException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result, String description) {
+        return Counter.builder("reporting.structure.requests").tag("result", result)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    private record Key(String employeeId, ReportingStructureOptions options, String version) {}
+}
@@ -0,0 +1,88 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.service.ReportingStrategy;
+import com.mindex.challenge.service.ReportingTraversal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class SequentialReportingTraversal implements ReportingTraversal {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SequentialReportingTraversal.class);
+
+    private final EmployeeRepository employeeRepository;
+    private final TraversalMetrics traversalMetrics;
+
+    public SequentialReportingTraversal(EmployeeRepository employeeRepository, TraversalMetrics traversalMetrics) {
+        this.employeeRepository = employeeRepository;
+        this.traversalMetrics = traversalMetrics;
+    }
+
+    @Override
+    public ReportingStrategy getStrategy() {
+        return ReportingStrategy.SEQUENTIAL;
+    }
+
+    @Override
+    public ReportingStructure calculate(Employee root) {
+        Map<String, Employee> hydrated = new HashMap<>();
+        Map<String, List<String>> directReportIds = new HashMap<>();
+        hydrated.put(root.getEmployeeId(), root);
+        hydrate(root, hydrated, directReportIds);
+
+        int numberOfReports = ReportingGraphs.countReports(root.getEmployeeId(), directReportIds);
+        //one read per distinct employee below the root
+        traversalMetrics.record(getStrategy(), numberOfReports, TraversalMetrics.depthOf(root), hydrated.size() - 1);
+        return new ReportingStructure.ReportingStructureBuilder()
+                .Employee(root)
+                .NumberOfReports(numberOfReports)
+                .build();
+    }
+
+    /**
+     * Hydrates the direct reports of a given employee, and theirs in turn.
+     * Sequential stream solution for comparison's sake. Employees already hydrated in this request, because another
+     * manager lists them too or because they are further up a cycle, are linked rather than read and walked again.
+     *
+     * @param employee the employee whose direct reports should be expanded
+     * @param hydrated every employee read so far in this request, by employeeId
+     * @param directReportIds the direct report ids of every employee expanded so far
+     */
+    private void hydrate(Employee employee, Map<String, Employee> hydrated, Map<String, List<String>> directReportIds) {
+        LOG.debug("*Sync* Constructing Report Structure for employee [{} {}]", employee.getFirstName(), employee.getLastName());
+
+        List<String> reportIds = ReportingGraphs.directReportIds(employee);
+        directReportIds.put(employee.getEmployeeId(), reportIds);
+        if (employee.getDirectReports() == null || reportIds.isEmpty()) {
+            return;
+        }
+
+        employee.setDirectReports(reportIds.stream()
+                .map(id -> {
+                    Employee report = hydrated.get(id);
+                    if (report == null) {
+                        report = read(id);
+                        hydrated.put(id, report);
+                        hydrate(report, hydrated, directReportIds);
+                    }
+                    return report;
+                })
+                .toList());
+    }
+
+    private Employee read(String id) {
+        Employee employee = employeeRepository.findByEmployeeId(id);
+        if (employee == null) {
+            throw new RuntimeException("Invalid employeeId: " + id);
+        }
+        return employee;
+    }
+}
@@ -0,0 +1,174 @@
+package com.mindex.challenge.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Application-scoped executor shared by every reporting structure traversal.
+ * Work is handed out as {@link CompletableFuture}s so traversals compose their fan-out instead of blocking a worker
+ * on a child's result.
+ * <p>
+ * By default the work runs on a bounded platform-thread pool of {@code max.worker.threads}. When the queue is full
+ * the submitting thread runs the task itself, which slows producers down rather than failing the request; each of
+ * those hand-backs is counted as a rejection. Once the pool has shut down the task is refused instead, failing the
+ * traversal waiting on it. With {@code spring.threads.virtual.enabled=true} on Java 21+ every task gets its own
+ * virtual thread instead, since the tasks are almost entirely blocking Mongo reads.
+ * <p>
+ * In both modes a semaphore of {@code traversal.db.max-concurrency} permits caps how many tasks talk to Mongo at
+ * once, so a wide org cannot drain the driver's connection pool.
+ * <p>
+ * This deliberately does not implement {@link Executor}, so it does not displace Spring Boot's own
+ * {@code applicationTaskExecutor}.
+ */
+@Component
+public class TraversalExecutor implements DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TraversalExecutor.class);
+
+    private final Executor executor;
+    private final ThreadPoolExecutor pool;
+    private final Semaphore dbPermits;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final long awaitTerminationSeconds;
+    private volatile boolean shutdown;
+
+    public TraversalExecutor(@Value("${max.worker.threads}") int maxWorkerThreads,
+                             @Value("${traversal.executor.queue-capacity}") int queueCapacity,
+                             @Value("${traversal.executor.await-termination-seconds}") long awaitTerminationSeconds,
+                             @Value("${traversal.db.max-concurrency}") int dbMaxConcurrency,
+                             Environment environment,
+                             MeterRegistry meterRegistry) {
+        this.awaitTerminationSeconds = awaitTerminationSeconds;
+        this.dbPermits = new Semaphore(dbMaxConcurrency, true);
+
+        if (Threading.VIRTUAL.isActive(environment)) {
+            LOG.info("Reporting traversals will run on virtual threads, at most [{}] concurrent db calls", dbMaxConcurrency);
+            this.pool = null;
+            this.executor = new VirtualThreadTaskExecutor("traversal-");
+        } else {
+            Counter rejections = Counter.builder("executor.rejected")
+                    .description("Tasks the traversal pool could not queue and ran on the submitting thread instead")
+                    .tag("name", "traversal")
+                    .register(meterRegistry);
+
+            AtomicInteger threadCount = new AtomicInteger();
+            ThreadFactory threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, "traversal-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+
+            this.pool = new ThreadPoolExecutor(maxWorkerThreads, maxWorkerThreads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity), threadFactory,
+                    (runnable, executor) -> {
+                        rejections.increment();
+                        //once shut down nothing would run it, so refuse it rather than leave its future waiting
+                        if (executor.isShutdown()) {
+                            throw new RejectedExecutionException("Traversal executor is shut down");
+                        }
+                        runnable.run();
+                    });
+            this.executor = pool;
+
+            //executor.pool.size, executor.active, executor.queued, executor.queue.remaining, executor.completed
+            new ExecutorServiceMetrics(pool, "traversal", Tags.empty()).bindTo(meterRegistry);
+        }
+
+        Gauge.builder("traversal.tasks.in.flight", inFlight, AtomicInteger::get)
+                .description("Traversal tasks submitted and not yet finished, queued or running")
+                .register(meterRegistry);
+        Gauge.builder("traversal.db.permits.available", dbPermits, Semaphore::availablePermits)
+                .description("Remaining concurrent db calls traversals may start")
+                .register(meterRegistry);
+        Gauge.builder("traversal.db.permits.waiting", dbPermits, Semaphore::getQueueLength)
+                .description("Traversal tasks waiting for a db call permit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a blocking db call on the traversal executor, holding one of the {@code traversal.db.max-concurrency}
+     * permits for its duration.
+     *
+     * @return a future of the call's result, failed with a {@link RejectedExecutionException} if the executor shut
+     * down before the call could be handed to it
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> dbCall) {
+        if (shutdown) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Traversal executor is shutting down"));
+        }
+        inFlight.incrementAndGet();
+        try {
+            return submit(dbCall);
+        } catch (RejectedExecutionException e) {
+            inFlight.decrementAndGet();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> dbCall) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                dbPermits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            try {
+                return dbCall.get();
+            } finally {
+                dbPermits.release();
+            }
+        }, executor).whenComplete((result, error) -> inFlight.decrementAndGet());
+    }
+
+    /**
+     * Stops accepting new traversal work and gives in-flight traversals up to
+     * {@code traversal.executor.await-termination-seconds} to finish before interrupting them.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        LOG.debug("Shutting down traversal executor with [{}] tasks in flight", inFlight.get());
+        shutdown = true;
+
+        if (pool != null) {
+            pool.shutdown();
+            if (!pool.awaitTermination(awaitTerminationSeconds, TimeUnit.SECONDS)) {
+                LOG.warn("Traversal executor did not terminate within [{}] seconds, interrupting remaining tasks",
+                        awaitTerminationSeconds);
+                pool.shutdownNow();
+            }
+            return;
+        }
+
+        //virtual threads are not pooled, so there is nothing to shut down beyond waiting for stragglers
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(awaitTerminationSeconds);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        if (inFlight.get() > 0) {
+            LOG.warn("[{}] virtual traversal tasks still running after [{}] seconds", inFlight.get(), awaitTerminationSeconds);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.ReportingStrategy;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Records the shape of the work behind each reporting structure: how many employees a traversal visited, how many
+ * levels deep it went and how many database calls it made, per strategy.
+ */
+@Component
+public class TraversalMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public TraversalMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(ReportingStrategy strategy, int nodesVisited, int maxDepth, int dbCalls) {
+        summary("reporting.traversal.nodes", "Employees visited below the requested employee", strategy).record(nodesVisited);
+        summary("reporting.traversal.depth", "Levels expanded below the requested employee", strategy).record(maxDepth);
+        summary("reporting.traversal.db.calls", "Database calls made to expand one reporting structure", strategy).record(dbCalls);
+    }
+
+    /**
+     * @return how many levels of hydrated direct reports hang below an employee, each employee counted at the first
+     * level it appears on
+     */
+    static int depthOf(Employee root) {
+        int depth = 0;
+        Set<Employee> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        seen.add(root);
+        List<Employee> level = List.of(root);
+        while (true) {
+            List<Employee> next = new ArrayList<>();
+            for (Employee employee : level) {
+                if (employee.getDirectReports() != null) {
+                    for (Employee report : employee.getDirectReports()) {
+                        if (report != null && seen.add(report)) {
+                            next.add(report);
+                        }
+                    }
+                }
+            }
+            if (next.isEmpty()) {
+                return depth;
+            }
+            depth++;
+            level = next;
+        }
+    }
+
+    private DistributionSummary summary(String name, String description, ReportingStrategy strategy) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tag("strategy", strategy.name().toLowerCase())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,189 @@
+package com.mindex.challenge.synthetic;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Generates org charts for load tests, benchmarks and seed files.
+ * <p>
+ * Everything, ids included, comes from one {@link Random} seeded with {@code seed}, so the same settings always
+ * produce the same org. Managers are filled breadth first: each one draws a number of direct reports from the
+ * fan-out distribution until {@code size} employees exist. Nobody is placed deeper than {@code maxDepth} levels
+ * below the top; if the distribution runs dry first, or every open manager is already at the bottom, the remaining
+ * employees go to random managers above that depth.
+ */
+public class OrgGenerator {
+
+    private static final String[] DEPARTMENTS = {"Engineering", "Sales", "Marketing", "Finance", "Operations", "Support"};
+    private static final String[] POSITIONS = {"Executive", "Director", "Manager", "Lead", "Individual Contributor"};
+    private static final LocalDate EFFECTIVE_FROM = LocalDate.of(2020, 1, 1);
+
+    private final long seed;
+    private final int size;
+    private final int maxDepth;
+    private final FanOut fanOut;
+    private final int meanFanOut;
+    private final boolean compensation;
+
+    private OrgGenerator(OrgGeneratorBuilder builder) {
+        this.seed = builder.seed;
+        this.size = builder.size;
+        this.maxDepth = builder.maxDepth;
+        this.fanOut = builder.fanOut;
+        this.meanFanOut = builder.meanFanOut;
+        this.compensation = builder.compensation;
+    }
+
+    public SyntheticOrg generate() {
+        Random random = new Random(seed);
+        List<Employee> employees = new ArrayList<>(size);
+        int[] depths = new int[size];
+
+        employees.add(employee(random, 0));
+        //managers still taking reports, and everyone who could ever take one if those run out
+        Deque<Integer> open = new ArrayDeque<>();
+        List<Integer> eligible = new ArrayList<>();
+        if (maxDepth > 0) {
+            open.add(0);
+            eligible.add(0);
+        }
+
+        while (employees.size() < size) {
+            if (open.isEmpty() && eligible.isEmpty()) {
+                throw new IllegalStateException("A maxDepth of " + maxDepth + " leaves no room for " + size + " employees");
+            }
+            int manager;
+            int reports;
+            if (!open.isEmpty()) {
+                manager = open.poll();
+                reports = Math.min(draw(random), size - employees.size());
+            } else {
+                manager = eligible.get(random.nextInt(eligible.size()));
+                reports = 1;
+            }
+            for (int i = 0; i < reports; i++) {
+                int index = employees.size();
+                depths[index] = depths[manager] + 1;
+                Employee report = employee(random, depths[index]);
+                employees.add(report);
+                addReport(employees.get(manager), report);
+                if (depths[index] < maxDepth) {
+                    open.add(index);
+                    eligible.add(index);
+                }
+            }
+        }
+
+        List<Compensation> compensations = new ArrayList<>(compensation ? size : 0);
+        if (compensation) {
+            for (int i = 0; i < size; i++) {
+                compensations.add(compensation(random, employees.get(i).getEmployeeId(), depths[i]));
+            }
+        }
+        return new SyntheticOrg(employees, compensations);
+    }
+
+    private int draw(Random random) {
+        switch (fanOut) {
+            case FIXED:
+                return meanFanOut;
+            case UNIFORM:
+                return random.nextInt(2 * meanFanOut + 1);
+            default:
+                //pareto with a minimum of one and the requested mean: most managers get one or two, a few get hundreds
+                double alpha = meanFanOut <= 1 ? Double.POSITIVE_INFINITY : meanFanOut / (meanFanOut - 1.0);
+                double draw = Math.pow(1 - random.nextDouble(), -1 / alpha);
+                return (int) Math.min(draw, size);
+        }
+    }
+
+    private static Employee employee(Random random, int depth) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(new UUID(random.nextLong(), random.nextLong()).toString());
+        employee.setFirstName("First" + Integer.toString(random.nextInt(Integer.MAX_VALUE), 36));
+        employee.setLastName("Last" + Integer.toString(random.nextInt(Integer.MAX_VALUE), 36));
+        employee.setPosition(POSITIONS[Math.min(depth, POSITIONS.length - 1)]);
+        employee.setDepartment(DEPARTMENTS[random.nextInt(DEPARTMENTS.length)]);
+        return employee;
+    }
+
+    private static void addReport(Employee manager, Employee report) {
+        if (manager.getDirectReports() == null) {
+            manager.setDirectReports(new ArrayList<>());
+        }
+        Employee stub = new Employee();
+        stub.setEmployeeId(report.getEmployeeId());
+        manager.getDirectReports().add(stub);
+    }
+
+    private static Compensation compensation(Random random, String employeeId, int depth) {
+        //pay falls off with depth, with up to 20% either side
+        double base = 250_000 / Math.sqrt(depth + 1.0);
+        Compensation compensation = new Compensation();
+        compensation.setEmployeeId(employeeId);
+        compensation.setSalary(BigDecimal.valueOf(base * (0.8 + 0.4 * random.nextDouble())).setScale(2, RoundingMode.HALF_UP));
+        compensation.setEffectiveDate(EFFECTIVE_FROM.plusDays(random.nextInt(5 * 365)));
+        return compensation;
+    }
+
+    public enum FanOut {
+        /** every manager has exactly the mean number of reports */
+        FIXED,
+        /** anywhere from none to twice the mean */
+        UNIFORM,
+        /** at least one, heavy tailed towards a few very large teams */
+        POWER_LAW
+    }
+
+    public static class OrgGeneratorBuilder {
+        private long seed = 42;
+        private int size = 1000;
+        private int maxDepth = Integer.MAX_VALUE;
+        private FanOut fanOut = FanOut.FIXED;
+        private int meanFanOut = 5;
+        private boolean compensation;
+
+        public OrgGeneratorBuilder Seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public OrgGeneratorBuilder Size(int size) {
+            this.size = size;
+            return this;
+        }
+
+        public OrgGeneratorBuilder MaxDepth(int maxDepth) {
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        public OrgGeneratorBuilder FanOut(FanOut fanOut, int meanFanOut) {
+            this.fanOut = fanOut;
+            this.meanFanOut = meanFanOut;
+            return this;
+        }
+
+        public OrgGeneratorBuilder Compensation(boolean compensation) {
+            this.compensation = compensation;
+            return this;
+        }
+
+        public OrgGenerator build() {
+            if (size < 1 || meanFanOut < 1 || maxDepth < 0) {
+                throw new IllegalArgumentException("size and meanFanOut must be positive and maxDepth not negative");
+            }
+            return new OrgGenerator(this);
+        }
+    }
+}
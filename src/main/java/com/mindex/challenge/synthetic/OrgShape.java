@@ -0,0 +1,29 @@
+package com.mindex.challenge.synthetic;
+
+/**
+ * Ready-made {@link OrgGenerator} settings for the org shapes the benchmarks and load tests compare.
+ */
+public enum OrgShape {
+    /** everyone reports straight to the top */
+    FLAT,
+    /** a single chain of managers, one report each */
+    DEEP,
+    /** every manager has ten reports */
+    BALANCED,
+    /** most managers have one or two reports and a few have hundreds */
+    SKEWED;
+
+    public OrgGenerator.OrgGeneratorBuilder generator(int size, long seed) {
+        OrgGenerator.OrgGeneratorBuilder builder = new OrgGenerator.OrgGeneratorBuilder().Size(size).Seed(seed);
+        switch (this) {
+            case FLAT:
+                return builder.FanOut(OrgGenerator.FanOut.FIXED, Math.max(1, size - 1)).MaxDepth(1);
+            case DEEP:
+                return builder.FanOut(OrgGenerator.FanOut.FIXED, 1);
+            case BALANCED:
+                return builder.FanOut(OrgGenerator.FanOut.FIXED, 10);
+            default:
+                return builder.FanOut(OrgGenerator.FanOut.POWER_LAW, 5);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.mindex.challenge.synthetic;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Writes a generated org to seed files, e.g. through {@code ./gradlew generateSeed -Pseed.size=1000000}.
+ * Start the application with {@code bootstrap.location=file:<employees file>} to load it, and post the
+ * compensation file to {@code /bulk/compensation}.
+ * <p>
+ * Arguments: size, shape (flat, deep, balanced or skewed), seed, employees file, and optionally a compensation file.
+ */
+public class SeedFileGenerator {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.err.println("usage: SeedFileGenerator <size> <flat|deep|balanced|skewed> <seed> <employees.ndjson[.gz]> [compensation.ndjson[.gz]]");
+            System.exit(1);
+        }
+        int size = Integer.parseInt(args[0]);
+        OrgShape shape = OrgShape.valueOf(args[1].toUpperCase());
+        long seed = Long.parseLong(args[2]);
+        Path compensations = args.length > 4 ? Path.of(args[4]) : null;
+
+        long start = System.nanoTime();
+        SyntheticOrg org = shape.generator(size, seed).Compensation(compensations != null).build().generate();
+
+        ObjectMapper objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .setSerializationInclusion(JsonInclude.Include.NON_EMPTY);
+        org.writeEmployees(objectMapper, Path.of(args[3]));
+        if (compensations != null) {
+            org.writeCompensations(objectMapper, compensations);
+        }
+        System.out.printf("Wrote %d %s employees (seed %d) in %dms, top of the org is %s%n",
+                size, args[1], seed, (System.nanoTime() - start) / 1_000_000, org.getRoot().getEmployeeId());
+    }
+}
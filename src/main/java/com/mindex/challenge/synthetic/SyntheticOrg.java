@@ -0,0 +1,96 @@
+package com.mindex.challenge.synthetic;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mindex.challenge.dao.CompensationRepository;
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An org made by {@link OrgGenerator}: its employees, top first, with direct reports as employeeId references only,
+ * and optionally one compensation per employee.
+ */
+public class SyntheticOrg {
+
+    private final List<Employee> employees;
+    private final List<Compensation> compensations;
+
+    SyntheticOrg(List<Employee> employees, List<Compensation> compensations) {
+        this.employees = employees;
+        this.compensations = compensations;
+    }
+
+    public List<Employee> getEmployees() {
+        return employees;
+    }
+
+    public List<Compensation> getCompensations() {
+        return compensations;
+    }
+
+    public Employee getRoot() {
+        return employees.get(0);
+    }
+
+    /**
+     * @return the ids of everyone with at least one direct report
+     */
+    public List<String> getManagerIds() {
+        return employees.stream()
+                .filter(employee -> employee.getDirectReports() != null && !employee.getDirectReports().isEmpty())
+                .map(Employee::getEmployeeId)
+                .toList();
+    }
+
+    /**
+     * Inserts the org straight through the repositories, {@code batchSize} documents per insert.
+     * This goes around the service, so the caller has to rebuild the reporting index and drop the org graph cache,
+     * as {@code DataBootstrap} does.
+     */
+    public void insertInto(EmployeeRepository employeeRepository, CompensationRepository compensationRepository, int batchSize) {
+        for (int from = 0; from < employees.size(); from += batchSize) {
+            employeeRepository.insert(employees.subList(from, Math.min(from + batchSize, employees.size())));
+        }
+        for (int from = 0; from < compensations.size(); from += batchSize) {
+            compensationRepository.insert(compensations.subList(from, Math.min(from + batchSize, compensations.size())));
+        }
+    }
+
+    /**
+     * Writes the employees as NDJSON that {@code DataBootstrap} can load via {@code bootstrap.location}, gzipped
+     * when the file name ends in {@code .gz}.
+     */
+    public void writeEmployees(ObjectMapper objectMapper, Path file) throws IOException {
+        write(objectMapper.writerFor(Employee.class), employees, file);
+    }
+
+    /**
+     * Writes the compensations as NDJSON that {@code POST /bulk/compensation} accepts, gzipped when the file name
+     * ends in {@code .gz}.
+     */
+    public void writeCompensations(ObjectMapper objectMapper, Path file) throws IOException {
+        write(objectMapper.writerFor(Compensation.class), compensations, file);
+    }
+
+    private static void write(ObjectWriter writer, List<?> records, Path file) throws IOException {
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024);
+        if (file.getFileName().toString().endsWith(".gz")) {
+            out = new GZIPOutputStream(out, 64 * 1024);
+        }
+        try (OutputStream ndjson = out) {
+            for (Object record : records) {
+                ndjson.write(writer.writeValueAsBytes(record));
+                ndjson.write('\n');
+            }
+        }
+    }
+}
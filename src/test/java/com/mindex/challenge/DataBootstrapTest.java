@@ -1,12 +1,26 @@
 package com.mindex.challenge;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mindex.challenge.dao.EmployeeRepository;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.ReportingIndexService;
+import com.mindex.challenge.service.impl.EmployeeLookupCache;
+import com.mindex.challenge.service.impl.OrgGraphCache;
+import com.mindex.challenge.service.impl.OrgVersions;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
 import static org.junit.Assert.assertEquals;
 
 import static org.junit.Assert.assertNotNull;
@@ -18,6 +32,24 @@ public class DataBootstrapTest {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private DataBootstrap dataBootstrap;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ReportingIndexService reportingIndexService;
+
+    @Autowired
+    private OrgGraphCache orgGraphCache;
+
+    @Autowired
+    private EmployeeLookupCache lookupCache;
+
+    @Autowired
+    private OrgVersions orgVersions;
+
     @Test
     public void test() {
         Employee employee = employeeRepository.findByEmployeeId("16a596ae-edd3-4847-99fe-c4518e82c86f");
@@ -27,4 +59,35 @@ public class DataBootstrapTest {
         assertEquals("Development Manager", employee.getPosition());
         assertEquals("Engineering", employee.getDepartment());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testHealthReportsLoad() {
+        Health health = dataBootstrap.health();
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(29, health.getDetails().get("inserted"));
+    }
+
+    @Test
+    public void testGzippedNdjson() throws Exception {
+        String ndjson = "{\"employeeId\":\"bootstrap-gz-1\",\"firstName\":\"Stuart\",\"directReports\":[{\"employeeId\":\"bootstrap-gz-2\"}]}\n"
+                + "{\"employeeId\":\"bootstrap-gz-2\",\"firstName\":\"Pete\"}\n"
+                + "{\"employeeId\":\"bootstrap-gz-3\",\"firstName\":\"Brian\"}\n";
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+            out.write(ndjson.getBytes(StandardCharsets.UTF_8));
+        }
+
+        DataBootstrap loader = new DataBootstrap(employeeRepository, objectMapper, reportingIndexService, orgGraphCache, lookupCache,
+                orgVersions);
+        ReflectionTestUtils.setField(loader, "location", new ByteArrayResource(gzipped.toByteArray()));
+        ReflectionTestUtils.setField(loader, "async", false);
+        ReflectionTestUtils.setField(loader, "batchSize", 2);
+        ReflectionTestUtils.setField(loader, "writerThreads", 2);
+        loader.afterSingletonsInstantiated();
+
+        assertEquals(Status.UP, loader.health().getStatus());
+        assertEquals(3, loader.health().getDetails().get("inserted"));
+        assertEquals("Stuart", employeeRepository.findByEmployeeId("bootstrap-gz-1").getFirstName());
+        assertEquals(1, (int) reportingIndexService.getNumberOfReports("bootstrap-gz-1"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.mindex.challenge;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.EmployeeService;
+import org.bson.Document;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class EmployeeStorageMigrationTest {
+
+    @Autowired
+    private EmployeeStorageMigration employeeStorageMigration;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    public void testLegacyDirectReportsAreRewritten() throws Exception {
+        String managerId = UUID.randomUUID().toString();
+        String reportId = UUID.randomUUID().toString();
+        mongoTemplate.getCollection("employee").insertMany(List.of(
+                new Document("_id", reportId).append("firstName", "Legacy"),
+                new Document("_id", managerId)
+                        .append("directReports", List.of(new Document("_id", reportId)))
+                        .append("reportIds", List.of(reportId))));
+
+        assertEquals(1, employeeStorageMigration.migrate());
+
+        Document stored = mongoTemplate.getCollection("employee").find(new Document("_id", managerId)).first();
+        assertEquals(List.of(reportId), stored.getList("directReports", String.class));
+        assertFalse(stored.containsKey("reportIds"));
+        assertEquals(managerId, employeeService.read(reportId).getManagerId());
+        assertEquals(List.of(reportId), employeeRepository.findByManagerId(managerId).stream()
+                .map(Employee::getEmployeeId).toList());
+        assertTrue(mongoTemplate.indexOps(Employee.class).getIndexInfo().stream()
+                .anyMatch(index -> index.getName().equals("managerId")));
+        assertEquals(1, employeeService.getReportingStructure(managerId).getNumberOfReports());
+
+        //already migrated
+        assertEquals(0, employeeStorageMigration.migrate());
+    }
+}
@@ -0,0 +1,198 @@
+package com.mindex.challenge;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Drives GET requests at a running application from inside the test JVM and reports throughput and latency per
+ * endpoint.
+ * <p>
+ * Each client runs on its own thread and sends its requests back to back, picking an endpoint by weight for every
+ * request. Clients are seeded from the driver seed, so the same setup sends the same request sequence.
+ */
+public class LoadDriver {
+
+    //histogram bucket upper bounds, in milliseconds
+    private static final long[] BUCKETS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1_000, 2_000, 5_000, 10_000, Long.MAX_VALUE};
+
+    private final String baseUrl;
+    private final int clients;
+    private final int requestsPerClient;
+    private final long seed;
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private int totalWeight;
+
+    public LoadDriver(String baseUrl, int clients, int requestsPerClient, long seed) {
+        this.baseUrl = baseUrl;
+        this.clients = clients;
+        this.requestsPerClient = requestsPerClient;
+        this.seed = seed;
+    }
+
+    /**
+     * @param name how the endpoint is reported
+     * @param weight how often it is picked relative to the other endpoints
+     * @param path builds the path of each request, e.g. with a random employeeId
+     */
+    public LoadDriver endpoint(String name, int weight, Function<Random, String> path) {
+        endpoints.add(new Endpoint(name, weight, path));
+        totalWeight += weight;
+        return this;
+    }
+
+    public Report run() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        long start = System.nanoTime();
+        try {
+            List<Future<long[][]>> results = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                Random random = new Random(seed + c);
+                results.add(pool.submit(() -> drive(client, random)));
+            }
+
+            //per endpoint: latencies in nanos, negative for a non-2xx response
+            long[][] merged = new long[endpoints.size()][0];
+            for (Future<long[][]> result : results) {
+                long[][] latencies = result.get();
+                for (int e = 0; e < endpoints.size(); e++) {
+                    long[] combined = Arrays.copyOf(merged[e], merged[e].length + latencies[e].length);
+                    System.arraycopy(latencies[e], 0, combined, merged[e].length, latencies[e].length);
+                    merged[e] = combined;
+                }
+            }
+            long elapsedNanos = System.nanoTime() - start;
+
+            Map<String, EndpointReport> reports = new LinkedHashMap<>();
+            for (int e = 0; e < endpoints.size(); e++) {
+                reports.put(endpoints.get(e).name(), new EndpointReport(merged[e], elapsedNanos));
+            }
+            return new Report(reports, elapsedNanos);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private long[][] drive(HttpClient client, Random random) throws Exception {
+        long[][] latencies = new long[endpoints.size()][requestsPerClient];
+        int[] counts = new int[endpoints.size()];
+        for (int r = 0; r < requestsPerClient; r++) {
+            int e = pick(random);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + endpoints.get(e).path().apply(random))).build();
+            long start = System.nanoTime();
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            long latency = System.nanoTime() - start;
+            latencies[e][counts[e]++] = response.statusCode() / 100 == 2 ? latency : -latency;
+        }
+        for (int e = 0; e < endpoints.size(); e++) {
+            latencies[e] = Arrays.copyOf(latencies[e], counts[e]);
+        }
+        return latencies;
+    }
+
+    private int pick(Random random) {
+        int ticket = random.nextInt(totalWeight);
+        for (int e = 0; e < endpoints.size(); e++) {
+            ticket -= endpoints.get(e).weight();
+            if (ticket < 0) {
+                return e;
+            }
+        }
+        return endpoints.size() - 1;
+    }
+
+    private record Endpoint(String name, int weight, Function<Random, String> path) {}
+
+    public record Report(Map<String, EndpointReport> endpoints, long elapsedNanos) {
+
+        public EndpointReport endpoint(String name) {
+            return endpoints.get(name);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder();
+            endpoints.forEach((name, endpoint) -> report.append(name).append(": ").append(endpoint).append('\n'));
+            return report.toString();
+        }
+    }
+
+    public static class EndpointReport {
+        private final long[] sortedMillis;
+        private final int errors;
+        private final double throughput;
+        private final long[] histogram = new long[BUCKETS.length];
+
+        EndpointReport(long[] latencyNanos, long elapsedNanos) {
+            int errors = 0;
+            sortedMillis = new long[latencyNanos.length];
+            for (int i = 0; i < latencyNanos.length; i++) {
+                if (latencyNanos[i] < 0) {
+                    errors++;
+                }
+                sortedMillis[i] = Math.abs(latencyNanos[i]) / 1_000_000;
+            }
+            Arrays.sort(sortedMillis);
+            for (long millis : sortedMillis) {
+                int bucket = 0;
+                while (millis > BUCKETS[bucket]) {
+                    bucket++;
+                }
+                histogram[bucket]++;
+            }
+            this.errors = errors;
+            this.throughput = latencyNanos.length * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        public int getRequests() {
+            return sortedMillis.length;
+        }
+
+        public int getErrors() {
+            return errors;
+        }
+
+        public double getThroughput() {
+            return throughput;
+        }
+
+        /**
+         * @param percentile between 0 and 1, where 1 is the slowest request
+         */
+        public long percentile(double percentile) {
+            if (sortedMillis.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sortedMillis.length) - 1;
+            return sortedMillis[Math.max(0, index)];
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder(String.format(
+                    "%d requests, %d errors, %.1f req/s, p50 %dms p90 %dms p99 %dms max %dms",
+                    getRequests(), errors, throughput, percentile(0.50), percentile(0.90), percentile(0.99), percentile(1.0)));
+            long widest = Arrays.stream(histogram).max().orElse(0);
+            for (int b = 0; b < BUCKETS.length; b++) {
+                if (histogram[b] == 0) {
+                    continue;
+                }
+                String bound = BUCKETS[b] == Long.MAX_VALUE ? "  > " + BUCKETS[b - 1] : " <= " + BUCKETS[b];
+                report.append(String.format("%n  %8sms %7d %s", bound, histogram[b], "#".repeat((int) (40 * histogram[b] / widest))));
+            }
+            return report.toString();
+        }
+    }
+}
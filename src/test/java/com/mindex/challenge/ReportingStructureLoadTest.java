@@ -0,0 +1,163 @@
+package com.mindex.challenge;
+
+import com.mindex.challenge.dao.CompensationRepository;
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.ReportingIndexService;
+import com.mindex.challenge.service.impl.OrgGraphCache;
+import com.mindex.challenge.synthetic.OrgGenerator;
+import com.mindex.challenge.synthetic.OrgShape;
+import com.mindex.challenge.synthetic.SyntheticOrg;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Load tests against a real server seeded with a generated org.
+ * Opt-in, since they take a while: {@code ./gradlew test -Dload.test=true --tests '*ReportingStructureLoadTest'}.
+ * {@code -Dload.size} and {@code -Dload.shape} change the org the endpoint mix runs against.
+ */
+public class ReportingStructureLoadTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReportingStructureLoadTest.class);
+    private static final long SEED = 42;
+
+    //every manager has FAN_OUT reports, WIDE_DEPTH levels down
+    private static final int FAN_OUT = 4;
+    private static final int WIDE_DEPTH = 6;
+
+    private static final int CLIENTS = 64;
+    private static final int REQUESTS_PER_CLIENT = 25;
+
+    @Before
+    public void onlyWhenRequested() {
+        Assume.assumeTrue("load tests are opt-in, run with -Dload.test=true", Boolean.getBoolean("load.test"));
+    }
+
+    /**
+     * Compares reporting structure latency with the parallel strategy on platform threads against virtual threads.
+     * The virtual thread run is skipped when the tests themselves are not running on Java 21+.
+     */
+    @Test
+    public void compareP99AcrossThreadModes() throws Exception {
+        SyntheticOrg org = new OrgGenerator.OrgGeneratorBuilder()
+                .Seed(SEED)
+                .Size(sizeOf(FAN_OUT, WIDE_DEPTH))
+                .FanOut(OrgGenerator.FanOut.FIXED, FAN_OUT)
+                .MaxDepth(WIDE_DEPTH)
+                .build()
+                .generate();
+
+        LoadDriver.EndpointReport platform = reportingStructureLoad(org, false);
+        LOG.info("platform threads: {}", platform);
+
+        if (Runtime.version().feature() < 21) {
+            LOG.info("virtual threads: skipped, running on Java {}", Runtime.version().feature());
+            return;
+        }
+        LoadDriver.EndpointReport virtual = reportingStructureLoad(org, true);
+        LOG.info("virtual threads: {}", virtual);
+    }
+
+    /**
+     * Drives the blocking and the reactive reporting structure endpoints of one server with the same requests, at
+     * enough clients that the blocking side has to queue for request threads.
+     */
+    @Test
+    public void compareBlockingAndReactive() throws Exception {
+        SyntheticOrg org = new OrgGenerator.OrgGeneratorBuilder()
+                .Seed(SEED)
+                .Size(sizeOf(FAN_OUT, WIDE_DEPTH))
+                .FanOut(OrgGenerator.FanOut.FIXED, FAN_OUT)
+                .MaxDepth(WIDE_DEPTH)
+                .build()
+                .generate();
+        List<String> managerIds = org.getManagerIds();
+
+        try (ConfigurableApplicationContext context = start(org,
+                "reactive.enabled=true",
+                "reporting.strategy=batched",
+                "logging.level.com.mindex=INFO")) {
+            for (String prefix : List.of("/employee", "/reactive/employee")) {
+                LoadDriver.Report report = new LoadDriver(baseUrl(context), CLIENTS * 4, REQUESTS_PER_CLIENT, SEED)
+                        .endpoint("reportingStructure", 1, random -> prefix + "/reportingStructure/" + pick(managerIds, random))
+                        .run();
+                LOG.info("{}: {}", prefix, report.endpoint("reportingStructure"));
+                assertEquals(0, report.endpoint("reportingStructure").getErrors());
+            }
+        }
+    }
+
+    /**
+     * Runs a read-heavy mix over the employee endpoints with the configured reporting strategy.
+     */
+    @Test
+    public void reportEndpointMix() throws Exception {
+        OrgShape shape = OrgShape.valueOf(System.getProperty("load.shape", "skewed").toUpperCase());
+        SyntheticOrg org = shape.generator(Integer.getInteger("load.size", 10_000), SEED).Compensation(true).build().generate();
+        List<String> employeeIds = org.getEmployees().stream().map(Employee::getEmployeeId).toList();
+        List<String> managerIds = org.getManagerIds();
+
+        try (ConfigurableApplicationContext context = start(org, "logging.level.com.mindex=INFO")) {
+            LoadDriver.Report report = new LoadDriver(baseUrl(context), CLIENTS, REQUESTS_PER_CLIENT * 4, SEED)
+                    .endpoint("employee", 5, random -> "/employee/" + pick(employeeIds, random))
+                    .endpoint("compensation", 2, random -> "/employee/compensation/" + pick(employeeIds, random))
+                    .endpoint("reportingCount", 2, random -> "/employee/reportingStructure/" + pick(managerIds, random) + "/count")
+                    .endpoint("reportingStructure", 1, random -> "/employee/reportingStructure/" + pick(managerIds, random) + "?depth=2&limit=50")
+                    .run();
+            LOG.info("{} org of [{}] employees:\n{}", shape, org.getEmployees().size(), report);
+            report.endpoints().values().forEach(endpoint -> assertEquals(0, endpoint.getErrors()));
+        }
+    }
+
+    private LoadDriver.EndpointReport reportingStructureLoad(SyntheticOrg org, boolean virtualThreads) throws Exception {
+        List<String> managerIds = org.getManagerIds();
+        try (ConfigurableApplicationContext context = start(org,
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "reporting.strategy=parallel",
+                "logging.level.com.mindex=INFO")) {
+            LoadDriver.Report report = new LoadDriver(baseUrl(context), CLIENTS, REQUESTS_PER_CLIENT, SEED)
+                    .endpoint("reportingStructure", 1, random -> "/employee/reportingStructure/" + pick(managerIds, random))
+                    .run();
+            assertEquals(0, report.endpoint("reportingStructure").getErrors());
+            return report.endpoint("reportingStructure");
+        }
+    }
+
+    private static ConfigurableApplicationContext start(SyntheticOrg org, String... properties) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ChallengeApplication.class)
+                .properties("server.port=0")
+                .properties(properties)
+                .run();
+        org.insertInto(context.getBean(EmployeeRepository.class), context.getBean(CompensationRepository.class), 1000);
+        context.getBean(ReportingIndexService.class).rebuild();
+        context.getBean(OrgGraphCache.class).invalidate();
+        return context;
+    }
+
+    private static String baseUrl(ConfigurableApplicationContext context) {
+        return "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    private static String pick(List<String> ids, Random random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    private static int sizeOf(int fanOut, int depth) {
+        int size = 0;
+        for (int level = 0, width = 1; level <= depth; level++, width *= fanOut) {
+            size += width;
+        }
+        return size;
+    }
+}
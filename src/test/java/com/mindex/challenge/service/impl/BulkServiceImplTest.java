@@ -0,0 +1,187 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.BulkImportResult;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.BulkService;
+import com.mindex.challenge.service.EmployeeService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class BulkServiceImplTest {
+
+    private String bulkUrl;
+    private String prefix;
+
+    @Autowired
+    private BulkService bulkService;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Before
+    public void setup() {
+        bulkUrl = "http://localhost:" + port + "/bulk";
+        prefix = UUID.randomUUID() + "-";
+    }
+
+    @Test
+    public void testImportEmployeesNdjson() {
+        //the manager comes before their reports, one report points nowhere and one record is listed twice
+        String body = employee("manager", "lead", "analyst") + "\n"
+                + employee("analyst") + "\n"
+                + employee("lead", "dev") + "\n"
+                + employee("dev") + "\n"
+                + employee("dangling", "nobody") + "\n"
+                + employee("dev") + "\n"
+                + "{\"employeeId\":\"" + prefix + "bad\",\"directReports\":\"not a list\"}\n";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/x-ndjson"));
+        BulkImportResult result = restTemplate.postForEntity(bulkUrl + "/employee", new HttpEntity<>(body, headers), BulkImportResult.class).getBody();
+
+        assertEquals(7, result.getReceived());
+        assertEquals(4, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertEquals(3, result.getErrors().size());
+        assertTrue(result.getRecordsPerSecond() > 0);
+
+        assertEquals(3, employeeService.getReportingCount(prefix + "manager").getNumberOfReports());
+        assertEquals("Bulk", employeeService.read(prefix + "dev").getLastName());
+    }
+
+    @Test
+    public void testImportRejectsCyclesAndTakesBackUnresolved() {
+        //loopA and loopB list each other, and boss waits on loopA, so none of them can ever be resolved
+        String body = employee("boss", "loopA") + "\n"
+                + employee("loopA", "loopB") + "\n"
+                + employee("loopB", "loopA") + "\n"
+                + employee("fine");
+
+        BulkImportResult result = bulkService.importEmployees(stream(body));
+
+        assertEquals(4, result.getReceived());
+        assertEquals(1, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertEquals("Invalid direct reports: [" + prefix + "loopA]", result.getErrors().get(0).getMessage());
+        assertTrue(result.getErrors().get(1).getMessage().startsWith("Reporting cycle: " + prefix + "loopA -> "));
+        assertTrue(result.getErrors().get(2).getMessage().startsWith("Reporting cycle: "));
+        for (String name : List.of("boss", "loopA", "loopB")) {
+            assertNull(mongoTemplate.findById(prefix + name, Employee.class));
+        }
+        assertEquals("Bulk", employeeService.read(prefix + "fine").getLastName());
+    }
+
+    @Test
+    public void testImportEmployeesArrayWithExisting() {
+        String body = "[" + employee("newManager", "16a596ae-edd3-4847-99fe-c4518e82c86f") + ","
+                + "{\"employeeId\":\"16a596ae-edd3-4847-99fe-c4518e82c86f\",\"firstName\":\"Not John\"}]";
+
+        BulkImportResult result = bulkService.importEmployees(stream(body));
+
+        assertEquals(2, result.getReceived());
+        assertEquals(1, result.getImported());
+        assertEquals("16a596ae-edd3-4847-99fe-c4518e82c86f", result.getErrors().get(0).getEmployeeId());
+        assertEquals(5, employeeService.getReportingCount(prefix + "newManager").getNumberOfReports());
+        assertEquals("John", employeeService.read("16a596ae-edd3-4847-99fe-c4518e82c86f").getFirstName());
+    }
+
+    @Test
+    public void testImportAndExportCompensations() {
+        bulkService.importEmployees(stream(employee("paid") + "\n" + employee("alsoPaid")));
+        String body = "[{\"employeeId\":\"" + prefix + "paid\",\"salary\":100.5,\"effectiveDate\":\"2024-01-01\"},"
+                + "{\"employeeId\":\"" + prefix + "nobody\",\"salary\":1}, "
+                + "{\"employeeId\":\"" + prefix + "alsoPaid\",\"salary\":200}]";
+
+        BulkImportResult result = bulkService.importCompensations(stream(body));
+        assertEquals(3, result.getReceived());
+        assertEquals(2, result.getImported());
+        assertEquals(prefix + "nobody", result.getErrors().get(0).getEmployeeId());
+
+        List<Compensation> exported = new ArrayList<>();
+        bulkService.exportCompensations(compensation -> {
+            if (compensation.getEmployeeId().startsWith(prefix)) {
+                exported.add(compensation);
+            }
+        });
+        assertEquals(2, exported.size());
+
+        String lines = restTemplate.getForObject(bulkUrl + "/employee", String.class);
+        assertTrue(lines.contains("\"employeeId\":\"" + prefix + "alsoPaid\""));
+        List<Employee> employees = new ArrayList<>();
+        bulkService.exportEmployees(employees::add);
+        assertEquals(employees.size(), lines.split("\n").length);
+    }
+
+    @Test
+    public void testPayrollSnapshot() {
+        bulkService.importEmployees(stream(employee("salaried") + "\n" + employee("hired")));
+        String body = "{\"employeeId\":\"" + prefix + "salaried\",\"salary\":100,\"effectiveDate\":\"2023-01-01\"}\n"
+                + "{\"employeeId\":\"" + prefix + "salaried\",\"salary\":150,\"effectiveDate\":\"2024-01-01\"}\n"
+                + "{\"employeeId\":\"" + prefix + "salaried\",\"salary\":175,\"effectiveDate\":\"2025-01-01\"}\n"
+                + "{\"employeeId\":\"" + prefix + "hired\",\"salary\":90,\"effectiveDate\":\"2024-06-01\"}";
+        assertEquals(4, bulkService.importCompensations(stream(body)).getImported());
+        assertTrue(mongoTemplate.indexOps(Compensation.class).getIndexInfo().stream()
+                .anyMatch(index -> index.getName().equals("employeeId_effectiveDate")));
+
+        List<Compensation> snapshot = new ArrayList<>();
+        bulkService.exportPayroll(LocalDate.of(2024, 3, 1), compensation -> {
+            if (compensation.getEmployeeId().startsWith(prefix)) {
+                snapshot.add(compensation);
+            }
+        });
+        assertEquals(1, snapshot.size());
+        assertEquals(new BigDecimal("150"), snapshot.get(0).getSalary());
+
+        String lines = restTemplate.getForObject(bulkUrl + "/compensation/payroll?asOf=2024-12-31", String.class);
+        assertTrue(lines.contains("\"employeeId\":\"" + prefix + "hired\""));
+        assertTrue(lines.contains("\"employeeId\":\"" + prefix + "salaried\",\"salary\":150"));
+    }
+
+    private String employee(String name, String... directReports) {
+        StringBuilder json = new StringBuilder("{\"employeeId\":\"" + prefix + name + "\",\"firstName\":\"" + name
+                + "\",\"lastName\":\"Bulk\",\"directReports\":[");
+        for (int i = 0; i < directReports.length; i++) {
+            String id = directReports[i].length() == 36 ? directReports[i] : prefix + directReports[i];
+            json.append(i == 0 ? "" : ",").append("{\"employeeId\":\"").append(id).append("\"}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,79 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.EmployeeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class EmployeeLookupCacheTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testReadsAreCachedAndCopied() throws Exception {
+        String johnId = "16a596ae-edd3-4847-99fe-c4518e82c86f";
+        double hits = hits("employee");
+
+        Employee first = employeeService.read(johnId);
+        Employee second = employeeService.read(johnId);
+        assertNotSame(first, second);
+        assertTrue(hits("employee") > hits);
+
+        //hydrating one caller's copy must not leak into the next caller's
+        employeeService.getReportingStructure(johnId);
+        Employee third = employeeService.read(johnId);
+        assertNull(third.getDirectReports().get(0).getDirectReports());
+        assertEquals(2, third.getDirectReports().size());
+    }
+
+    @Test
+    public void testWritesInvalidate() {
+        Employee employee = new Employee();
+        employee.setFirstName("Cache");
+        employee.setLastName("Test");
+        employee.setDirectReports(new ArrayList<>());
+        employee = employeeService.create(employee);
+
+        employeeService.read(employee.getEmployeeId());
+        employee.setPosition("Manager");
+        employeeService.update(employee);
+        assertEquals("Manager", employeeService.read(employee.getEmployeeId()).getPosition());
+
+        Compensation compensation = new Compensation();
+        compensation.setEmployeeId(employee.getEmployeeId());
+        compensation.setSalary(new BigDecimal("100"));
+        compensation.setEffectiveDate(LocalDate.of(2024, 1, 1));
+        employeeService.createCompensation(compensation);
+        assertEquals(new BigDecimal("100"), employeeService.readCompensation(employee.getEmployeeId()).getSalary());
+
+        compensation.setSalary(new BigDecimal("200"));
+        employeeService.updateCompensation(compensation);
+        assertEquals(new BigDecimal("200"), employeeService.readCompensation(employee.getEmployeeId()).getSalary());
+        assertEquals(List.of(), employeeService.read(employee.getEmployeeId()).getDirectReports());
+    }
+
+    private double hits(String cache) {
+        return meterRegistry.get("cache.gets").tags("cache", cache, "result", "hit").functionCounter().count();
+    }
+}
@@ -0,0 +1,134 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeePage;
+import com.mindex.challenge.data.EmployeeSearch;
+import com.mindex.challenge.service.EmployeeSearchService;
+import com.mindex.challenge.service.EmployeeService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class EmployeeSearchServiceImplTest {
+
+    private String department;
+
+    @Autowired
+    private EmployeeSearchService employeeSearchService;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Before
+    public void setup() {
+        department = "Search " + UUID.randomUUID();
+        Employee report = employee("Pat", "Lee", "Developer");
+        employee("Ada", "Lee", "Developer");
+        employee("Lee", "Adams", "Manager", report);
+        employee("Sam", "Lever", "Developer");
+        employee("Kim", null, "Developer");
+    }
+
+    @Test
+    public void testPagesInSortOrder() {
+        List<String> ascending = names(searchAll(new EmployeeSearch.EmployeeSearchBuilder().Department(department), 2));
+        //no last name sorts first, and the two Lees are ordered by employeeId
+        assertEquals(5, ascending.size());
+        assertEquals("Kim null", ascending.get(0));
+        assertEquals("Lee Adams", ascending.get(1));
+        assertEquals("Sam Lever", ascending.get(4));
+
+        List<String> descending = names(searchAll(new EmployeeSearch.EmployeeSearchBuilder().Department(department).Descending(true), 2));
+        List<String> reversed = new ArrayList<>(ascending);
+        Collections.reverse(reversed);
+        assertEquals(reversed, descending);
+
+        List<String> byFirstName = names(searchAll(new EmployeeSearch.EmployeeSearchBuilder().Department(department).Sort("firstName"), 1));
+        assertEquals(List.of("Ada Lee", "Kim null", "Lee Adams", "Pat Lee", "Sam Lever"), byFirstName);
+    }
+
+    @Test
+    public void testFilters() {
+        //the prefix matches first or last names, and leaves direct reports out
+        List<Employee> lee = searchAll(new EmployeeSearch.EmployeeSearchBuilder().Department(department).Name("Le"), 10);
+        assertEquals(4, lee.size());
+        lee.forEach(employee -> assertNull(employee.getDirectReports()));
+
+        assertEquals(1, searchAll(new EmployeeSearch.EmployeeSearchBuilder().Department(department).Position("Manager"), 10).size());
+        assertEquals(0, searchAll(new EmployeeSearch.EmployeeSearchBuilder().Department(department).Name("L."), 10).size());
+
+        EmployeePage page = restTemplate.getForObject("http://localhost:" + port + "/employee/search?department={department}&position=Developer&limit=3",
+                EmployeePage.class, department);
+        assertEquals(3, page.getEmployees().size());
+        EmployeePage next = restTemplate.getForObject("http://localhost:" + port + "/employee/search?department={department}&position=Developer&limit=3&cursor={cursor}",
+                EmployeePage.class, department, page.getNextCursor());
+        assertEquals(1, next.getEmployees().size());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    public void testSearchIndexes() {
+        List<String> indexes = mongoTemplate.indexOps(Employee.class).getIndexInfo().stream().map(IndexInfo::getName).toList();
+        assertTrue(indexes.containsAll(List.of("lastName", "firstName", "department_lastName", "position_lastName")));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testCursorForAnotherSort() {
+        EmployeePage page = employeeSearchService.search(new EmployeeSearch.EmployeeSearchBuilder().Department(department).Limit(1).build());
+        employeeSearchService.search(new EmployeeSearch.EmployeeSearchBuilder().Department(department).Sort("firstName")
+                .Cursor(page.getNextCursor()).build());
+    }
+
+    private List<Employee> searchAll(EmployeeSearch.EmployeeSearchBuilder search, int limit) {
+        List<Employee> employees = new ArrayList<>();
+        String cursor = null;
+        do {
+            EmployeePage page = employeeSearchService.search(search.Limit(limit).Cursor(cursor).build());
+            assertTrue(page.getEmployees().size() <= limit);
+            employees.addAll(page.getEmployees());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return employees;
+    }
+
+    private static List<String> names(List<Employee> employees) {
+        return employees.stream().map(employee -> employee.getFirstName() + " " + employee.getLastName()).toList();
+    }
+
+    private Employee employee(String firstName, String lastName, String position, Employee... directReports) {
+        Employee employee = new Employee();
+        employee.setFirstName(firstName);
+        employee.setLastName(lastName);
+        employee.setPosition(position);
+        employee.setDepartment(department);
+        employee.setDirectReports(List.of(directReports));
+        return employeeService.create(employee);
+    }
+}
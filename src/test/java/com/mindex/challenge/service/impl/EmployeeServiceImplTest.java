@@ -1,26 +1,54 @@
 package com.mindex.challenge.service.impl;
 
+import com.mindex.challenge.data.Compensation;
 import com.mindex.challenge.data.Employee;
 import com.mindex.challenge.data.ErrorResponse;
+import com.mindex.challenge.data.ReportingNode;
 import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.data.ReportingStructureBatch;
+import com.mindex.challenge.data.ReportingStructureBatchRequest;
 import com.mindex.challenge.service.EmployeeService;
+import com.mindex.challenge.service.ReportingIndexService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.http.*;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
 
+import java.math.BigDecimal;
 import java.net.URI;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability(tracing = false)
 public class EmployeeServiceImplTest {
 
     private String employeeUrl;
@@ -29,6 +57,15 @@ public class EmployeeServiceImplTest {
     @Autowired
     private EmployeeService employeeService;
 
+    @Autowired
+    private ReportingIndexService reportingIndexService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @LocalServerPort
     private int port;
 
@@ -78,6 +115,121 @@ public class EmployeeServiceImplTest {
         assertEmployeeEquivalence(readEmployee, updatedEmployee);
     }
 
+    @Test
+    public void testPatchAndVersionConflicts() {
+        Employee employee = new Employee();
+        employee.setFirstName("Patch");
+        employee.setPosition("Developer");
+        employee.setDepartment("Engineering");
+        employeeService.create(employee);
+        assertEquals(Long.valueOf(0), employee.getVersion());
+
+        //the default client cannot send a PATCH
+        RestTemplate patchTemplate = new RestTemplate(new JdkClientHttpRequestFactory());
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        Employee patched = patchTemplate.patchForObject(employeeIdUrl,
+                new HttpEntity<>("{\"position\": \"Lead\", \"version\": 0}", headers), Employee.class, employee.getEmployeeId());
+        assertEquals("Lead", patched.getPosition());
+        assertEquals("Patch", patched.getFirstName());
+        assertEquals("Engineering", patched.getDepartment());
+        assertEquals(Long.valueOf(1), patched.getVersion());
+
+        //whoever still holds version 0 is refused, whether patching or replacing
+        HttpClientErrorException conflict = assertThrows(HttpClientErrorException.class, () -> patchTemplate.patchForObject(employeeIdUrl,
+                new HttpEntity<>("{\"position\": \"Architect\", \"version\": 0}", headers), Employee.class, employee.getEmployeeId()));
+        assertEquals(HttpStatus.CONFLICT, conflict.getStatusCode());
+        employee.setDepartment("Sales");
+        ResponseEntity<ErrorResponse> replaced = restTemplate.exchange(employeeIdUrl, HttpMethod.PUT,
+                new HttpEntity<>(employee, headers), ErrorResponse.class, employee.getEmployeeId());
+        assertEquals(HttpStatus.CONFLICT, replaced.getStatusCode());
+        assertEquals("Lead", employeeService.read(employee.getEmployeeId()).getPosition());
+
+        //without a version the change goes onto whatever is stored, and a change to nothing writes nothing
+        Employee changes = new Employee();
+        changes.setEmployeeId(employee.getEmployeeId());
+        changes.setDepartment("Sales");
+        assertEquals(Long.valueOf(2), employeeService.patch(changes).getVersion());
+        assertEquals(Long.valueOf(2), employeeService.patch(changes).getVersion());
+        Employee read = employeeService.read(employee.getEmployeeId());
+        assertEquals("Sales", read.getDepartment());
+        assertEquals("Lead", read.getPosition());
+
+        Employee missing = new Employee();
+        missing.setEmployeeId("missing");
+        assertThrows(RuntimeException.class, () -> employeeService.patch(missing));
+    }
+
+    @Test
+    public void testConditionalReads() {
+        Employee report = new Employee();
+        report.setFirstName("Tagged");
+        employeeService.create(report);
+        Employee manager = new Employee();
+        manager.setFirstName("Tagging");
+        manager.setDirectReports(List.of(report));
+        employeeService.create(manager);
+        String structureUrl = employeeUrl + "/reportingStructure/{id}";
+        String compensationUrl = employeeUrl + "/compensation/{id}";
+        Compensation managerCompensation = compensation("100", "2022-01-01");
+        managerCompensation.setEmployeeId(manager.getEmployeeId());
+        employeeService.createCompensation(managerCompensation);
+
+        ResponseEntity<Employee> read = restTemplate.getForEntity(employeeIdUrl, Employee.class, manager.getEmployeeId());
+        String employeeTag = read.getHeaders().getETag();
+        assertNotNull(employeeTag);
+        String structureTag = restTemplate.getForEntity(structureUrl, ReportingStructure.class, manager.getEmployeeId()).getHeaders().getETag();
+        String compensationTag = restTemplate.getForEntity(compensationUrl, Compensation.class, manager.getEmployeeId()).getHeaders().getETag();
+        double hits = conditionalRequests("employee", "hit");
+
+        //nothing has been written, so every copy is current
+        assertEquals(HttpStatus.NOT_MODIFIED, conditionalGet(employeeIdUrl, employeeTag, manager.getEmployeeId()).getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED, conditionalGet(structureUrl, "W/" + structureTag, manager.getEmployeeId()).getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED, conditionalGet(compensationUrl, "\"stale\", " + compensationTag, manager.getEmployeeId()).getStatusCode());
+        assertEquals(hits + 1, conditionalRequests("employee", "hit"), 0);
+
+        //a write to the report moves the manager's structure on, but not the manager
+        Employee changes = new Employee();
+        changes.setEmployeeId(report.getEmployeeId());
+        changes.setPosition("Lead");
+        employeeService.patch(changes);
+        assertEquals(HttpStatus.NOT_MODIFIED, conditionalGet(employeeIdUrl, employeeTag, manager.getEmployeeId()).getStatusCode());
+        ResponseEntity<String> structure = conditionalGet(structureUrl, structureTag, manager.getEmployeeId());
+        assertEquals(HttpStatus.OK, structure.getStatusCode());
+        assertTrue(structure.getBody().contains("Lead"));
+        assertNotNull(structure.getHeaders().getETag());
+        assertNotEquals(structureTag, structure.getHeaders().getETag());
+
+        Compensation raise = compensation("200", "2023-01-01");
+        raise.setEmployeeId(manager.getEmployeeId());
+        employeeService.createCompensation(raise);
+        ResponseEntity<String> compensation = conditionalGet(compensationUrl, compensationTag, manager.getEmployeeId());
+        assertEquals(HttpStatus.OK, compensation.getStatusCode());
+        assertTrue(compensation.getBody().contains("200"));
+
+        //an error never carries a tag
+        ResponseEntity<String> missing = conditionalGet(employeeIdUrl, employeeTag, "missing");
+        assertEquals(HttpStatus.I_AM_A_TEAPOT, missing.getStatusCode());
+        assertNull(missing.getHeaders().getETag());
+
+        //* matches whatever is current, so only an employee that exists
+        assertEquals(HttpStatus.NOT_MODIFIED, conditionalGet(employeeIdUrl, "*", manager.getEmployeeId()).getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED, conditionalGet(structureUrl, "*", manager.getEmployeeId()).getStatusCode());
+        assertEquals(HttpStatus.I_AM_A_TEAPOT, conditionalGet(employeeIdUrl, "*", "missing").getStatusCode());
+        assertEquals(HttpStatus.I_AM_A_TEAPOT, conditionalGet(compensationUrl, "*", report.getEmployeeId()).getStatusCode());
+    }
+
+    private ResponseEntity<String> conditionalGet(String url, String ifNoneMatch, String employeeId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(ifNoneMatch);
+        return restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class, employeeId);
+    }
+
+    private double conditionalRequests(String resource, String result) {
+        Counter counter = meterRegistry.find("http.conditional.requests").tag("resource", resource).tag("result", result).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
     private static void assertEmployeeEquivalence(Employee expected, Employee actual) {
         assertEquals(expected.getFirstName(), actual.getFirstName());
         assertEquals(expected.getLastName(), actual.getLastName());
@@ -85,6 +237,47 @@ public class EmployeeServiceImplTest {
         assertEquals(expected.getPosition(), actual.getPosition());
     }
 
+    @Test
+    public void testCompensationHistory() {
+        Employee employee = new Employee();
+        employee.setFirstName("Paid");
+        employee.setLastName("Often");
+        employee = employeeService.create(employee);
+        String compensationUrl = employeeUrl + "/compensation/{id}";
+
+        //the employeeId comes from the path, and every change is kept
+        restTemplate.postForEntity(compensationUrl, compensation("100", "2022-01-01"), Compensation.class, employee.getEmployeeId());
+        restTemplate.postForEntity(compensationUrl, compensation("200", "2023-01-01"), Compensation.class, employee.getEmployeeId());
+        restTemplate.postForEntity(compensationUrl, compensation("300", "2024-01-01"), Compensation.class, employee.getEmployeeId());
+        //a correction on the same day supersedes the earlier change
+        Compensation correction = compensation("250", "2024-01-01");
+        correction.setEmployeeId(employee.getEmployeeId());
+        employeeService.updateCompensation(correction);
+
+        assertEquals(new BigDecimal("250"), restTemplate.getForObject(compensationUrl, Compensation.class, employee.getEmployeeId()).getSalary());
+        assertEquals(new BigDecimal("200"), restTemplate.getForObject(compensationUrl + "?asOf=2023-12-31", Compensation.class,
+                employee.getEmployeeId()).getSalary());
+        assertEquals(HttpStatus.I_AM_A_TEAPOT, restTemplate.getForEntity(compensationUrl + "?asOf=2021-12-31", String.class,
+                employee.getEmployeeId()).getStatusCode());
+
+        Compensation[] history = restTemplate.getForObject(compensationUrl + "/history?from=2023-01-01", Compensation[].class,
+                employee.getEmployeeId());
+        assertEquals(List.of("200", "300", "250"), Arrays.stream(history).map(change -> change.getSalary().toPlainString()).toList());
+        assertEquals(4, employeeService.readCompensationHistory(employee.getEmployeeId(), null, null).size());
+
+        //a change without a salary keeps the one in effect
+        Compensation unchanged = new Compensation();
+        unchanged.setEmployeeId(employee.getEmployeeId());
+        assertEquals(new BigDecimal("250"), employeeService.updateCompensation(unchanged).getSalary());
+    }
+
+    private static Compensation compensation(String salary, String effectiveDate) {
+        Compensation compensation = new Compensation();
+        compensation.setSalary(new BigDecimal(salary));
+        compensation.setEffectiveDate(LocalDate.parse(effectiveDate));
+        return compensation;
+    }
+
     @Test
     public void testReportStructureSize(){
         ReportingStructure testStructure = restTemplate.getForEntity(employeeUrl + "/reportingStructure/" + "16a596ae-edd3-4847-99fe-c4518e82c86f", ReportingStructure.class ).getBody();
@@ -92,6 +285,70 @@ public class EmployeeServiceImplTest {
         assertEquals( 4, testStructure.getNumberOfReports());
     }
 
+    @Test
+    public void testReportStructureHydratesEveryLevel(){
+        ReportingStructure testStructure = restTemplate.getForEntity(employeeUrl + "/reportingStructure/" + "16a596ae-edd3-4847-99fe-c4518e82c86f", ReportingStructure.class ).getBody();
+        Employee ringo = testStructure.getEmployee().getDirectReports().get(1);
+        assertEquals("Ringo", ringo.getFirstName());
+        assertEquals(2, ringo.getDirectReports().size());
+        assertEquals("Pete", ringo.getDirectReports().get(0).getFirstName());
+        assertEquals("George", ringo.getDirectReports().get(1).getFirstName());
+    }
+
+    @Test
+    public void testReportStructureDepthAndFields(){
+        ReportingStructure testStructure = restTemplate.getForEntity(employeeUrl + "/reportingStructure/" + "16a596ae-edd3-4847-99fe-c4518e82c86f" + "?depth=1&fields=firstName", ReportingStructure.class ).getBody();
+        assertEquals(4, testStructure.getNumberOfReports());
+        assertEquals("John", testStructure.getEmployee().getFirstName());
+        assertNull(testStructure.getEmployee().getLastName());
+
+        //ringo is hydrated, but his own reports are left as ids for a later request
+        Employee ringo = testStructure.getEmployee().getDirectReports().get(1);
+        assertEquals("Ringo", ringo.getFirstName());
+        assertEquals(2, ringo.getDirectReports().size());
+        assertEquals("62c1084e-6e34-4630-93fd-9153afb65309", ringo.getDirectReports().get(0).getEmployeeId());
+        assertNull(ringo.getDirectReports().get(0).getFirstName());
+
+        //managerId is read only, so it is checked on the JSON rather than a bound Employee
+        Map<?, ?> projected = restTemplate.getForObject(employeeUrl + "/reportingStructure/" + "16a596ae-edd3-4847-99fe-c4518e82c86f"
+                + "?depth=1&fields=managerId", Map.class);
+        Map<?, ?> ringoJson = (Map<?, ?>) ((List<?>) ((Map<?, ?>) projected.get("employee")).get("directReports")).get(1);
+        assertEquals("16a596ae-edd3-4847-99fe-c4518e82c86f", ringoJson.get("managerId"));
+        assertNull(ringoJson.get("firstName"));
+    }
+
+    @Test
+    public void testReportStructurePagination(){
+        String pageUrl = employeeUrl + "/reportingStructure/" + "16a596ae-edd3-4847-99fe-c4518e82c86f" + "?depth=1&limit=1";
+        ReportingStructure firstPage = restTemplate.getForEntity(pageUrl, ReportingStructure.class ).getBody();
+        assertEquals(4, firstPage.getNumberOfReports());
+        assertEquals(1, firstPage.getEmployee().getDirectReports().size());
+        assertEquals("Paul", firstPage.getEmployee().getDirectReports().get(0).getFirstName());
+        assertNotNull(firstPage.getNextCursor());
+
+        ReportingStructure secondPage = restTemplate.getForEntity(pageUrl + "&cursor=" + firstPage.getNextCursor(), ReportingStructure.class ).getBody();
+        assertEquals(1, secondPage.getEmployee().getDirectReports().size());
+        assertEquals("Ringo", secondPage.getEmployee().getDirectReports().get(0).getFirstName());
+        assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    public void testReportStructureFlat(){
+        String flatUrl = employeeUrl + "/reportingStructure/" + "16a596ae-edd3-4847-99fe-c4518e82c86f" + "?flat=true";
+        ReportingStructure testStructure = restTemplate.getForEntity(flatUrl, ReportingStructure.class ).getBody();
+        assertEquals(4, testStructure.getNumberOfReports());
+        assertEquals("John", testStructure.getEmployee().getFirstName());
+        assertEquals(List.of(1, 1, 2, 2), testStructure.getReports().stream().map(ReportingNode::getDepth).toList());
+        assertEquals("03aa1462-ffa9-4978-901b-7c001562cf6f", testStructure.getReports().get(2).getParentId());
+
+        ReportingStructure shallow = restTemplate.getForEntity(flatUrl + "&depth=1", ReportingStructure.class ).getBody();
+        assertEquals(4, shallow.getNumberOfReports());
+        assertEquals(2, shallow.getReports().size());
+
+        //there are no employee documents in the list to project or page
+        assertEquals(HttpStatus.I_AM_A_TEAPOT, restTemplate.getForEntity(flatUrl + "&fields=firstName", ErrorResponse.class ).getStatusCode());
+    }
+
     @Test
     public void testReportStructureEmpty(){
         ReportingStructure testStructure = restTemplate.getForEntity(employeeUrl + "/reportingStructure/" + "b7839309-3348-463b-a7e3-5de1c168beb3", ReportingStructure.class ).getBody();
@@ -99,9 +356,116 @@ public class EmployeeServiceImplTest {
         assertEquals( 0, testStructure.getNumberOfReports());
     }
 
+    @Test
+    public void testReportStructureStream(){
+        ResponseEntity<String> response = restTemplate.getForEntity(employeeUrl + "/reportingStructure/" + "16a596ae-edd3-4847-99fe-c4518e82c86f" + "/stream", String.class );
+        assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+
+        String[] lines = response.getBody().split("\n");
+        assertEquals(5, lines.length);
+        assertEquals("{\"employeeId\":\"16a596ae-edd3-4847-99fe-c4518e82c86f\",\"depth\":0}", lines[0]);
+        assertEquals("{\"employeeId\":\"b7839309-3348-463b-a7e3-5de1c168beb3\",\"parentId\":\"16a596ae-edd3-4847-99fe-c4518e82c86f\",\"depth\":1}", lines[1]);
+        assertEquals("{\"employeeId\":\"62c1084e-6e34-4630-93fd-9153afb65309\",\"parentId\":\"03aa1462-ffa9-4978-901b-7c001562cf6f\",\"depth\":2}", lines[3]);
+
+        ResponseEntity<String> shallow = restTemplate.getForEntity(employeeUrl + "/reportingStructure/" + "16a596ae-edd3-4847-99fe-c4518e82c86f" + "/stream?depth=1", String.class );
+        assertEquals(3, shallow.getBody().split("\n").length);
+    }
+
+    @Test
+    public void testReportStructureStreamKeepsDirectReportsOrder() throws Exception {
+        String zach = "n4o5p6q7-r8s9-0t1u-2v3w-4x5y6z7a8b9c";
+        //the nested structure breadth first, listing shared reports under every manager but walking below them once
+        List<String> expected = new ArrayList<>();
+        Set<String> walked = new HashSet<>();
+        Deque<Employee> level = new ArrayDeque<>(List.of(employeeService.getReportingStructure(zach).getEmployee()));
+        while (!level.isEmpty()) {
+            Employee manager = level.poll();
+            if (!walked.add(manager.getEmployeeId()) || manager.getDirectReports() == null) {
+                continue;
+            }
+            for (Employee report : manager.getDirectReports()) {
+                expected.add(report.getEmployeeId() + "<" + manager.getEmployeeId());
+                level.add(report);
+            }
+        }
+
+        List<String> streamed = new ArrayList<>();
+        employeeService.streamReportingStructure(zach, null, batch -> batch.stream()
+                .filter(node -> node.getParentId() != null)
+                .forEach(node -> streamed.add(node.getEmployeeId() + "<" + node.getParentId())));
+        assertEquals(expected, streamed);
+    }
+
+    @Test
+    public void testReportStructureBatch(){
+        ReportingStructureBatchRequest request = new ReportingStructureBatchRequest(List.of(
+                "16a596ae-edd3-4847-99fe-c4518e82c86f", "03aa1462-ffa9-4978-901b-7c001562cf6f",
+                "b7839309-3348-463b-a7e3-5de1c168beb3", "16a596ae-edd3-4847-99fe-c4518e82c86f"), true);
+        ReportingStructureBatch batch = restTemplate.postForEntity(employeeUrl + "/reportingStructure/batch", request,
+                ReportingStructureBatch.class).getBody();
+
+        assertEquals(Map.of("16a596ae-edd3-4847-99fe-c4518e82c86f", 4, "03aa1462-ffa9-4978-901b-7c001562cf6f", 2,
+                "b7839309-3348-463b-a7e3-5de1c168beb3", 0), batch.getNumberOfReports());
+        assertEquals(3, batch.getStructures().size());
+        Employee john = batch.getStructures().get(0).getEmployee();
+        assertEquals("John", john.getFirstName());
+        assertEquals(2, john.getDirectReports().size());
+        assertNull(john.getDirectReports().get(0).getFirstName());
+
+        request = new ReportingStructureBatchRequest(List.of("16a596ae-edd3-4847-99fe-c4518e82c86f", "bad data"), false);
+        assertEquals(HttpStatus.I_AM_A_TEAPOT, restTemplate.postForEntity(employeeUrl + "/reportingStructure/batch",
+                request, ErrorResponse.class).getStatusCode());
+    }
+
+    @Test
+    public void testDirectReportsStoredAsIds() {
+        String first = employeeService.create(new Employee()).getEmployeeId();
+        String second = employeeService.create(new Employee()).getEmployeeId();
+
+        //reports can be sent as bare ids or as employees, and only their ids are kept either way
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        String body = "{\"firstName\": \"Lead\", \"managerId\": \"nobody\", \"directReports\": [\"" + first
+                + "\", {\"employeeId\": \"" + second + "\", \"firstName\": \"Ignored\"}]}";
+        Employee lead = restTemplate.postForEntity(employeeUrl, new HttpEntity<>(body, headers), Employee.class).getBody();
+        String leadId = lead.getEmployeeId();
+
+        Document stored = mongoTemplate.getCollection("employee").find(new Document("_id", leadId)).first();
+        assertEquals(List.of(first, second), stored.getList("directReports", String.class));
+        assertNull(stored.get("managerId"));
+        assertNull(employeeService.read(second).getFirstName());
+        assertEquals(leadId, restTemplate.getForObject(employeeIdUrl, Map.class, first).get("managerId"));
+        assertEquals(leadId, employeeService.read(second).getManagerId());
+
+        //dropping a report clears their managerId, and a managerId sent with the update is ignored
+        lead.setDirectReports(List.of(Employee.reference(second)));
+        lead.setManagerId(first);
+        employeeService.update(lead);
+        assertNull(employeeService.read(first).getManagerId());
+        assertEquals(leadId, employeeService.read(second).getManagerId());
+        assertNull(employeeService.read(leadId).getManagerId());
+        assertEquals(List.of(second), mongoTemplate.getCollection("employee").find(new Document("_id", leadId)).first()
+                .getList("directReports", String.class));
+        assertEquals(0, reportingIndexService.check().getMismatches());
+    }
+
     @Test
     public void testReportStructureException(){
         ResponseEntity<ErrorResponse> testEntity = restTemplate.getForEntity(employeeUrl + "/reportingStructure/" + "bad data", ErrorResponse.class );
         assertEquals(HttpStatus.I_AM_A_TEAPOT, testEntity.getStatusCode());
     }
+
+    @Test
+    public void testPrometheusMetrics(){
+        restTemplate.getForEntity(employeeUrl + "/reportingStructure/16a596ae-edd3-4847-99fe-c4518e82c86f", ReportingStructure.class);
+        restTemplate.getForEntity(employeeUrl + "/reportingStructure/" + "bad data", ErrorResponse.class);
+
+        String scrape = restTemplate.getForObject("http://localhost:" + port + "/actuator/prometheus", String.class);
+        assertTrue(scrape.contains("http_server_requests_seconds_bucket{"));
+        assertTrue(scrape.contains("employee_service_seconds_bucket{"));
+        assertTrue(scrape.contains("spring_data_repository_invocations_seconds_bucket{"));
+        assertTrue(scrape.contains("mongodb_driver_commands_seconds_count{"));
+        assertTrue(scrape.contains("reporting_traversal_nodes_bucket{"));
+        assertTrue(scrape.contains("api_errors_total{exception=\"RuntimeException\""));
+    }
 }
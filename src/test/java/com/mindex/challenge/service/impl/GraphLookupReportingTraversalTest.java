@@ -0,0 +1,66 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.ReportingNode;
+import com.mindex.challenge.service.EmployeeService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+//six levels fit John's two on mongo-java-server, which spends two of its depths on every level, but not Karen's six
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "reporting.graph-lookup.max-depth=6")
+public class GraphLookupReportingTraversalTest {
+
+    private static final String JOHN = "16a596ae-edd3-4847-99fe-c4518e82c86f";
+    private static final String RINGO = "03aa1462-ffa9-4978-901b-7c001562cf6f";
+    private static final String KAREN = "a1b2c3d4-e5f6-7g8h-9i0j-1k2l3m4n5o6p";
+
+    @Autowired
+    private GraphLookupReportingTraversal graphLookupReportingTraversal;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Test
+    public void testCountAndDescendants() {
+        assertEquals(4, graphLookupReportingTraversal.countReports(JOHN));
+        assertEquals(2, graphLookupReportingTraversal.countReports(RINGO));
+
+        List<ReportingNode> nodes = graphLookupReportingTraversal.descendants(JOHN);
+        assertEquals(List.of(1, 1, 2, 2), nodes.stream().map(ReportingNode::getDepth).toList());
+        assertEquals(List.of(JOHN, JOHN, RINGO, RINGO), nodes.stream().map(ReportingNode::getParentId).toList());
+
+        try {
+            graphLookupReportingTraversal.countReports("missing");
+            fail("counted the reports of an employee that does not exist");
+        } catch (RuntimeException expected) {
+            assertEquals("Invalid employeeId: missing", expected.getMessage());
+        }
+    }
+
+    @Test
+    public void testDeepStructuresAreNotCutShort() {
+        assertEquals(6, graphLookupReportingTraversal.calculate(employeeService.read(KAREN)).getNumberOfReports());
+        assertEquals(6, graphLookupReportingTraversal.countReports(KAREN));
+
+        List<ReportingNode> nodes = graphLookupReportingTraversal.descendants(KAREN);
+        assertEquals(List.of(1, 2, 3, 4, 5, 6), nodes.stream().map(ReportingNode::getDepth).toList());
+    }
+
+    @Test
+    public void testMaxDepthMustReachTheDirectReports() {
+        try {
+            new GraphLookupReportingTraversal(null, null, null, 0);
+            fail("accepted a max depth that $graphLookup would reject");
+        } catch (IllegalStateException expected) {
+            assertEquals("reporting.graph-lookup.max-depth must be at least 1, was 0", expected.getMessage());
+        }
+    }
+}
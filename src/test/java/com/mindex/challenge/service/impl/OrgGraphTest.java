@@ -0,0 +1,126 @@
+package com.mindex.challenge.service.impl;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class OrgGraphTest {
+
+    private static OrgGraph beatles() {
+        return new OrgGraph.Builder()
+                .add("john", List.of("paul", "ringo"))
+                .add("paul", List.of())
+                .add("ringo", List.of("pete", "george"))
+                .add("pete", List.of())
+                .add("george", List.of())
+                .build();
+    }
+
+    @Test
+    public void testCountsAndLevels() {
+        OrgGraph graph = beatles();
+
+        assertEquals(5, graph.size());
+        assertEquals(4, graph.countReports(graph.indexOf("john")));
+        assertEquals(2, graph.countReports(graph.indexOf("ringo")));
+        assertEquals(0, graph.countReports(graph.indexOf("paul")));
+        assertEquals(-1, graph.indexOf("yoko"));
+
+        List<int[]> levels = graph.levels(graph.indexOf("john"), Integer.MAX_VALUE);
+        assertEquals(2, levels.size());
+        assertArrayEquals(new int[]{graph.indexOf("paul"), graph.indexOf("ringo")}, levels.get(0));
+        assertEquals(1, graph.levels(graph.indexOf("john"), 1).size());
+        assertEquals(graph.indexOf("ringo"), graph.managerOf(graph.indexOf("george")));
+    }
+
+    @Test
+    public void testSharedReportsAndCyclesAreCountedOnce() {
+        OrgGraph graph = new OrgGraph.Builder()
+                .add("a", List.of("b", "c"))
+                .add("b", List.of("d"))
+                .add("c", List.of("d"))
+                .add("d", List.of("a"))
+                .build();
+
+        assertEquals(3, graph.countReports(graph.indexOf("a")));
+        assertEquals(3, graph.countReports(graph.indexOf("d")));
+    }
+
+    @Test
+    public void testAboveFollowsEveryManager() {
+        OrgGraph graph = new OrgGraph.Builder()
+                .add("a", List.of("b", "c"))
+                .add("b", List.of("d"))
+                .add("c", List.of("d"))
+                .add("d", List.of("a"))
+                .build();
+        OrgGraph tree = beatles();
+
+        assertArrayEquals(new int[]{graph.indexOf("b"), graph.indexOf("c"), graph.indexOf("a")}, graph.above(graph.indexOf("d")));
+        assertArrayEquals(new int[]{tree.indexOf("ringo"), tree.indexOf("john")}, tree.above(tree.indexOf("pete")));
+        assertArrayEquals(new int[0], tree.above(tree.indexOf("john")));
+    }
+
+    @Test
+    public void testWithDirectReportsLeavesOriginalUntouched() {
+        OrgGraph graph = beatles();
+        OrgGraph patched = graph.withDirectReports("paul", List.of("stuart"))
+                .withDirectReports("ringo", List.of("george"));
+
+        assertEquals(4, graph.countReports(graph.indexOf("john")));
+        assertEquals(6, patched.size());
+        assertEquals(4, patched.countReports(patched.indexOf("john")));
+        assertEquals(patched.indexOf("paul"), patched.managerOf(patched.indexOf("stuart")));
+        assertEquals(-1, patched.managerOf(patched.indexOf("pete")));
+    }
+
+    @Test
+    public void testPatchesMatchRebuildAcrossCompaction() {
+        OrgGraph patched = beatles();
+        OrgGraph.Builder rebuilt = new OrgGraph.Builder()
+                .add("john", List.of("paul", "ringo"))
+                .add("paul", List.of())
+                .add("ringo", List.of("pete", "george"))
+                .add("pete", List.of())
+                .add("george", List.of());
+        //enough changes to fold the overlay back into the arrays more than once
+        for (int i = 0; i < 200; i++) {
+            String manager = i % 2 == 0 ? "ringo" : "paul";
+            List<String> reports = List.of("hire" + i, i % 3 == 0 ? "george" : "pete");
+            patched = patched.withDirectReports(manager, reports);
+            rebuilt.add(manager, reports);
+        }
+        OrgGraph built = rebuilt.build();
+
+        assertEquals(built.size(), patched.size());
+        for (String id : List.of("john", "paul", "ringo", "pete", "george", "hire198", "hire199")) {
+            int node = patched.indexOf(id);
+            assertEquals(id, patched.idOf(node));
+            assertEquals(built.countReports(built.indexOf(id)), patched.countReports(node));
+            assertEquals(built.above(built.indexOf(id)).length, patched.above(node).length);
+            int manager = patched.managerOf(node);
+            int builtManager = built.managerOf(built.indexOf(id));
+            assertEquals(builtManager < 0 ? null : built.idOf(builtManager), manager < 0 ? null : patched.idOf(manager));
+        }
+        assertEquals(-1, patched.managerOf(patched.indexOf("hire0")));
+    }
+
+    @Test
+    public void testFindCycle() {
+        OrgGraph graph = new OrgGraph.Builder()
+                .add("a", List.of("b", "c"))
+                .add("b", List.of("d"))
+                .add("c", List.of("d"))
+                .add("d", List.of("a"))
+                .build();
+        OrgGraph tree = beatles();
+
+        int[] cycle = graph.findCycle(graph.indexOf("c"));
+        assertArrayEquals(new int[]{graph.indexOf("d"), graph.indexOf("a"), graph.indexOf("b"), graph.indexOf("d")}, cycle);
+        assertNull(tree.findCycle(tree.indexOf("john")));
+    }
+}
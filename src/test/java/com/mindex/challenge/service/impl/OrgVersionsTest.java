@@ -0,0 +1,71 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructureOptions;
+import com.mindex.challenge.service.EmployeeService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "reporting.strategy=batched")
+public class OrgVersionsTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private OrgVersions orgVersions;
+
+    @Autowired
+    private OrgGraphCache orgGraphCache;
+
+    @Test
+    public void testWritesDoNotLoadTheOrgGraph() {
+        Employee report = employeeService.create(employee("Report"));
+        Employee manager = employee("Manager");
+        manager.setDirectReports(List.of(stub(report.getEmployeeId())));
+        manager = employeeService.create(manager);
+        Employee director = employee("Director");
+        director.setDirectReports(List.of(stub(manager.getEmployeeId())));
+        director = employeeService.create(director);
+
+        //batched traversals never need the graph, so a write under them walks up the directReports index instead
+        orgGraphCache.invalidate();
+        String before = orgVersions.reportingStructureTag(director.getEmployeeId(), ReportingStructureOptions.FULL);
+        report.setPosition("Lead");
+        employeeService.update(report);
+        assertNotEquals(before, orgVersions.reportingStructureTag(director.getEmployeeId(), ReportingStructureOptions.FULL));
+        assertNull(orgGraphCache.loaded());
+
+        //once something else has loaded it, the graph answers instead
+        assertNotNull(orgGraphCache.lookup(report.getEmployeeId()));
+        before = orgVersions.reportingStructureTag(director.getEmployeeId(), ReportingStructureOptions.FULL);
+        report.setPosition("Manager");
+        employeeService.update(report);
+        assertNotEquals(before, orgVersions.reportingStructureTag(director.getEmployeeId(), ReportingStructureOptions.FULL));
+    }
+
+    private static Employee employee(String position) {
+        Employee employee = new Employee();
+        employee.setFirstName("Org");
+        employee.setLastName("Versions");
+        employee.setPosition(position);
+        employee.setDepartment("Engineering");
+        return employee;
+    }
+
+    private static Employee stub(String employeeId) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(employeeId);
+        return employee;
+    }
+}
@@ -0,0 +1,72 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.service.ReactiveEmployeeService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "reactive.enabled=true")
+public class ReactiveEmployeeServiceImplTest {
+
+    @Autowired
+    private ReactiveEmployeeService reactiveEmployeeService;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    public void testReportingStructure() {
+        ReportingStructure john = reactiveEmployeeService.getReportingStructure("16a596ae-edd3-4847-99fe-c4518e82c86f").block();
+        assertEquals(4, john.getNumberOfReports());
+        assertEquals(2, john.getEmployee().getDirectReports().size());
+
+        ReportingStructure overHttp = restTemplate.getForEntity("http://localhost:" + port + "/reactive/employee/reportingStructure/{id}",
+                ReportingStructure.class, "03aa1462-ffa9-4978-901b-7c001562cf6f").getBody();
+        assertEquals(2, overHttp.getNumberOfReports());
+
+        assertEquals(0, reactiveEmployeeService.getReportingCount("b7839309-3348-463b-a7e3-5de1c168beb3").block().getNumberOfReports());
+    }
+
+    @Test
+    public void testWritesVisibleToReactiveReads() {
+        Employee report = new Employee();
+        report.setFirstName("Reactive");
+        report.setLastName("Report");
+        report = reactiveEmployeeService.create(report).block();
+        assertNotNull(report.getEmployeeId());
+
+        Employee manager = new Employee();
+        manager.setFirstName("Reactive");
+        manager.setLastName("Manager");
+        manager.setDirectReports(List.of(report));
+        manager = restTemplate.postForEntity("http://localhost:" + port + "/reactive/employee", manager, Employee.class).getBody();
+
+        assertEquals(1, reactiveEmployeeService.getReportingStructure(manager.getEmployeeId()).block().getNumberOfReports());
+        assertEquals(1, reactiveEmployeeService.getReportingCount(manager.getEmployeeId()).block().getNumberOfReports());
+        assertEquals("Report", reactiveEmployeeService.read(report.getEmployeeId()).block().getLastName());
+    }
+
+    @Test
+    public void testUnknownEmployee() {
+        ResponseEntity<String> response = restTemplate.getForEntity("http://localhost:" + port + "/reactive/employee/{id}",
+                String.class, "no-such-employee");
+        assertEquals(HttpStatus.I_AM_A_TEAPOT, response.getStatusCode());
+    }
+}
@@ -0,0 +1,215 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.EmployeeService;
+import com.mindex.challenge.service.ReportingCycleException;
+import com.mindex.challenge.service.ReportingTraversal;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+//writes straight to the repository to set up orgs the service would refuse, so the context is not reused
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@DirtiesContext
+public class ReportingCycleTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private OrgGraphCache orgGraphCache;
+
+    @Autowired
+    private List<ReportingTraversal> traversals;
+
+    @Autowired
+    private GraphLookupReportingTraversal graphLookupReportingTraversal;
+
+    @Test
+    public void testSharedReportsAreCountedOnce() {
+        //a -> b, c; b -> d; c -> d; d -> e
+        String a = id(), b = id(), c = id(), d = id(), e = id();
+        store(e);
+        store(d, e);
+        store(b, d);
+        store(c, d);
+        store(a, b, c);
+
+        for (ReportingTraversal traversal : traversals) {
+            Employee root = employeeService.read(a);
+            assertEquals(traversal.getStrategy().name(), 4, traversal.calculate(root).getNumberOfReports());
+            Employee viaB = root.getDirectReports().get(0).getDirectReports().get(0);
+            Employee viaC = root.getDirectReports().get(1).getDirectReports().get(0);
+            assertSame(traversal.getStrategy().name(), viaB, viaC);
+        }
+
+        assertEquals(Map.of(a, 4, b, 2, c, 2, d, 1),
+                employeeService.getReportingStructures(List.of(a, b, c, d), false).getNumberOfReports());
+    }
+
+    @Test
+    public void testCyclesFailFast() {
+        //a -> b -> c -> b
+        String a = id(), b = id(), c = id();
+        store(a, b);
+        store(b, c);
+        store(c, b);
+
+        for (ReportingTraversal traversal : traversals) {
+            try {
+                traversal.calculate(employeeService.read(a));
+                fail(traversal.getStrategy() + " did not detect the cycle");
+            } catch (ReportingCycleException expected) {
+                assertEquals(traversal.getStrategy().name(), List.of(b, c, b), expected.getCycle());
+            }
+        }
+    }
+
+    @Test
+    public void testGraphLookupCountsAndListsSharedReports() {
+        //a -> b, c; b -> d; c -> d; d -> e
+        String a = id(), b = id(), c = id(), d = id(), e = id();
+        store(e);
+        store(d, e);
+        store(b, d);
+        store(c, d);
+        store(a, b, c);
+
+        assertEquals(4, graphLookupReportingTraversal.countReports(a));
+        assertEquals(0, graphLookupReportingTraversal.countReports(e));
+        List<String> nodes = graphLookupReportingTraversal.descendants(a).stream()
+                .map(node -> node.getEmployeeId() + "<" + node.getParentId() + "@" + node.getDepth())
+                .sorted()
+                .toList();
+        assertEquals(List.of(b + "<" + a + "@1", c + "<" + a + "@1", d + "<" + b + "@2", e + "<" + d + "@3").stream()
+                .sorted()
+                .toList(), nodes);
+
+        String missing = id();
+        store(e, missing);
+        try {
+            graphLookupReportingTraversal.descendants(a);
+            fail("descendants did not notice the missing report");
+        } catch (RuntimeException expected) {
+            assertEquals("Invalid employeeId: " + missing, expected.getMessage());
+        }
+    }
+
+    @Test
+    public void testBatchCountsReuseSharedSubtrees() {
+        //x -> y -> z, and y and z are asked for alongside x
+        String x = id(), y = id(), z = id();
+        store(z);
+        store(y, z);
+        store(x, y);
+
+        assertEquals(Map.of(x, 2, y, 1, z, 0),
+                employeeService.getReportingStructures(List.of(z, x, y), false).getNumberOfReports());
+
+        store(z, x);
+        try {
+            employeeService.getReportingStructures(List.of(x), false);
+            fail("batch counts did not detect the cycle");
+        } catch (ReportingCycleException expected) {
+            assertEquals(List.of(x, y, z, x), expected.getCycle());
+        }
+    }
+
+    @Test
+    public void testUpdateRejectsCycles() {
+        Employee developer = employeeService.create(employee());
+        Employee lead = employeeService.create(employee(developer));
+        Employee director = employeeService.create(employee(lead));
+
+        developer.setDirectReports(List.of(stub(director)));
+        try {
+            employeeService.update(developer);
+            fail("update introduced a cycle");
+        } catch (ReportingCycleException expected) {
+            assertEquals(List.of(developer.getEmployeeId(), director.getEmployeeId(), lead.getEmployeeId(),
+                    developer.getEmployeeId()), expected.getCycle());
+        }
+
+        lead.setDirectReports(List.of(stub(lead)));
+        try {
+            employeeService.update(lead);
+            fail("update made an employee their own report");
+        } catch (ReportingCycleException expected) {
+            assertEquals(List.of(lead.getEmployeeId(), lead.getEmployeeId()), expected.getCycle());
+        }
+
+        //patching through a second manager is checked against every chain the employee sits in
+        Employee otherLead = employeeService.create(employee(developer));
+        Employee changes = new Employee();
+        changes.setEmployeeId(developer.getEmployeeId());
+        changes.setDirectReports(List.of(stub(otherLead)));
+        try {
+            employeeService.patch(changes);
+            fail("patch introduced a cycle");
+        } catch (ReportingCycleException expected) {
+            assertEquals(List.of(developer.getEmployeeId(), otherLead.getEmployeeId(), developer.getEmployeeId()),
+                    expected.getCycle());
+        }
+
+        //reports that were already there are not checked again
+        director.setDirectReports(List.of(stub(lead), stub(otherLead)));
+        employeeService.update(director);
+        assertEquals(3, employeeService.getReportingCount(director.getEmployeeId()).getNumberOfReports());
+    }
+
+    private void store(String employeeId, String... directReportIds) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(employeeId);
+        employee.setFirstName("Cycle");
+        List<Employee> reports = new ArrayList<>();
+        for (String id : directReportIds) {
+            Employee report = new Employee();
+            report.setEmployeeId(id);
+            reports.add(report);
+        }
+        employee.setDirectReports(reports);
+        //saved over whatever is stored, at the version it is stored at
+        Employee stored = employeeRepository.findByEmployeeId(employeeId);
+        employee.setVersion(stored == null ? null : stored.getVersion());
+        employeeRepository.save(employee);
+        orgGraphCache.invalidate();
+    }
+
+    private static String id() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static Employee employee(Employee... directReports) {
+        Employee employee = new Employee();
+        employee.setFirstName("Cycle");
+        List<Employee> reports = new ArrayList<>();
+        for (Employee report : directReports) {
+            reports.add(stub(report));
+        }
+        employee.setDirectReports(reports);
+        return employee;
+    }
+
+    private static Employee stub(Employee employee) {
+        Employee stub = new Employee();
+        stub.setEmployeeId(employee.getEmployeeId());
+        return stub;
+    }
+}
@@ -0,0 +1,192 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.CompensationRollup;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.service.EmployeeService;
+import com.mindex.challenge.service.ReportingIndexService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class ReportingIndexServiceImplTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ReportingIndexService reportingIndexService;
+
+    @Autowired
+    private CompensationRollups compensationRollups;
+
+    @Autowired
+    private BatchedReportingTraversal batchedReportingTraversal;
+
+    @Test
+    public void testBootstrappedCounts() {
+        assertEquals(4, employeeService.getReportingCount("16a596ae-edd3-4847-99fe-c4518e82c86f").getNumberOfReports());
+        assertEquals(2, employeeService.getReportingCount("03aa1462-ffa9-4978-901b-7c001562cf6f").getNumberOfReports());
+        assertEquals(0, employeeService.getReportingCount("b7839309-3348-463b-a7e3-5de1c168beb3").getNumberOfReports());
+        //ten of Zach's reports are also listed further down his org, and each is counted once
+        assertEquals(14, employeeService.getReportingCount("n4o5p6q7-r8s9-0t1u-2v3w-4x5y6z7a8b9c").getNumberOfReports());
+    }
+
+    @Test
+    public void testIncrementalUpdates() {
+        Employee developer = employeeService.create(employee("Dev"));
+        Employee lead = employeeService.create(employee("Lead", developer));
+        Employee director = employeeService.create(employee("Director", lead));
+        Employee vp = employeeService.create(employee("VP", director));
+
+        assertEquals(1, count(lead));
+        assertEquals(3, count(vp));
+
+        //moving the developer straight under the VP leaves the VP's count alone
+        lead.setDirectReports(new ArrayList<>());
+        employeeService.update(lead);
+        vp.setDirectReports(List.of(stub(director), stub(developer)));
+        employeeService.update(vp);
+
+        assertEquals(0, count(lead));
+        assertEquals(1, count(director));
+        assertEquals(3, count(vp));
+
+        //handing the director to another manager takes the director's subtree with them
+        vp.setDirectReports(List.of(stub(developer)));
+        employeeService.update(vp);
+        Employee otherVp = employeeService.create(employee("Other VP", director));
+        assertEquals(2, count(otherVp));
+        assertEquals(1, count(vp));
+
+        assertEquals(0, reportingIndexService.check().getMismatches());
+    }
+
+    @Test
+    public void testRebuildMatchesTraversal() throws Exception {
+        reportingIndexService.rebuild();
+
+        for (String id : List.of("16a596ae-edd3-4847-99fe-c4518e82c86f", "n4o5p6q7-r8s9-0t1u-2v3w-4x5y6z7a8b9c")) {
+            ReportingStructure traversed = employeeService.getReportingStructure(id);
+            assertEquals(traversed.getNumberOfReports(), (int) reportingIndexService.getNumberOfReports(id));
+        }
+        assertEquals(0, reportingIndexService.check().getMismatches());
+    }
+
+    @Test
+    public void testSharedReportsAreCountedOnce() {
+        Employee developer = employeeService.create(employee("Dev"));
+        Employee lead = employeeService.create(employee("Lead", developer));
+        Employee otherLead = employeeService.create(employee("Other Lead"));
+        Employee director = employeeService.create(employee("Director", lead, otherLead));
+        pay(developer, "100000", "2024-01-01");
+
+        //the developer taken on by a second lead stays with the first, and the director still has them once
+        otherLead.setDirectReports(List.of(stub(developer)));
+        employeeService.update(otherLead);
+        assertEquals(1, count(lead));
+        assertEquals(1, count(otherLead));
+        assertEquals(3, count(director));
+        assertEquals(0, new BigDecimal("100000").compareTo(rollup(director).getTotalSalary()));
+        assertEquals(0, reportingIndexService.check().getMismatches());
+
+        //a raise is rolled up once, and dropping the developer from one lead leaves them under the other
+        pay(developer, "110000", "2025-01-01");
+        lead.setDirectReports(new ArrayList<>());
+        employeeService.update(lead);
+        assertEquals(0, count(lead));
+        assertEquals(3, count(director));
+        assertEquals(0, new BigDecimal("110000").compareTo(rollup(director).getTotalSalary()));
+        assertEquals(otherLead.getEmployeeId(), employeeService.read(developer.getEmployeeId()).getManagerId());
+        assertEquals(0, reportingIndexService.check().getMismatches());
+
+        otherLead.setDirectReports(new ArrayList<>());
+        employeeService.update(otherLead);
+        assertEquals(2, count(director));
+        assertEquals(0, rollup(director).getCompensatedReports());
+        assertEquals(0, reportingIndexService.check().getMismatches());
+    }
+
+    @Test
+    public void testCompensationRollups() {
+        Employee developer = employeeService.create(employee("Dev"));
+        Employee tester = employeeService.create(employee("Tester"));
+        Employee lead = employeeService.create(employee("Lead", developer, tester));
+        Employee director = employeeService.create(employee("Director", lead));
+        pay(developer, "100000", "2024-01-01");
+        pay(tester, "80000", "2024-01-01");
+        pay(lead, "150000", "2024-01-01");
+
+        CompensationRollup rollup = rollup(director);
+        assertEquals(0, new BigDecimal("330000").compareTo(rollup.getTotalSalary()));
+        assertEquals(new BigDecimal("110000.00"), rollup.getAverageSalary());
+        assertEquals(3, rollup.getCompensatedReports());
+
+        //a raise moves everyone above, a future-dated one does not yet
+        pay(developer, "120000", "2025-01-01");
+        pay(tester, "999999", LocalDate.now().plusYears(1).toString());
+        assertEquals(0, new BigDecimal("350000").compareTo(rollup(director).getTotalSalary()));
+        assertEquals(0, new BigDecimal("200000").compareTo(rollup(lead).getTotalSalary()));
+
+        //moving the tester out takes their salary along
+        lead.setDirectReports(List.of(stub(developer)));
+        employeeService.update(lead);
+        Employee otherLead = employeeService.create(employee("Other Lead", tester));
+        assertEquals(0, new BigDecimal("270000").compareTo(rollup(director).getTotalSalary()));
+        assertEquals(0, new BigDecimal("80000").compareTo(rollup(otherLead).getTotalSalary()));
+        assertEquals(1, rollup(otherLead).getCompensatedReports());
+
+        //the index agrees with a level-by-level walk over compensation history
+        CompensationRollup walked = compensationRollups.rollup(director.getEmployeeId(),
+                batchedReportingTraversal.directReportIds(List.of(employeeService.read(director.getEmployeeId()))), LocalDate.now());
+        assertEquals(0, walked.getTotalSalary().compareTo(rollup(director).getTotalSalary()));
+        assertEquals(walked.getCompensatedReports(), rollup(director).getCompensatedReports());
+        assertEquals(0, reportingIndexService.check().getMismatches());
+    }
+
+    private CompensationRollup rollup(Employee employee) {
+        return employeeService.getReportingCount(employee.getEmployeeId(), true).getCompensation();
+    }
+
+    private void pay(Employee employee, String salary, String effectiveDate) {
+        Compensation compensation = new Compensation();
+        compensation.setEmployeeId(employee.getEmployeeId());
+        compensation.setSalary(new BigDecimal(salary));
+        compensation.setEffectiveDate(LocalDate.parse(effectiveDate));
+        employeeService.createCompensation(compensation);
+    }
+
+    private int count(Employee employee) {
+        return employeeService.getReportingCount(employee.getEmployeeId()).getNumberOfReports();
+    }
+
+    private static Employee employee(String firstName, Employee... directReports) {
+        Employee employee = new Employee();
+        employee.setFirstName(firstName);
+        employee.setLastName("Index");
+        List<Employee> reports = new ArrayList<>();
+        for (Employee report : directReports) {
+            reports.add(stub(report));
+        }
+        employee.setDirectReports(reports);
+        return employee;
+    }
+
+    private static Employee stub(Employee employee) {
+        Employee stub = new Employee();
+        stub.setEmployeeId(employee.getEmployeeId());
+        return stub;
+    }
+}
@@ -0,0 +1,46 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.service.EmployeeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"reporting.strategy=batched", "reporting.benchmark.sample-rate=1.0"})
+public class ReportingShadowComparisonTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testShadowStrategiesAgreeWithPrimary() throws Exception {
+        ReportingStructure structure = employeeService.getReportingStructure("16a596ae-edd3-4847-99fe-c4518e82c86f");
+        assertEquals(4, structure.getNumberOfReports());
+
+        assertEquals(1, meterRegistry.get("reporting.structure.traversal")
+                .tags("strategy", "batched", "role", "primary").timer().count());
+        assertEquals(1, meterRegistry.get("reporting.structure.traversal")
+                .tags("strategy", "parallel", "role", "shadow").timer().count());
+        assertEquals(1, meterRegistry.get("reporting.structure.traversal")
+                .tags("strategy", "sequential", "role", "shadow").timer().count());
+        assertEquals(1, meterRegistry.get("reporting.structure.traversal")
+                .tags("strategy", "graph", "role", "shadow").timer().count());
+        assertEquals(1, meterRegistry.get("reporting.structure.traversal")
+                .tags("strategy", "graph_lookup", "role", "shadow").timer().count());
+        assertNull(meterRegistry.find("reporting.structure.shadow.mismatches").counter());
+
+        //the parallel shadow fans its reads out over the shared traversal pool
+        assertTrue(meterRegistry.get("executor.completed").tag("name", "traversal").functionCounter().count() > 0);
+    }
+}
@@ -0,0 +1,123 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.data.ReportingStructureOptions;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class ReportingStructureCacheTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReportingStructureCache cache = new ReportingStructureCache(100, Duration.ofMinutes(1), meterRegistry);
+
+    @Test
+    public void testConcurrentRequestsShareOneCalculation() throws Exception {
+        AtomicInteger calculations = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ReportingStructure> first = CompletableFuture.supplyAsync(() -> get("john", () -> {
+            calculations.incrementAndGet();
+            started.countDown();
+            release.await();
+            return structure(4);
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<ReportingStructure> second = CompletableFuture.supplyAsync(() -> get("john", () -> {
+            calculations.incrementAndGet();
+            return structure(-1);
+        }));
+        //the second request is counted before it starts waiting
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (requests("coalesced") == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        assertEquals(4, second.get().getNumberOfReports());
+        assertEquals(1, calculations.get());
+        assertEquals(1, requests("calculated"));
+        assertEquals(1, requests("coalesced"));
+    }
+
+    @Test
+    public void testResultsAreServedUntilTheVersionMoves() throws Exception {
+        ReportingStructure john = cache.get("john", ReportingStructureOptions.FULL, "1", () -> structure(4));
+        assertSame(john, cache.get("john", ReportingStructureOptions.FULL, "1", () -> structure(-1)));
+        assertEquals(1, requests("cached"));
+
+        //other options are another structure
+        ReportingStructureOptions limited = new ReportingStructureOptions.ReportingStructureOptionsBuilder().Depth(1).build();
+        assertEquals(2, cache.get("john", limited, "1", () -> structure(2)).getNumberOfReports());
+
+        //a write below john moves his version on
+        ReportingStructure recalculated = cache.get("john", ReportingStructureOptions.FULL, "2", () -> structure(5));
+        assertNotSame(john, recalculated);
+        assertEquals(5, recalculated.getNumberOfReports());
+        assertEquals(3, requests("calculated"));
+    }
+
+    @Test
+    public void testLargeStructuresAreNotKept() throws Exception {
+        AtomicInteger calculations = new AtomicInteger();
+        Callable<ReportingStructure> heavy = () -> {
+            calculations.incrementAndGet();
+            return structure(1000);
+        };
+        ReportingStructure small = cache.get("paul", ReportingStructureOptions.FULL, "1", () -> structure(3));
+
+        //heavier than the whole cache, so it is evicted once the cache catches up, which happens in the background
+        cache.get("zach", ReportingStructureOptions.FULL, "1", heavy);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (calculations.get() == 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            cache.get("zach", ReportingStructureOptions.FULL, "1", heavy);
+        }
+        assertEquals(2, calculations.get());
+        assertSame(small, cache.get("paul", ReportingStructureOptions.FULL, "1", () -> structure(-1)));
+    }
+
+    @Test
+    public void testFailuresAreNotKept() throws Exception {
+        RuntimeException failure = assertThrows(RuntimeException.class, () -> cache.get("missing", ReportingStructureOptions.FULL, "1", () -> {
+            throw new RuntimeException("Invalid employeeId: missing");
+        }));
+        assertEquals("Invalid employeeId: missing", failure.getMessage());
+
+        assertEquals(0, cache.get("missing", ReportingStructureOptions.FULL, "1", () -> structure(0)).getNumberOfReports());
+        assertEquals(2, requests("calculated"));
+    }
+
+    private ReportingStructure get(String employeeId, Callable<ReportingStructure> calculation) {
+        try {
+            return cache.get(employeeId, ReportingStructureOptions.FULL, "1", calculation);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long requests(String result) {
+        return (long) meterRegistry.get("reporting.structure.requests").tag("result", result).counter().count();
+    }
+
+    private static ReportingStructure structure(int numberOfReports) {
+        return new ReportingStructure.ReportingStructureBuilder()
+                .NumberOfReports(numberOfReports)
+                .build();
+    }
+}
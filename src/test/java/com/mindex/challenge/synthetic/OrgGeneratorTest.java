@@ -0,0 +1,77 @@
+package com.mindex.challenge.synthetic;
+
+import com.mindex.challenge.data.Employee;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OrgGeneratorTest {
+
+    @Test
+    public void testSameSeedSameOrg() {
+        SyntheticOrg first = OrgShape.SKEWED.generator(2_000, 7).Compensation(true).build().generate();
+        SyntheticOrg second = OrgShape.SKEWED.generator(2_000, 7).Compensation(true).build().generate();
+        SyntheticOrg other = OrgShape.SKEWED.generator(2_000, 8).build().generate();
+
+        assertEquals(2_000, first.getEmployees().size());
+        assertEquals(2_000, first.getCompensations().size());
+        for (int i = 0; i < first.getEmployees().size(); i++) {
+            assertEquals(first.getEmployees().get(i).getEmployeeId(), second.getEmployees().get(i).getEmployeeId());
+            assertEquals(first.getCompensations().get(i).getSalary(), second.getCompensations().get(i).getSalary());
+        }
+        assertEquals(first.getManagerIds(), second.getManagerIds());
+        assertNotEquals(first.getRoot().getEmployeeId(), other.getRoot().getEmployeeId());
+    }
+
+    @Test
+    public void testShapes() {
+        assertEquals(99, OrgShape.FLAT.generator(100, 1).build().generate().getRoot().getDirectReports().size());
+        assertEquals(99, maxDepth(OrgShape.DEEP.generator(100, 1).build().generate()));
+        assertEquals(3, maxDepth(OrgShape.BALANCED.generator(1_000, 1).build().generate()));
+
+        //a few very large teams, and most managers with one or two reports
+        SyntheticOrg skewed = OrgShape.SKEWED.generator(10_000, 1).build().generate();
+        int largest = skewed.getEmployees().stream()
+                .mapToInt(employee -> employee.getDirectReports() == null ? 0 : employee.getDirectReports().size())
+                .max().orElse(0);
+        assertTrue(largest > 100);
+    }
+
+    @Test
+    public void testMaxDepthIsRespected() {
+        SyntheticOrg org = new OrgGenerator.OrgGeneratorBuilder()
+                .Size(5_000)
+                .FanOut(OrgGenerator.FanOut.UNIFORM, 2)
+                .MaxDepth(4)
+                .build()
+                .generate();
+
+        assertEquals(5_000, org.getEmployees().size());
+        assertEquals(4, maxDepth(org));
+    }
+
+    private static int maxDepth(SyntheticOrg org) {
+        Map<String, Employee> byId = new HashMap<>();
+        org.getEmployees().forEach(employee -> byId.put(employee.getEmployeeId(), employee));
+        int depth = 0;
+        List<Employee> level = List.of(org.getRoot());
+        while (true) {
+            List<Employee> next = level.stream()
+                    .filter(employee -> employee.getDirectReports() != null)
+                    .flatMap(employee -> employee.getDirectReports().stream())
+                    .map(stub -> byId.get(stub.getEmployeeId()))
+                    .toList();
+            if (next.isEmpty()) {
+                return depth;
+            }
+            depth++;
+            level = next;
+        }
+    }
+}